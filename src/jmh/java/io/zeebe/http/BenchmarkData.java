@@ -0,0 +1,248 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http;
+
+import io.camunda.zeebe.client.api.response.ActivatedJob;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.ResponseInfo;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Flow;
+import javax.net.ssl.SSLSession;
+
+/**
+ * Creates the jobs, variables and response bodies of the benchmarks.
+ */
+final class BenchmarkData {
+
+  // the size of the chunks that the HTTP client passes to the body subscriber
+  private static final int CHUNK_SIZE = 16 * 1024;
+
+  private BenchmarkData() {
+  }
+
+  /**
+   * A job with the given custom headers and variables. The job is a plain proxy instead of a
+   * mock, so that the benchmarks don't measure the mocking framework.
+   */
+  static ActivatedJob job(Map<String, String> customHeaders, Map<String, Object> variables) {
+    return (ActivatedJob) Proxy.newProxyInstance(ActivatedJob.class.getClassLoader(),
+        new Class<?>[] {ActivatedJob.class}, (proxy, method, args) -> {
+          switch (method.getName()) {
+            case "getKey":
+            case "getProcessInstanceKey":
+            case "getProcessDefinitionKey":
+            case "getElementInstanceKey":
+              return 2251799813685249L;
+            case "getType":
+              return "http";
+            case "getBpmnProcessId":
+              return "process";
+            case "getElementId":
+              return "task";
+            case "getProcessDefinitionVersion":
+            case "getRetries":
+              return 3;
+            case "getDeadline":
+              return Long.MAX_VALUE;
+            case "getCustomHeaders":
+              return customHeaders;
+            case "getVariablesAsMap":
+              return variables;
+            case "hashCode":
+              return System.identityHashCode(proxy);
+            case "equals":
+              return proxy == args[0];
+            default:
+              throw new UnsupportedOperationException(method.getName());
+          }
+        });
+  }
+
+  /**
+   * @return the variables "var0" to "var{count - 1}" with short string values
+   */
+  static Map<String, Object> variables(int count) {
+    final Map<String, Object> variables = new HashMap<>();
+    for (int i = 0; i < count; i++) {
+      variables.put("var" + i, "value-" + i);
+    }
+    return variables;
+  }
+
+  /**
+   * @return a JSON object with an array of items, of about the given size
+   */
+  static byte[] jsonBody(int size) {
+    final StringBuilder json = new StringBuilder(size + 128);
+    json.append("{\"error\":{\"code\":\"NOT_FOUND\",\"message\":\"not found\"},\"items\":[");
+    for (int i = 0; json.length() < size; i++) {
+      if (i > 0) {
+        json.append(',');
+      }
+      json.append("{\"id\":").append(i)
+          .append(",\"name\":\"item-").append(i)
+          .append("\",\"active\":").append(i % 2 == 0)
+          .append(",\"price\":").append(i * 0.25)
+          .append('}');
+    }
+    return json.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * @return an XML document with repeated items, of about the given size
+   */
+  static byte[] xmlBody(int size) {
+    final StringBuilder xml = new StringBuilder(size + 128);
+    xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?><items>");
+    for (int i = 0; xml.length() < size; i++) {
+      xml.append("<item id=\"").append(i).append("\"><name>item-").append(i)
+          .append("</name><active>").append(i % 2 == 0)
+          .append("</active><price>").append(i * 0.25).append("</price></item>");
+    }
+    return xml.append("</items>").toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * @return a plain text of about the given size
+   */
+  static byte[] textBody(int size) {
+    final StringBuilder text = new StringBuilder(size + 64);
+    while (text.length() < size) {
+      text.append("The quick brown fox jumps over the lazy dog. ");
+    }
+    return text.toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * @return the body in chunks, like the HTTP client passes it to the body subscriber
+   */
+  static List<ByteBuffer> chunks(byte[] body) {
+    final List<ByteBuffer> chunks = new ArrayList<>();
+    for (int offset = 0; offset < body.length; offset += CHUNK_SIZE) {
+      chunks.add(ByteBuffer.wrap(body, offset, Math.min(CHUNK_SIZE, body.length - offset))
+          .asReadOnlyBuffer());
+    }
+    return chunks;
+  }
+
+  /**
+   * Read the body with the body handler of the worker, like the HTTP client does when the
+   * response is received.
+   */
+  static HttpResponse<ResponseBody> receive(ResponseBodyHandler bodyHandler, int statusCode,
+      String contentType, List<ByteBuffer> chunks) {
+    final HttpHeaders headers = HttpHeaders.of(Map.of("Content-Type", List.of(contentType)),
+        (name, value) -> true);
+    final ResponseInfo responseInfo = new ResponseInfo() {
+      @Override
+      public int statusCode() {
+        return statusCode;
+      }
+
+      @Override
+      public HttpHeaders headers() {
+        return headers;
+      }
+
+      @Override
+      public HttpClient.Version version() {
+        return HttpClient.Version.HTTP_1_1;
+      }
+    };
+
+    final HttpResponse.BodySubscriber<ResponseBody> subscriber = bodyHandler.apply(responseInfo);
+    subscriber.onSubscribe(new Flow.Subscription() {
+      @Override
+      public void request(long n) {
+      }
+
+      @Override
+      public void cancel() {
+      }
+    });
+    for (ByteBuffer chunk : chunks) {
+      // the buffers are consumed by the subscriber
+      subscriber.onNext(List.of(chunk.duplicate()));
+    }
+    subscriber.onComplete();
+
+    final ResponseBody body = subscriber.getBody().toCompletableFuture().join();
+    return response(statusCode, headers, body);
+  }
+
+  static HttpRequest request(String accept) {
+    return HttpRequest.newBuilder(URI.create("http://localhost/api"))
+        .header("Accept", accept)
+        .build();
+  }
+
+  private static HttpResponse<ResponseBody> response(int statusCode, HttpHeaders headers,
+      ResponseBody body) {
+    final HttpRequest request = request("application/json");
+    return new HttpResponse<>() {
+      @Override
+      public int statusCode() {
+        return statusCode;
+      }
+
+      @Override
+      public HttpRequest request() {
+        return request;
+      }
+
+      @Override
+      public Optional<HttpResponse<ResponseBody>> previousResponse() {
+        return Optional.empty();
+      }
+
+      @Override
+      public HttpHeaders headers() {
+        return headers;
+      }
+
+      @Override
+      public ResponseBody body() {
+        return body;
+      }
+
+      @Override
+      public Optional<SSLSession> sslSession() {
+        return Optional.empty();
+      }
+
+      @Override
+      public URI uri() {
+        return request.uri();
+      }
+
+      @Override
+      public HttpClient.Version version() {
+        return HttpClient.Version.HTTP_1_1;
+      }
+    };
+  }
+}
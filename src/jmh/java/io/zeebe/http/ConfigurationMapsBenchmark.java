@@ -0,0 +1,149 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http;
+
+import io.camunda.zeebe.client.api.response.ActivatedJob;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Resolves the configuration of a job through its layers - created for each job, with the
+ * custom headers and the environment variables shared between the jobs. The baseline is the
+ * previous configuration, that copied all entries into a merged map and a lower case index for
+ * each job.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConfigurationMapsBenchmark {
+
+  @Param({"10", "100", "1000"})
+  private int variableCount;
+
+  private ActivatedJob job;
+  private ConfigurationLayer customHeaders;
+  private ConfigurationLayer environmentVariables;
+  private Map<String, Object> variables;
+  private ConfigurationMaps configurationMaps;
+  private Map<String, String> headers;
+  private Map<String, String> environment;
+  private CopiedConfiguration copiedConfiguration;
+
+  @Setup
+  public void setUp() {
+    headers = new HashMap<>();
+    headers.put("url", "https://example.com/api/{{var1}}");
+    headers.put("method", "POST");
+    headers.put("Header-X-Request-Id", "{{var2}}");
+
+    environment = new HashMap<>();
+    environment.put("AUTHORIZATION", "Bearer token");
+
+    variables = BenchmarkData.variables(variableCount);
+    job = BenchmarkData.job(headers, variables);
+    customHeaders = new ConfigurationLayer(headers);
+    environmentVariables = new ConfigurationLayer(environment);
+    configurationMaps = create();
+    copiedConfiguration = createBaseline();
+  }
+
+  @Benchmark
+  public ConfigurationMaps create() {
+    return new ConfigurationMaps(job, customHeaders, variables, environmentVariables);
+  }
+
+  @Benchmark
+  public CopiedConfiguration createBaseline() {
+    return new CopiedConfiguration(job, headers, variables, environment);
+  }
+
+  @Benchmark
+  public Optional<String> getStringIgnoreCaseExactKey() {
+    return configurationMaps.getStringIgnoreCase("method");
+  }
+
+  @Benchmark
+  public Optional<String> getStringIgnoreCaseOtherCase() {
+    return configurationMaps.getStringIgnoreCase("authorization");
+  }
+
+  @Benchmark
+  public Optional<String> getStringIgnoreCaseMissingKey() {
+    return configurationMaps.getStringIgnoreCase("body");
+  }
+
+  @Benchmark
+  public Optional<String> getStringIgnoreCaseOtherCaseBaseline() {
+    return copiedConfiguration.getStringIgnoreCase("authorization");
+  }
+
+  /**
+   * The previous configuration of a job: the custom headers, the variables and the environment
+   * variables are copied into one map, and again into a map by lower case key.
+   */
+  public static final class CopiedConfiguration {
+
+    private final Map<String, Object> config = new HashMap<>();
+    private final Map<String, Object> configIgnoringCase;
+    private final Map<String, Object> httpHeaders = new HashMap<>();
+
+    CopiedConfiguration(ActivatedJob job, Map<String, String> customHeaders,
+        Map<String, Object> variables, Map<String, String> environmentVariables) {
+      config.putAll(customHeaders);
+      config.putAll(variables);
+      config.putAll(environmentVariables);
+      config.put("jobKey", job.getKey());
+      config.put("processInstanceKey", job.getProcessInstanceKey());
+
+      configIgnoringCase = new HashMap<>(config.size() * 2);
+      config.forEach((key, value) -> {
+        final String lowerCaseKey = key.toLowerCase(Locale.ROOT);
+        configIgnoringCase.merge(lowerCaseKey, value,
+            (existingValue, newValue) ->
+                String.valueOf(existingValue).isEmpty() ? newValue : existingValue);
+        if (lowerCaseKey.startsWith("header-")) {
+          httpHeaders.put(key, value);
+        }
+      });
+    }
+
+    Optional<String> getStringIgnoreCase(String key) {
+      final String lowerCaseKey = key.toLowerCase(Locale.ROOT);
+      if (!configIgnoringCase.containsKey(lowerCaseKey)) {
+        return Optional.empty();
+      }
+      return Optional.of(String.valueOf(configIgnoringCase.get(lowerCaseKey)))
+          .filter(value -> !value.isEmpty());
+    }
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Renders the templates of a job with the Mustache and the legacy placeholders. The compiled
+ * Mustache template is cached, like for the jobs of the same task.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlaceholderProcessorBenchmark {
+
+  private static final String TEMPLATE =
+      "https://example.com/api/{{var1}}/items/{{var2}}?filter={{var3}}";
+  private static final String LEGACY_TEMPLATE =
+      "https://example.com/api/${var1}/items/${var2}?filter=${var3}";
+  private static final String STATIC_TEXT = "https://example.com/api/items";
+
+  @Param({"10", "100", "1000"})
+  private int variableCount;
+
+  private PlaceholderProcessor placeholderProcessor;
+  private Map<String, Object> variables;
+
+  @Setup
+  public void setUp() {
+    placeholderProcessor = new PlaceholderProcessor();
+    variables = BenchmarkData.variables(variableCount);
+  }
+
+  @Benchmark
+  public String process() {
+    return placeholderProcessor.process(TEMPLATE, variables);
+  }
+
+  @Benchmark
+  public String processStaticText() {
+    return placeholderProcessor.process(STATIC_TEXT, variables);
+  }
+
+  @Benchmark
+  public String legacyProcess() {
+    return placeholderProcessor.legacyProcess(LEGACY_TEMPLATE, variables);
+  }
+}
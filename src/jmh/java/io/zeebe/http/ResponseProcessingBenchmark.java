@@ -0,0 +1,122 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reads a response body in chunks, like it is received from the HTTP client, and converts it to
+ * the variables of the job - or extracts the error code from the body of a failed request.
+ *
+ * <p>Run with the GC profiler to see the allocation rate, e.g. {@code -prof gc}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ResponseProcessingBenchmark {
+
+  @Param({"1024", "65536", "1048576", "10485760"})
+  private int bodySize;
+
+  private HttpJobHandler jobHandler;
+
+  private ResponseBodyHandler jsonBodyHandler;
+  private ResponseBodyHandler xmlBodyHandler;
+  private ResponseBodyHandler textBodyHandler;
+
+  private List<ByteBuffer> jsonBody;
+  private List<ByteBuffer> xmlBody;
+  private List<ByteBuffer> textBody;
+
+  private ConfigurationMaps configurationMaps;
+  private RequestPlan plan;
+
+  @Setup
+  public void setUp() {
+    jobHandler = new HttpJobHandler();
+
+    final ObjectMapper objectMapper = new ObjectMapper();
+    final StatusCodeMatcher failing = StatusCodeMatcher.parse("3xx, 4xx, 5xx");
+    final StatusCodeMatcher completing = StatusCodeMatcher.parse("1xx, 2xx");
+    jsonBodyHandler = new ResponseBodyHandler(BenchmarkData.request("application/json"),
+        failing::matches, completing::matches, objectMapper);
+    xmlBodyHandler = new ResponseBodyHandler(BenchmarkData.request("application/xml"),
+        failing::matches, completing::matches, objectMapper);
+    textBodyHandler = new ResponseBodyHandler(BenchmarkData.request("text/plain"),
+        failing::matches, completing::matches, objectMapper);
+
+    jsonBody = BenchmarkData.chunks(BenchmarkData.jsonBody(bodySize));
+    xmlBody = BenchmarkData.chunks(BenchmarkData.xmlBody(bodySize));
+    textBody = BenchmarkData.chunks(BenchmarkData.textBody(bodySize));
+
+    final Map<String, String> customHeaders = new HashMap<>();
+    customHeaders.put("url", "http://localhost/api");
+    customHeaders.put("errorCodePath", "/error/code");
+    configurationMaps = new ConfigurationMaps(BenchmarkData.job(customHeaders, Map.of()),
+        Map.of());
+    plan = new RequestPlan(new PlaceholderProcessor(), "http", customHeaders);
+  }
+
+  @Benchmark
+  public Map<String, Object> processJson() {
+    return process(jsonBodyHandler, "application/json", jsonBody);
+  }
+
+  @Benchmark
+  public Map<String, Object> processXml() {
+    return process(xmlBodyHandler, "application/xml", xmlBody);
+  }
+
+  @Benchmark
+  public Map<String, Object> processText() {
+    return process(textBodyHandler, "text/plain", textBody);
+  }
+
+  @Benchmark
+  public Optional<String> extractErrorCode() {
+    final HttpResponse<ResponseBody> response =
+        BenchmarkData.receive(jsonBodyHandler, 404, "application/json", jsonBody);
+    return jobHandler.extractFromBody(configurationMaps, plan, response.body(), "errorCodePath");
+  }
+
+  private Map<String, Object> process(ResponseBodyHandler bodyHandler, String contentType,
+      List<ByteBuffer> body) {
+    final HttpResponse<ResponseBody> response =
+        BenchmarkData.receive(bodyHandler, 200, contentType, body);
+    return jobHandler.processResponse(response, ResponseProjection.none());
+  }
+}
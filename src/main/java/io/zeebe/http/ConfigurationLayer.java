@@ -0,0 +1,105 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * One source of configuration values, e.g. the custom headers or the variables of a job. The
+ * layer is a read-only view of the given map. The index of its keys is built on first use, so a
+ * layer that is shared between jobs is indexed only once.
+ */
+public class ConfigurationLayer {
+
+  private static final String HTTP_HEADER_PREFIX = "header-";
+
+  private final Map<String, ?> entries;
+
+  private volatile Index index;
+
+  public ConfigurationLayer(Map<String, ?> entries) {
+    this.entries = entries != null ? entries : Collections.emptyMap();
+  }
+
+  public boolean containsKey(String key) {
+    return entries.containsKey(key);
+  }
+
+  public Object get(String key) {
+    return entries.get(key);
+  }
+
+  /**
+   * @return a key of this layer that is equal to the given key ignoring the case. If there are
+   * multiple keys, a key with a non-empty value is preferred.
+   */
+  public Optional<String> findKeyIgnoringCase(String key) {
+    return Optional.ofNullable(getIndex().keysIgnoringCase.get(key.toLowerCase(Locale.ROOT)));
+  }
+
+  /**
+   * @return the keys with the prefix "header-" (ignoring the case)
+   */
+  public List<String> getHttpHeaderKeys() {
+    return getIndex().httpHeaderKeys;
+  }
+
+  public Map<String, ?> getEntries() {
+    return entries;
+  }
+
+  private Index getIndex() {
+    Index currentIndex = index;
+    if (currentIndex == null) {
+      currentIndex = new Index(entries);
+      index = currentIndex;
+    }
+    return currentIndex;
+  }
+
+  private static boolean isEmpty(Object value) {
+    return String.valueOf(value).isEmpty();
+  }
+
+  private static final class Index {
+
+    private final Map<String, String> keysIgnoringCase;
+    private final List<String> httpHeaderKeys;
+
+    private Index(Map<String, ?> entries) {
+      final Map<String, String> keys = new HashMap<>(entries.size() * 2);
+      final List<String> headerKeys = new ArrayList<>();
+
+      entries.forEach((key, value) -> {
+        keys.merge(key.toLowerCase(Locale.ROOT), key,
+            (existingKey, newKey) -> isEmpty(entries.get(existingKey)) ? newKey : existingKey);
+
+        if (key.regionMatches(true, 0, HTTP_HEADER_PREFIX, 0, HTTP_HEADER_PREFIX.length())) {
+          headerKeys.add(key);
+        }
+      });
+
+      keysIgnoringCase = keys;
+      httpHeaderKeys = Collections.unmodifiableList(headerKeys);
+    }
+  }
+}
@@ -1,31 +1,41 @@
 package io.zeebe.http;
 
 import io.camunda.zeebe.client.api.response.ActivatedJob;
-import java.util.HashMap;
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
+/**
+ * The configuration of a job, resolved through the layers: job metadata, then environment
+ * variables, then process variables, then custom headers. The layers are not copied, so the
+ * layers that don't change between jobs can be shared.
+ */
 public class ConfigurationMaps {
 
-  private final Map<String, String> customHeaders;
-  private final Map<String, Object> variables;
-  private final Map<String, String> environmentVariables;
+  // ordered by precedence, the first layer that contains a key wins
+  private final List<ConfigurationLayer> layers;
 
   private final Map<String, Object> config;
 
   public ConfigurationMaps(ActivatedJob job, Map<String, String> environmentVariables) {
+    this(job, new ConfigurationLayer(job.getCustomHeaders()), job.getVariablesAsMap(),
+        new ConfigurationLayer(environmentVariables));
+  }
 
-    this.customHeaders = job.getCustomHeaders();
-    this.variables = job.getVariablesAsMap();
-    this.environmentVariables = environmentVariables;
+  public ConfigurationMaps(ActivatedJob job, ConfigurationLayer customHeaders,
+      Map<String, Object> variables, ConfigurationLayer environmentVariables) {
 
-    config = new HashMap<>();
-    config.putAll(customHeaders);
-    config.putAll(variables);
-    config.putAll(environmentVariables);
+    final ConfigurationLayer jobMetadata = new ConfigurationLayer(Map.of(
+        "jobKey", job.getKey(),
+        "processInstanceKey", job.getProcessInstanceKey()));
 
-    config.put("jobKey", job.getKey());
-    config.put("processInstanceKey", job.getProcessInstanceKey());
+    layers = List.of(jobMetadata, environmentVariables, new ConfigurationLayer(variables),
+        customHeaders);
+    config = new LayeredMap();
   }
 
   public Optional<Object> get(String key) {
@@ -37,14 +47,84 @@ public class ConfigurationMaps {
   }
 
   public Optional<String> getStringIgnoreCase(String key) {
-    return config.entrySet().stream()
-        .filter(entry -> entry.getKey().equalsIgnoreCase(key))
-        .map(entry -> String.valueOf(entry.getValue()))
-        .filter(value -> !value.isEmpty())
-        .findFirst();
+    // the exact key is the common case and doesn't need the index of the layers
+    final Optional<String> value = getString(key);
+    if (value.isPresent()) {
+      return value;
+    }
+
+    for (int i = 0; i < layers.size(); i++) {
+      // resolves the value of the key through all layers, in case a layer with a higher
+      // precedence contains the same key
+      final Optional<String> layerValue = layers.get(i).findKeyIgnoringCase(key)
+          .flatMap(this::getString);
+
+      if (layerValue.isPresent()) {
+        return layerValue;
+      }
+    }
+    return Optional.empty();
   }
 
+  /**
+   * @return the config entries with the prefix "header-" (ignoring the case), by their key
+   */
+  public Map<String, Object> getHttpHeaders() {
+    final Map<String, Object> httpHeaders = new LinkedHashMap<>();
+    for (ConfigurationLayer layer : layers) {
+      for (String key : layer.getHttpHeaderKeys()) {
+        httpHeaders.putIfAbsent(key, config.get(key));
+      }
+    }
+    return httpHeaders;
+  }
+
+  /**
+   * @return a read-only view of the merged layers
+   */
   public Map<String, Object> getConfig() {
     return config;
   }
+
+  private ConfigurationLayer findLayer(String key) {
+    for (int i = 0; i < layers.size(); i++) {
+      final ConfigurationLayer layer = layers.get(i);
+      if (layer.containsKey(key)) {
+        return layer;
+      }
+    }
+    return null;
+  }
+
+  private final class LayeredMap extends AbstractMap<String, Object> {
+
+    private Map<String, Object> mergedEntries;
+
+    @Override
+    public boolean containsKey(Object key) {
+      return key instanceof String && findLayer((String) key) != null;
+    }
+
+    @Override
+    public Object get(Object key) {
+      if (!(key instanceof String)) {
+        return null;
+      }
+      final ConfigurationLayer layer = findLayer((String) key);
+      return layer != null ? layer.get((String) key) : null;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+      // only needed to iterate over the config, which is not done on the hot path
+      if (mergedEntries == null) {
+        final Map<String, Object> merged = new LinkedHashMap<>();
+        for (int i = layers.size() - 1; i >= 0; i--) {
+          merged.putAll(layers.get(i).getEntries());
+        }
+        mergedEntries = Collections.unmodifiableMap(merged);
+      }
+      return mergedEntries.entrySet();
+    }
+  }
 }
@@ -0,0 +1,85 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Optional;
+import javax.net.ssl.SSLSession;
+
+/**
+ * A response of a coalesced request with a copy of its body, for a job that joined the request.
+ */
+final class CopiedHttpResponse implements HttpResponse<ResponseBody> {
+
+  private final HttpResponse<ResponseBody> response;
+  private final ResponseBody body;
+
+  private CopiedHttpResponse(HttpResponse<ResponseBody> response, ResponseBody body) {
+    this.response = response;
+    this.body = body;
+  }
+
+  /**
+   * @return a response that shares no mutable state with the given one
+   */
+  static HttpResponse<ResponseBody> of(HttpResponse<ResponseBody> response) {
+    return new CopiedHttpResponse(response, response.body().copy());
+  }
+
+  @Override
+  public int statusCode() {
+    return response.statusCode();
+  }
+
+  @Override
+  public HttpRequest request() {
+    return response.request();
+  }
+
+  @Override
+  public Optional<HttpResponse<ResponseBody>> previousResponse() {
+    return response.previousResponse();
+  }
+
+  @Override
+  public HttpHeaders headers() {
+    return response.headers();
+  }
+
+  @Override
+  public ResponseBody body() {
+    return body;
+  }
+
+  @Override
+  public Optional<SSLSession> sslSession() {
+    return response.sslSession();
+  }
+
+  @Override
+  public URI uri() {
+    return response.uri();
+  }
+
+  @Override
+  public HttpClient.Version version() {
+    return response.version();
+  }
+}
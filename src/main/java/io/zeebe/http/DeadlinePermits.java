@@ -0,0 +1,175 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Limits the number of jobs in flight. If no permit is available, a job waits in a queue, and the
+ * waiting jobs get the next permits in the order of their deadline - the job with the least
+ * remaining time first. A job whose deadline has passed when it would get a permit is skipped,
+ * since it may be activated by another worker already.
+ *
+ * <p>Submitting a job doesn't wait for a permit, so the queue can hold more jobs than there are
+ * threads that submit them. The submitting thread only waits while the queue is full. The jobs
+ * are started one after the other by the thread that submits a job or releases a permit - a job
+ * that releases its permit right away doesn't start the next job recursively.
+ */
+public class DeadlinePermits {
+
+  private static final Logger LOG = LoggerFactory.getLogger(DeadlinePermits.class);
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition notFull = lock.newCondition();
+  private final PriorityQueue<Waiter> waiters = new PriorityQueue<>();
+  // the number of requests to start jobs, only the thread that makes the first one starts them
+  private final AtomicInteger startRequests = new AtomicInteger();
+  private final int maxWaitingJobs;
+  private final LongSupplier clock;
+
+  private int availablePermits;
+  private long sequence = 0;
+
+  /**
+   * @param clock the current time in milliseconds, like the deadline of a job
+   */
+  public DeadlinePermits(int permits, int maxWaitingJobs, LongSupplier clock) {
+    this.availablePermits = permits;
+    this.maxWaitingJobs = maxWaitingJobs;
+    this.clock = clock;
+  }
+
+  public DeadlinePermits(int permits, int maxWaitingJobs) {
+    this(permits, maxWaitingJobs, System::currentTimeMillis);
+  }
+
+  /**
+   * Start the job when it gets a permit, or skip it if its deadline passes before. Waits only
+   * while the queue of waiting jobs is full.
+   *
+   * @param deadline the deadline of the job in epoch milliseconds
+   * @param job started with a permit, which must be released when the job is done
+   * @param expired called instead of the job if its deadline has passed
+   */
+  public void submit(long deadline, Runnable job, Runnable expired) throws InterruptedException {
+    lock.lock();
+    try {
+      while (waiters.size() >= maxWaitingJobs) {
+        final long untilExpiry = waiters.peek().deadline - clock.getAsLong();
+        if (untilExpiry <= 0) {
+          // the expired job leaves the queue when the jobs are started
+          break;
+        }
+        notFull.await(untilExpiry, TimeUnit.MILLISECONDS);
+      }
+      waiters.add(new Waiter(deadline, sequence++, job, expired));
+    } finally {
+      lock.unlock();
+    }
+    startJobs();
+  }
+
+  public void release() {
+    lock.lock();
+    try {
+      availablePermits += 1;
+    } finally {
+      lock.unlock();
+    }
+    startJobs();
+  }
+
+  public int getWaitingJobs() {
+    lock.lock();
+    try {
+      return waiters.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void startJobs() {
+    if (startRequests.getAndIncrement() > 0) {
+      // another thread is starting the jobs and checks the queue again
+      return;
+    }
+
+    int requests = 1;
+    do {
+      Runnable next;
+      while ((next = pollNext()) != null) {
+        try {
+          next.run();
+        } catch (RuntimeException e) {
+          // don't stop starting the other jobs
+          LOG.warn("Failed to start a job", e);
+        }
+      }
+      requests = startRequests.addAndGet(-requests);
+    } while (requests > 0);
+  }
+
+  private Runnable pollNext() {
+    lock.lock();
+    try {
+      final Waiter next = waiters.peek();
+      if (next == null) {
+        return null;
+      } else if (clock.getAsLong() >= next.deadline) {
+        waiters.poll();
+        notFull.signal();
+        return next.expired;
+      } else if (availablePermits > 0) {
+        availablePermits -= 1;
+        waiters.poll();
+        notFull.signal();
+        return next.job;
+      } else {
+        return null;
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private static final class Waiter implements Comparable<Waiter> {
+
+    private final long deadline;
+    private final long sequence;
+    private final Runnable job;
+    private final Runnable expired;
+
+    private Waiter(long deadline, long sequence, Runnable job, Runnable expired) {
+      this.deadline = deadline;
+      this.sequence = sequence;
+      this.job = job;
+      this.expired = expired;
+    }
+
+    @Override
+    public int compareTo(Waiter other) {
+      final int byDeadline = Long.compare(deadline, other.deadline);
+      return byDeadline != 0 ? byDeadline : Long.compare(sequence, other.sequence);
+    }
+  }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http;
+
+import java.time.Duration;
+import org.springframework.boot.convert.DurationStyle;
+
+/**
+ * Parses the durations of the configuration.
+ */
+public final class Durations {
+
+  private Durations() {}
+
+  /**
+   * @param duration a duration like "500ms", "5s" or "PT1M" - or a number of milliseconds
+   */
+  public static Duration parse(String duration) {
+    try {
+      return DurationStyle.detectAndParse(duration.trim());
+    } catch (IllegalArgumentException e) {
+      throw new RuntimeException("Invalid duration: " + duration);
+    }
+  }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http;
+
+import io.camunda.zeebe.spring.client.annotation.customizer.ZeebeWorkerValueCustomizer;
+import io.camunda.zeebe.spring.client.annotation.value.ZeebeWorkerValue;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Limits the variables that the worker fetches, if configured. One worker handles the jobs of
+ * all elements, so the variables can't be derived from the templates of an element - they must
+ * be listed explicitly. The parameters that can be given as variables are always fetched.
+ */
+@Component
+public class FetchVariablesCustomizer implements ZeebeWorkerValueCustomizer {
+
+  private static final Logger LOG = LoggerFactory.getLogger(FetchVariablesCustomizer.class);
+
+  private final ZeebeHttpWorkerConfig config;
+
+  @Autowired
+  public FetchVariablesCustomizer(ZeebeHttpWorkerConfig config) {
+    this.config = config;
+  }
+
+  @Override
+  public void customize(ZeebeWorkerValue worker) {
+    final List<String> variables = config.getFetchVariables();
+    if (variables.isEmpty()) {
+      return;
+    }
+
+    final Set<String> names = new LinkedHashSet<>(variables);
+    names.addAll(HttpJobHandler.PARAMETER_NAMES);
+    worker.setFetchVariables(names.toArray(new String[0]));
+
+    LOG.info("Worker '{}' fetches only the variables: {}", worker.getType(), names);
+  }
+}
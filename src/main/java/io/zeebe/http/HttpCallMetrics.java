@@ -0,0 +1,190 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http;
+
+import io.camunda.zeebe.client.api.response.ActivatedJob;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandler;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records where the time of a job is spent: building the request and rendering its templates,
+ * waiting for the response, reading the body, processing the response and sending the job
+ * command. The meters are tagged by the task type, the method, the host and the status class of
+ * the response.
+ *
+ * <p>The HTTP client of the JDK doesn't report the time of the DNS lookup and of the connect.
+ * Instead, the time until the response headers are received is recorded, which includes both.
+ */
+@Component
+public class HttpCallMetrics {
+
+  private static final String NONE = "none";
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  /**
+   * Start to record the phases of the given job.
+   */
+  public Call start(ActivatedJob job) {
+    return new Call(job.getType());
+  }
+
+  public void recordTemplateRendering(String taskType, long duration) {
+    Timer.builder("zeebe.http.worker.template.render")
+        .description("The time to render a template of the job configuration")
+        .tags("type", taskType)
+        .register(meterRegistry)
+        .record(duration, TimeUnit.NANOSECONDS);
+  }
+
+  private Timer timer(String name, String description, Tags tags) {
+    return Timer.builder(name)
+        .description(description)
+        .tags(tags)
+        .register(meterRegistry);
+  }
+
+  private static String getStatusClass(HttpResponse<?> response) {
+    return response != null ? (response.statusCode() / 100) + "xx" : NONE;
+  }
+
+  private static String getHost(URI uri) {
+    return uri.getHost() != null ? uri.getHost() : NONE;
+  }
+
+  /**
+   * The recording of one job - from its activation until the job command is acknowledged.
+   */
+  public class Call {
+
+    private final String taskType;
+    private final long startTime = System.nanoTime();
+
+    private Tags tags;
+
+    private Call(String taskType) {
+      this.taskType = taskType;
+      this.tags = Tags.of("type", taskType, "method", NONE, "host", NONE);
+    }
+
+    public void requestBuilt(HttpRequest request) {
+      tags = Tags.of("type", taskType, "method", request.method(), "host",
+          getHost(request.uri()));
+
+      timer("zeebe.http.worker.request.build",
+          "The time to read the configuration and to build the request of a job", tags)
+          .record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Start to record an attempt to send the request.
+     */
+    public Exchange exchange() {
+      return new Exchange();
+    }
+
+    public void responseProcessed(HttpResponse<?> response, long duration) {
+      timer("zeebe.http.worker.response.process",
+          "The time to convert the response to the variables of the job",
+          tags.and("status", getStatusClass(response)))
+          .record(duration, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Send the job command and record the time until it is acknowledged.
+     *
+     * @param command the kind of the command, e.g. complete
+     */
+    public <T> CompletionStage<T> sendCommand(String command,
+        Supplier<CompletionStage<T>> send) {
+      final long start = System.nanoTime();
+      return send.get().whenComplete((result, failure) ->
+          timer("zeebe.http.worker.job.command",
+              "The time until a job command is acknowledged by the broker",
+              Tags.of("type", taskType, "command", command,
+                  "outcome", failure == null ? "success" : "failure"))
+              .record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+    }
+
+    /**
+     * Count the outcome of the job, e.g. completed or failed.
+     */
+    public void jobHandled(String outcome, HttpResponse<?> response) {
+      meterRegistry.counter("zeebe.http.worker.jobs.handled",
+          tags.and("outcome", outcome, "status", getStatusClass(response))).increment();
+    }
+
+    /**
+     * The recording of one attempt to send the request - until the response body is read.
+     */
+    public class Exchange {
+
+      private final long startTime = System.nanoTime();
+
+      private Exchange() {
+      }
+
+      /**
+       * Measure the time until the response headers are received, and the size and the read time
+       * of the body.
+       */
+      public <T> BodyHandler<T> measure(BodyHandler<T> bodyHandler) {
+        return responseInfo -> {
+          final Tags responseTags =
+              tags.and("status", (responseInfo.statusCode() / 100) + "xx");
+
+          timer("zeebe.http.worker.http.headers",
+              "The time until the response headers are received, incl. DNS lookup and connect",
+              responseTags).record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+
+          return new MeasuredBodySubscriber<>(bodyHandler.apply(responseInfo),
+              (bytes, readTime, isCompleted) -> {
+                final Tags bodyTags =
+                    responseTags.and("outcome", isCompleted ? "completed" : "aborted");
+                DistributionSummary.builder("zeebe.http.worker.response.size")
+                    .description("The size of the response body")
+                    .baseUnit("bytes")
+                    .tags(bodyTags)
+                    .register(meterRegistry)
+                    .record(bytes);
+                timer("zeebe.http.worker.response.parse",
+                    "The time to read and parse the response body while it is received",
+                    bodyTags).record(readTime, TimeUnit.NANOSECONDS);
+              });
+        };
+      }
+
+      public void completed(HttpResponse<?> response) {
+        timer("zeebe.http.worker.http.requests",
+            "The time of an HTTP request until the response body is read",
+            tags.and("status", getStatusClass(response)))
+            .record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+      }
+    }
+  }
+}
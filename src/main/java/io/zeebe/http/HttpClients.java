@@ -0,0 +1,72 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * The HTTP clients of the job handler. The connect timeout can't be set per request, so the
+ * tasks with a custom connect timeout use a separate client per timeout. All clients share the
+ * same settings and executor.
+ *
+ * <p>The custom timeouts are rounded up to full seconds and only the clients of the recently
+ * used timeouts are kept, so the number of clients (and their connections) stays small. An
+ * evicted client is closed by the JDK when it is not used anymore.
+ */
+@Component
+public class HttpClients {
+
+  static final int MAXIMUM_CLIENTS = 16;
+
+  private final Cache<Duration, HttpClient> clientsByConnectTimeout = Caffeine.newBuilder()
+      .maximumSize(MAXIMUM_CLIENTS)
+      .build();
+
+  private final HttpClient defaultClient;
+  private final ZeebeHttpWorkerConfig config;
+
+  @Autowired
+  public HttpClients(HttpClient defaultClient, ZeebeHttpWorkerConfig config) {
+    this.defaultClient = defaultClient;
+    this.config = config;
+  }
+
+  /**
+   * @param connectTimeout the connect timeout of the task, or null for the default timeout
+   */
+  public HttpClient get(Duration connectTimeout) {
+    if (connectTimeout == null || connectTimeout.equals(config.getHttpClientConnectTimeout())) {
+      return defaultClient;
+    }
+    return clientsByConnectTimeout.get(roundUp(connectTimeout), config::newHttpClient);
+  }
+
+  private static Duration roundUp(Duration connectTimeout) {
+    final long seconds = connectTimeout.toSeconds();
+    return Duration.ofSeconds(connectTimeout.equals(Duration.ofSeconds(seconds))
+        ? Math.max(1, seconds)
+        : seconds + 1);
+  }
+
+  Cache<Duration, HttpClient> getClients() {
+    return clientsByConnectTimeout;
+  }
+}
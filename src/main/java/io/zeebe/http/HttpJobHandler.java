@@ -19,37 +19,54 @@ import static java.util.stream.Collectors.toMap;
 
 import com.fasterxml.jackson.core.JsonPointer;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.camunda.zeebe.client.api.command.FailJobCommandStep1.FailJobCommandStep2;
 import io.camunda.zeebe.client.api.response.ActivatedJob;
 import io.camunda.zeebe.client.api.worker.JobClient;
-import io.camunda.zeebe.client.api.worker.JobHandler;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.opentelemetry.api.trace.Span;
+import io.zeebe.http.bulkhead.BulkheadRegistry;
+import io.zeebe.http.cache.ResponseCache;
+import io.zeebe.http.circuitbreaker.CircuitBreakerRegistry;
+import io.zeebe.http.limiter.ConcurrencyLimiterRegistry;
+import io.zeebe.http.tracing.JobTracer.JobTrace;
 import io.zeebe.http.variables.EnvironmentVariablesProvider;
-import java.io.IOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandler;
 import java.time.Duration;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
-
-import org.json.JSONObject;
-import org.json.XML;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+/**
+ * Handles the jobs asynchronously. The jobs are dispatched by the {@link JobDispatcher}, that
+ * limits the jobs in flight.
+ */
 @Component
-public class HttpJobHandler implements JobHandler {
+public class HttpJobHandler {
 
-  private static final String CUSTOM_HTTP_HEADER_PREFIX = "header-";
-  public static Duration CONNECTION_TIMEOUT = Duration.ofMinutes(1);
-  public static long RESPONSE_TIMEOUT_VALUE = 60;
-  public static TimeUnit RESPONSE_TIMEOUT_TIME_UNIT = TimeUnit.SECONDS;
+  private static final Logger LOG = LoggerFactory.getLogger(HttpJobHandler.class);
+
+  static final String CUSTOM_HTTP_HEADER_PREFIX = "header-";
 
   private static final String PARAMETER_URL = "url";
   private static final String PARAMETER_METHOD = "method";
@@ -61,147 +78,680 @@ public class HttpJobHandler implements JobHandler {
   private static final String PARAMETER_HTTP_STATUS_CODE_COMPLETION = "statusCodeCompletion";
   private static final String PARAMETER_HTTP_ERROR_CODE_PATH = "errorCodePath";
   private static final String PARAMETER_HTTP_ERROR_MESSAGE_PATH = "errorMessagePath";
+  private static final String PARAMETER_MAX_RESPONSE_SIZE = "maxResponseSize";
+  private static final String PARAMETER_RESPONSE_SIZE_EXCEEDED = "responseSizeExceeded";
+  private static final String PARAMETER_RESULT_PATH = "resultPath";
+  private static final String PARAMETER_RESULT_VARIABLES = "resultVariables";
+  private static final String PARAMETER_REQUEST_RETRIES = "requestRetries";
+  private static final String PARAMETER_REQUEST_RETRY_DELAY = "requestRetryDelay";
+  private static final String PARAMETER_REQUEST_RETRY_MAX_DELAY = "requestRetryMaxDelay";
+  private static final String PARAMETER_REQUEST_RETRY_STATUS_CODES = "requestRetryStatusCodes";
+  private static final String PARAMETER_REQUEST_RETRY_NON_IDEMPOTENT =
+      "requestRetryNonIdempotent";
+  private static final String PARAMETER_RETRY_BACKOFF = "retryBackoff";
+  private static final String PARAMETER_CONNECT_TIMEOUT = "connectTimeout";
+  private static final String PARAMETER_REQUEST_TIMEOUT = "requestTimeout";
+  private static final String PARAMETER_TOTAL_TIMEOUT = "totalTimeout";
+  private static final String PARAMETER_COALESCE_REQUESTS = "coalesceRequests";
+  private static final String PARAMETER_CACHE_TTL = "cacheTtl";
+
+  // the names of the parameters that are read from the configuration
+  static final Set<String> PARAMETER_NAMES = Set.of(
+      PARAMETER_URL,
+      PARAMETER_METHOD,
+      PARAMETER_BODY,
+      PARAMETER_AUTHORIZATION,
+      PARAMETER_CONTENT_TYPE,
+      PARAMETER_ACCEPT,
+      PARAMETER_HTTP_STATUS_CODE_FAILURE,
+      PARAMETER_HTTP_STATUS_CODE_COMPLETION,
+      PARAMETER_HTTP_ERROR_CODE_PATH,
+      PARAMETER_HTTP_ERROR_MESSAGE_PATH,
+      PARAMETER_MAX_RESPONSE_SIZE,
+      PARAMETER_RESPONSE_SIZE_EXCEEDED,
+      PARAMETER_RESULT_PATH,
+      PARAMETER_RESULT_VARIABLES,
+      PARAMETER_REQUEST_RETRIES,
+      PARAMETER_REQUEST_RETRY_DELAY,
+      PARAMETER_REQUEST_RETRY_MAX_DELAY,
+      PARAMETER_REQUEST_RETRY_STATUS_CODES,
+      PARAMETER_REQUEST_RETRY_NON_IDEMPOTENT,
+      PARAMETER_RETRY_BACKOFF,
+      PARAMETER_CONNECT_TIMEOUT,
+      PARAMETER_REQUEST_TIMEOUT,
+      PARAMETER_TOTAL_TIMEOUT,
+      PARAMETER_COALESCE_REQUESTS,
+      PARAMETER_CACHE_TTL);
+
+  // the lower case names of the parameters, the configuration is case-insensitive
+  static final Set<String> PARAMETERS = PARAMETER_NAMES.stream()
+      .map(String::toLowerCase)
+      .collect(Collectors.toUnmodifiableSet());
+
+  // the lower case names of the parameters whose values are rendered as templates
+  private static final Set<String> TEMPLATE_PARAMETERS = Stream.of(
+          PARAMETER_URL,
+          PARAMETER_METHOD,
+          PARAMETER_BODY,
+          PARAMETER_AUTHORIZATION,
+          PARAMETER_CONTENT_TYPE,
+          PARAMETER_ACCEPT)
+      .map(String::toLowerCase)
+      .collect(Collectors.toUnmodifiableSet());
+
+  // the methods whose requests must not be sent twice, if the first one reached the host
+  private static final Set<String> NON_IDEMPOTENT_METHODS = Set.of("POST", "PATCH");
 
-  private final HttpClient client = HttpClient.newHttpClient();
   private final ObjectMapper objectMapper = new ObjectMapper();
-  private final PlaceholderProcessor placeholderProcessor = new PlaceholderProcessor();
+  private final XmlBodyConverter xmlConverter = new XmlBodyConverter(objectMapper);
+  private PlaceholderProcessor placeholderProcessor;
+  private RequestPlanCache requestPlans;
+  private volatile EnvironmentLayer environmentVariables;
 
   @Autowired
   private EnvironmentVariablesProvider environmentVariablesProvider;
 
-  @Override
-  public void handle(JobClient jobClient, ActivatedJob job)
-      throws IOException, InterruptedException, ExecutionException, TimeoutException {
+  @Autowired
+  private ZeebeHttpWorkerConfig config;
+
+  @Autowired
+  private HttpClients clients;
+
+  @Autowired
+  private BulkheadRegistry bulkheads;
+
+  @Autowired
+  private ConcurrencyLimiterRegistry concurrencyLimiters;
+
+  @Autowired
+  private CircuitBreakerRegistry circuitBreakers;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Autowired
+  private HttpCallMetrics metrics;
+
+  @Autowired
+  private JobCommands jobCommands;
+
+  @Autowired
+  private ResponseCache responseCache;
+
+  private RequestCoalescer<HttpResponse<ResponseBody>> coalescer;
+  private long defaultMaxResponseSize;
+  private ResponseSizeLimit.Action defaultResponseSizeExceededAction;
+
+  @PostConstruct
+  public void init() {
+    coalescer = new RequestCoalescer<>(CopiedHttpResponse::of,
+        () -> meterRegistry.counter("zeebe.http.worker.requests.coalesced").increment());
+    meterRegistry.gauge("zeebe.http.worker.requests.shared", coalescer,
+        RequestCoalescer::getInFlightRequests);
+    defaultMaxResponseSize = ResponseSizeLimit.parseSize(config.getMaxResponseSize());
+    defaultResponseSizeExceededAction =
+        ResponseSizeLimit.parseAction(config.getResponseSizeExceededAction());
+
+    placeholderProcessor = new PlaceholderProcessor(config.getPlaceholderTemplateCacheSize());
+    CaffeineCacheMetrics.monitor(meterRegistry, placeholderProcessor.getTemplateCache(),
+        "zeebe.http.worker.placeholder.templates");
+
+    requestPlans = new RequestPlanCache(placeholderProcessor, config.getRequestPlanCacheSize());
+    CaffeineCacheMetrics.monitor(meterRegistry, requestPlans.getPlans(),
+        "zeebe.http.worker.request.plans");
+  }
+
+  /**
+   * Handle the job and return a future that completes when the job is completed, failed or an
+   * error is thrown. The trace of the job is ended then. The jobs in flight are limited by the
+   * {@link JobDispatcher}.
+   */
+  public CompletableFuture<Void> execute(JobClient jobClient, ActivatedJob job, JobTrace trace) {
+    return handleAsync(jobClient, job, trace)
+        .whenComplete((ignored, failure) -> trace.end(failure));
+  }
+
+  /**
+   * Skip the job because its deadline has passed before the request was sent, since it may be
+   * activated by another worker already.
+   */
+  public void skip(ActivatedJob job, JobTrace trace) {
+    LOG.debug("Skip job {} because its deadline has passed before the request was sent",
+        job.getKey());
+    countExpiredJob("waiting");
+    trace.expired();
+    trace.end(null);
+  }
+
+  /**
+   * Send the HTTP request and complete, fail or throw an error for the job when the response
+   * arrives. The returned future completes when the job command is acknowledged by the broker.
+   */
+  CompletableFuture<Void> handleAsync(JobClient jobClient, ActivatedJob job, JobTrace trace) {
+    final HttpCallMetrics.Call call = metrics.start(job);
+    final Span building = trace.startPhase("build request");
+    CompletableFuture<Void> jobFuture;
+    try {
+      final RequestPlan plan = requestPlans.get(job);
+      final EnvironmentLayer environment = getEnvironmentVariables();
+      final ConfigurationMaps configurationMaps = new ConfigurationMaps(job,
+          plan.getCustomHeaders(),
+          plan.readVariables(job, objectMapper, environment.referencedVariables),
+          environment.layer);
+      // the job is locked until its deadline - don't wait longer for the response
+      final Duration remainingTime =
+          Duration.ofMillis(Math.max(1, job.getDeadline() - System.currentTimeMillis()));
+      final Duration requestTimeout = min(remainingTime,
+          getDuration(configurationMaps, plan, PARAMETER_REQUEST_TIMEOUT)
+              .orElse(config.getRequestTimeout()));
+      final Duration totalTimeout = min(remainingTime,
+          getDuration(configurationMaps, plan, PARAMETER_TOTAL_TIMEOUT)
+              .orElse(config.getTotalTimeout()));
+      final HttpClient client = clients.get(
+          getDuration(configurationMaps, plan, PARAMETER_CONNECT_TIMEOUT).orElse(null));
+
+      final HttpRequest request = buildRequest(configurationMaps, plan, requestTimeout);
+      call.requestBuilt(request);
+      building.end();
+      final ResponseSizeLimit sizeLimit = getResponseSizeLimit(configurationMaps, plan);
+      final ResponseProjection projection = getResponseProjection(configurationMaps, plan);
+
+      final ResponseBodyHandler bodyHandler = new ResponseBodyHandler(request,
+          statusCode -> hasFailingStatusCode(statusCode, configurationMaps, plan),
+          statusCode -> hasCompletingStatusCode(statusCode, configurationMaps, plan),
+          objectMapper, sizeLimit, () -> countResponseSizeExceeded(sizeLimit), projection);
+
+      final RetryPolicy retryPolicy = getRetryPolicy(configurationMaps, plan, request);
+      final Optional<ResponseCache.Policy> cachePolicy = responseCache.getPolicy(request,
+          getDuration(configurationMaps, plan, PARAMETER_CACHE_TTL).orElse(null));
+      // completed on timeout to abort the exchange that is still in flight
+      final CompletableFuture<Void> cancellation = new CompletableFuture<>();
+
+      final HttpRequest tracedRequest = trace.startRequest(request);
+      final CompletableFuture<HttpResponse<ResponseBody>> exchange =
+          shouldCoalesce(configurationMaps, plan, request)
+              ? coalescer.execute(getCoalescingKey(configurationMaps, plan, request),
+                  cancellation, sharedCancellation -> sendWithRetries(client, tracedRequest,
+                      bodyHandler, cachePolicy, retryPolicy, sharedCancellation, call, 0))
+              : sendWithRetries(client, tracedRequest, bodyHandler, cachePolicy, retryPolicy,
+                  cancellation, call, 0);
+
+      jobFuture = exchange
+          .orTimeout(totalTimeout.toMillis(), TimeUnit.MILLISECONDS)
+          .whenComplete((response, failure) -> {
+            trace.endRequest(response, failure);
+            if (failure != null) {
+              cancellation.complete(null);
+            }
+          })
+          .thenCompose(response -> processResult(configurationMaps, plan, jobClient, job,
+              response, projection, retryPolicy, call, trace))
+          .exceptionallyCompose(failure -> {
+            if (hasExpired(job)) {
+              // the job is not locked anymore - failing it would be rejected or overwrite the
+              // result of another worker
+              LOG.debug("Cancel request of job {} because its deadline has passed",
+                  job.getKey());
+              countExpiredJob("in_flight");
+              trace.expired();
+              return CompletableFuture.completedFuture(null);
+            } else if (JobCommands.hasUnknownOutcome(failure)) {
+              // the command may be applied already - if not, the job times out and is activated
+              // again
+              LOG.warn("Command of job {} was not answered in time, the job is not failed",
+                  job.getKey(), failure);
+              return CompletableFuture.completedFuture(null);
+            }
+            return failJob(jobClient, job, failure, retryPolicy.getJobRetryBackoff(null), call,
+                trace);
+          });
+    } catch (Exception e) {
+      if (building.isRecording()) {
+        building.end();
+      }
+      jobFuture = failJob(jobClient, job, e, Optional.empty(), call, trace)
+          .toCompletableFuture();
+    }
+
+    return jobFuture;
+  }
+
+  /**
+   * Send the request and send it again after a delay if the retry policy allows it.
+   */
+  private CompletableFuture<HttpResponse<ResponseBody>> sendWithRetries(HttpClient client,
+      HttpRequest request, ResponseBodyHandler bodyHandler,
+      Optional<ResponseCache.Policy> cachePolicy, RetryPolicy retryPolicy,
+      CompletableFuture<Void> cancellation, HttpCallMetrics.Call call, int retries) {
+    if (cancellation.isDone()) {
+      return CompletableFuture.failedFuture(new CancellationException("request is cancelled"));
+    }
+    return sendAsync(client, request, bodyHandler, cachePolicy, cancellation, call)
+        .handle((response, failure) -> {
+          if (!retryPolicy.shouldRetry(retries, response, failure)) {
+            return failure == null
+                ? CompletableFuture.completedFuture(response)
+                : CompletableFuture.<HttpResponse<ResponseBody>>failedFuture(failure);
+          }
+
+          final Duration delay = retryPolicy.getDelay(retries, response);
+          LOG.debug("Retry request to {} in {} (retry {}) after: {}", request.uri(), delay,
+              retries + 1, failure != null ? failure.toString() : response.statusCode());
+          meterRegistry.counter("zeebe.http.worker.request.retries").increment();
+
+          final Executor delayedExecutor =
+              CompletableFuture.delayedExecutor(delay.toMillis(), TimeUnit.MILLISECONDS);
+          return CompletableFuture.runAsync(() -> {}, delayedExecutor)
+              .thenCompose(ignored ->
+                  sendWithRetries(client, request, bodyHandler, cachePolicy, retryPolicy,
+                      cancellation, call, retries + 1));
+        })
+        .thenCompose(Function.identity());
+  }
+
+  /**
+   * Take the response from the cache, if the request is cacheable and a fresh response is cached.
+   * Otherwise, send the request - or a conditional request to revalidate a cached response.
+   */
+  private CompletableFuture<HttpResponse<ResponseBody>> sendAsync(HttpClient client,
+      HttpRequest request, ResponseBodyHandler bodyHandler,
+      Optional<ResponseCache.Policy> cachePolicy, CompletableFuture<Void> cancellation,
+      HttpCallMetrics.Call call) {
+    if (cachePolicy.isEmpty()) {
+      return sendAsync(client, request, bodyHandler, cancellation, call);
+    }
+    return responseCache.execute(cachePolicy.get(), request, bodyHandler,
+        (cacheRequest, cacheBodyHandler) ->
+            sendAsync(client, cacheRequest, cacheBodyHandler, cancellation, call));
+  }
+
+  /**
+   * Send the request, unless the circuit breaker, the bulkhead or the concurrency limit of the
+   * host rejects it. An open circuit fails fast, before the request waits for the bulkhead.
+   * Cancelling the future of the HTTP client aborts the exchange and releases its connection.
+   */
+  private CompletableFuture<HttpResponse<ResponseBody>> sendAsync(HttpClient client,
+      HttpRequest request, BodyHandler<ResponseBody> bodyHandler,
+      CompletableFuture<Void> cancellation, HttpCallMetrics.Call call) {
+    final URI uri = request.uri();
+    return circuitBreakers.execute(uri, () ->
+        bulkheads.execute(uri, cancellation, () ->
+            concurrencyLimiters.execute(uri, headersReceived -> {
+              final HttpCallMetrics.Call.Exchange measurement = call.exchange();
+              final BodyHandler<ResponseBody> notifyingBodyHandler = responseInfo -> {
+                headersReceived.run();
+                return bodyHandler.apply(responseInfo);
+              };
+              final CompletableFuture<HttpResponse<ResponseBody>> exchange =
+                  client.sendAsync(request, measurement.measure(notifyingBodyHandler));
+              exchange.whenComplete((response, failure) -> measurement.completed(response));
+              cancellation.thenRun(() -> exchange.cancel(true));
+              return exchange;
+            })));
+  }
+
+  /**
+   * Only requests without side effects share a response, and only if it is enabled.
+   */
+  private boolean shouldCoalesce(ConfigurationMaps configMaps, RequestPlan plan,
+      HttpRequest request) {
+    final boolean enabled = getConfig(configMaps, plan, PARAMETER_COALESCE_REQUESTS)
+        .map(value -> Boolean.parseBoolean(value.trim()))
+        .orElse(config.isCoalesceRequests());
+    return enabled
+        && (request.method().equals("GET") || request.method().equals("HEAD"))
+        && request.bodyPublisher().map(body -> body.contentLength() == 0).orElse(true);
+  }
+
+  /**
+   * Jobs share a response only if they send the same request and handle its response the same
+   * way. The request timeout is not part of the key - it depends on the deadline of the job.
+   */
+  private List<Object> getCoalescingKey(ConfigurationMaps configMaps, RequestPlan plan,
+      HttpRequest request) {
+    final List<String> responseHandling = Stream.of(
+            PARAMETER_HTTP_STATUS_CODE_FAILURE,
+            PARAMETER_HTTP_STATUS_CODE_COMPLETION,
+            PARAMETER_MAX_RESPONSE_SIZE,
+            PARAMETER_RESPONSE_SIZE_EXCEEDED,
+            PARAMETER_RESULT_PATH,
+            PARAMETER_RESULT_VARIABLES,
+            PARAMETER_REQUEST_RETRIES,
+            PARAMETER_REQUEST_RETRY_DELAY,
+            PARAMETER_REQUEST_RETRY_MAX_DELAY,
+            PARAMETER_REQUEST_RETRY_STATUS_CODES,
+            PARAMETER_REQUEST_RETRY_NON_IDEMPOTENT)
+        .map(parameter -> getConfig(configMaps, plan, parameter).orElse(""))
+        .collect(Collectors.toList());
+    return List.of(request.method(), request.uri(), request.headers().map(), responseHandling);
+  }
+
+  /**
+   * The request and total timeouts are capped by the deadline, so a request that fails at or
+   * after the deadline failed because of it - whether the total timeout expired, or the HTTP
+   * client timed out with an {@link java.net.http.HttpTimeoutException}, or the request was
+   * cancelled.
+   */
+  private static boolean hasExpired(ActivatedJob job) {
+    return System.currentTimeMillis() >= job.getDeadline();
+  }
+
+  private void countExpiredJob(String stage) {
+    meterRegistry.counter("zeebe.http.worker.jobs.expired", "stage", stage).increment();
+  }
+
+  private Optional<Duration> getDuration(ConfigurationMaps configMaps, RequestPlan plan,
+      String parameter) {
+    return getConfig(configMaps, plan, parameter)
+        .map(value -> plan.getDuration(parameter, value));
+  }
+
+  private static Duration min(Duration a, Duration b) {
+    return a.compareTo(b) <= 0 ? a : b;
+  }
+
+  private RetryPolicy getRetryPolicy(ConfigurationMaps configMaps, RequestPlan plan,
+      HttpRequest request) {
+    final int retries = getConfig(configMaps, plan, PARAMETER_REQUEST_RETRIES)
+        .map(value -> Integer.parseInt(value.trim()))
+        .orElse(0);
+    final Duration jobRetryBackoff = getDuration(configMaps, plan, PARAMETER_RETRY_BACKOFF)
+        .orElse(null);
+    if (retries <= 0 && jobRetryBackoff == null) {
+      return RetryPolicy.none();
+    }
+
+    final Duration delay = getDuration(configMaps, plan, PARAMETER_REQUEST_RETRY_DELAY)
+        .orElse(Duration.ofSeconds(1));
+    final Duration maxDelay = getDuration(configMaps, plan, PARAMETER_REQUEST_RETRY_MAX_DELAY)
+        .orElse(Duration.ofSeconds(30));
+    final String statusCodes = getConfig(configMaps, plan, PARAMETER_REQUEST_RETRY_STATUS_CODES)
+        .orElse("429, 503");
+
+    final RetryPolicy.Failures failures;
+    if (!NON_IDEMPOTENT_METHODS.contains(request.method())) {
+      failures = RetryPolicy.Failures.TRANSIENT;
+    } else if (getConfig(configMaps, plan, PARAMETER_REQUEST_RETRY_NON_IDEMPOTENT)
+        .map(value -> Boolean.parseBoolean(value.trim()))
+        .orElse(false)) {
+      // the request may be processed already if it failed after it was sent
+      failures = RetryPolicy.Failures.CONNECT;
+    } else {
+      failures = RetryPolicy.Failures.NONE;
+    }
+
+    return new RetryPolicy(retries, delay, maxDelay,
+        plan.getStatusCodeMatcher(PARAMETER_REQUEST_RETRY_STATUS_CODES, statusCodes),
+        jobRetryBackoff, failures);
+  }
+
+  private ResponseSizeLimit getResponseSizeLimit(ConfigurationMaps configMaps,
+      RequestPlan plan) {
+    final long maxSize = getConfig(configMaps, plan, PARAMETER_MAX_RESPONSE_SIZE)
+        .map(size -> plan.getSize(PARAMETER_MAX_RESPONSE_SIZE, size))
+        .orElse(defaultMaxResponseSize);
+    final ResponseSizeLimit.Action action =
+        getConfig(configMaps, plan, PARAMETER_RESPONSE_SIZE_EXCEEDED)
+            .map(ResponseSizeLimit::parseAction)
+            .orElse(defaultResponseSizeExceededAction);
+    return ResponseSizeLimit.of(maxSize, action);
+  }
+
+  private ResponseProjection getResponseProjection(ConfigurationMaps configMaps,
+      RequestPlan plan) {
+    final JsonPointer resultPath = getConfig(configMaps, plan, PARAMETER_RESULT_PATH)
+        .map(path -> plan.getJsonPointer(PARAMETER_RESULT_PATH, path))
+        .orElse(null);
+    final Map<String, JsonPointer> resultVariables =
+        getConfig(configMaps, plan, PARAMETER_RESULT_VARIABLES)
+            .map(variables -> plan.getResultVariables(PARAMETER_RESULT_VARIABLES, variables))
+            .orElse(Map.of());
+    return ResponseProjection.of(resultPath, resultVariables);
+  }
+
+  private void countResponseSizeExceeded(ResponseSizeLimit sizeLimit) {
+    meterRegistry.counter("zeebe.http.worker.response.size.exceeded",
+        "action", sizeLimit.getAction().name().toLowerCase()).increment();
+  }
 
-    final ConfigurationMaps configurationMaps = new ConfigurationMaps(job,
-        environmentVariablesProvider.getVariables());
-    final HttpRequest request = buildRequest(configurationMaps);
+  private EnvironmentLayer getEnvironmentVariables() {
+    final Map<String, String> variables = environmentVariablesProvider.getVariables();
 
-    CompletableFuture<HttpResponse<String>> requestFuture = client.sendAsync(request,
-        HttpResponse.BodyHandlers.ofString());
-    final HttpResponse<String> response = requestFuture.get(RESPONSE_TIMEOUT_VALUE,
-        RESPONSE_TIMEOUT_TIME_UNIT);
+    // the variables are reloaded only from time to time - keep the layer and its index until then
+    EnvironmentLayer environment = environmentVariables;
+    if (environment == null || environment.layer.getEntries() != variables) {
+      environment = new EnvironmentLayer(new ConfigurationLayer(variables),
+          findReferencedVariables(variables));
+      environmentVariables = environment;
+    }
+    return environment;
+  }
+
+  /**
+   * @return the variables that the environment variables refer to if they are used as a
+   *     parameter or a custom HTTP header, or empty if all variables are needed
+   */
+  private Optional<Set<String>> findReferencedVariables(Map<String, String> variables) {
+    if (variables == null) {
+      return Optional.of(Set.of());
+    }
+    final List<String> templates = variables.entrySet().stream()
+        .filter(entry -> isTemplateParameter(entry.getKey()))
+        .map(Map.Entry::getValue)
+        .filter(value -> value != null)
+        .collect(Collectors.toList());
+    return RequestPlan.findReferencedVariables(placeholderProcessor, templates);
+  }
+
+  private static boolean isTemplateParameter(String key) {
+    final String lowerCaseKey = key.toLowerCase();
+    return TEMPLATE_PARAMETERS.contains(lowerCaseKey)
+        || lowerCaseKey.startsWith(CUSTOM_HTTP_HEADER_PREFIX);
+  }
 
-    if (hasFailingStatusCode(response, configurationMaps)) {
-      processFailure(configurationMaps, jobClient, job, response);
-    } else if (hasCompletingStatusCode(response, configurationMaps)) {
-      final Map<String, Object> result = processResponse(job, response, request);
-      jobClient.newCompleteCommand(job.getKey()).variables(result).send().join();
+  private CompletionStage<Void> processResult(ConfigurationMaps configurationMaps,
+      RequestPlan plan, JobClient jobClient, ActivatedJob job, HttpResponse<ResponseBody> response,
+      ResponseProjection projection, RetryPolicy retryPolicy, HttpCallMetrics.Call call,
+      JobTrace trace) {
+    final int statusCode = response.statusCode();
+    if (hasFailingStatusCode(statusCode, configurationMaps, plan)) {
+      return processFailure(configurationMaps, plan, jobClient, job, response,
+          retryPolicy.getJobRetryBackoff(response), call, trace);
+    } else if (hasCompletingStatusCode(statusCode, configurationMaps, plan)) {
+      final long start = System.nanoTime();
+      final Map<String, Object> result =
+          trace.phase("process response", () -> processResponse(response, projection));
+      call.responseProcessed(response, System.nanoTime() - start);
+
+      call.jobHandled("completed", response);
+      return sendCommand("complete", "complete job", job, call, trace, () ->
+          jobClient.newCompleteCommand(job.getKey()).variables(result).send()
+              .thenAccept(r -> {}));
     } else {
+      call.jobHandled("ignored", response);
       // do nothing
       // TODO: Would be great to extend the locking time now
       // as this might be used for HTTP 202 to asynchronously complete the task
       // but not yet supported in Zeebe
       // TODO: Also would be great to be able to add the status code here as well
       // but currently no Zeebe API available to do this
+      return CompletableFuture.completedFuture(null);
     }
   }
 
+  /**
+   * Fail the job if the request could not be sent or the response could not be processed
+   */
+  private CompletionStage<Void> failJob(JobClient jobClient, ActivatedJob job,
+      Throwable failure, Optional<Duration> retryBackoff, HttpCallMetrics.Call call,
+      JobTrace trace) {
+    final Throwable cause = TransientFailures.unwrap(failure);
+    final String errorMessage = Optional.ofNullable(cause.getMessage()).orElse(cause.toString());
+
+    final FailJobCommandStep2 command;
+    if (cause instanceof RejectedRequestException) {
+      // the request was not sent - try again later
+      final RejectedRequestException rejection = (RejectedRequestException) cause;
+      command = jobClient.newFailCommand(job.getKey())
+          .retries(rejection.isDecrementRetries() ? job.getRetries() - 1 : job.getRetries())
+          .retryBackoff(rejection.getRetryBackoff());
+    } else {
+      command = jobClient.newFailCommand(job.getKey())
+          .retries(job.getRetries() - 1);
+      retryBackoff.ifPresent(command::retryBackoff);
+    }
+
+    call.jobHandled("failed", null);
+    return sendCommand("fail", "fail job", job, call, trace, () -> command
+            .errorMessage(errorMessage)
+            .send()
+            .thenAccept(r -> {}))
+        .exceptionally(commandFailure -> {
+          LOG.warn("Failed to fail job {} after: {}", job.getKey(), errorMessage, commandFailure);
+          return null;
+        });
+  }
+
   /**
    * Send a Fail command or throw a Zeebe error
    */
-  private void processFailure(ConfigurationMaps configurationMaps, JobClient jobClient,
-      ActivatedJob job, HttpResponse<String> response) {
-    Optional<String> errorCode = extractFromBody(configurationMaps, response.body(),
+  private CompletionStage<Void> processFailure(ConfigurationMaps configurationMaps,
+      RequestPlan plan, JobClient jobClient, ActivatedJob job,
+      HttpResponse<ResponseBody> response, Optional<Duration> retryBackoff,
+      HttpCallMetrics.Call call, JobTrace trace) {
+    final ResponseBody body = response.body();
+    Optional<String> errorCode = extractFromBody(configurationMaps, plan, body,
         PARAMETER_HTTP_ERROR_CODE_PATH);
-    String errorMessage = extractFromBody(configurationMaps, response.body(),
+    String errorMessage = extractFromBody(configurationMaps, plan, body,
         PARAMETER_HTTP_ERROR_MESSAGE_PATH)
-        .orElse("Http request failed with " + response.statusCode() + ": " + response.body());
+        .orElseGet(() -> "Http request failed with " + response.statusCode() + ": "
+            + body.getText());
 
     // if the error code is configured and was found on the response, throw a Zeebe error command
-    errorCode.ifPresentOrElse(code ->
-            jobClient.newThrowErrorCommand(job.getKey())
-                .errorCode(code)
-                // extracted message or empty string if not found
-                .errorMessage(errorMessage)
-                .send().join(),
-        () ->
-            // if no error was configured or extracted, fail the job
-            jobClient.newFailCommand(job.getKey())
-                .retries(job.getRetries()
-                    - 1) // simply decrement retries for now, but we should think about it: https://github.com/zeebe-io/zeebe-http-worker/issues/22
-                .errorMessage(errorMessage)
-                .send().join()
-    );
-  }
-
-  private Optional<String> extractFromBody(ConfigurationMaps configurationMaps, String body,
-      String pathParameterName) {
+    return errorCode.<CompletionStage<Void>>map(code -> {
+          call.jobHandled("bpmn_error", response);
+          return sendCommand("throw_error", "throw error", job, call, trace, () ->
+              jobClient.newThrowErrorCommand(job.getKey())
+                  .errorCode(code)
+                  // extracted message or empty string if not found
+                  .errorMessage(errorMessage)
+                  .send()
+                  .thenAccept(r -> {}));
+        })
+        .orElseGet(() -> {
+          // if no error was configured or extracted, fail the job
+          final FailJobCommandStep2 command = jobClient.newFailCommand(job.getKey())
+              .retries(job.getRetries() - 1)
+              .errorMessage(errorMessage);
+          // don't let the broker activate the job again right away
+          retryBackoff.ifPresent(command::retryBackoff);
+          call.jobHandled("failed", response);
+          return sendCommand("fail", "fail job", job, call, trace, () ->
+              command.send().thenAccept(r -> {}));
+        });
+  }
+
+  /**
+   * Send the job command through the queue of outstanding commands, and record it.
+   *
+   * @param command the kind of the command for the metrics, e.g. complete
+   * @param spanName the name of the span of the command
+   */
+  private CompletionStage<Void> sendCommand(String command, String spanName, ActivatedJob job,
+      HttpCallMetrics.Call call, JobTrace trace, Supplier<CompletionStage<Void>> send) {
+    return trace.phaseAsync(spanName, () ->
+        call.sendCommand(command, () -> jobCommands.send(job, send)));
+  }
+
+  Optional<String> extractFromBody(ConfigurationMaps configurationMaps, RequestPlan plan,
+      ResponseBody body, String pathParameterName) {
+    // the body is parsed only once, even if both the error code and the message are extracted
     return configurationMaps.getString(pathParameterName)
-        .map(p -> "/" + p.replace('.', '/'))
-        .map(JsonPointer::compile)
-        .flatMap(pointer -> extractPath(body, pointer));
+        .map(path -> plan.getJsonPointer(pathParameterName, path))
+        .flatMap(pointer -> body.getJson(objectMapper)
+            .map(json -> json.at(pointer).textValue()));
   }
 
-  private HttpRequest buildRequest(ConfigurationMaps configurationMaps) {
-    final String url = getUrl(configurationMaps);
+  private HttpRequest buildRequest(ConfigurationMaps configurationMaps, RequestPlan plan,
+      Duration timeout) {
+    final String url = getUrl(configurationMaps, plan);
 
-    final String method = getMethod(configurationMaps);
-    final HttpRequest.BodyPublisher bodyPublisher = getBodyPublisher(configurationMaps);
+    final String method = getMethod(configurationMaps, plan);
+    final HttpRequest.BodyPublisher bodyPublisher = getBodyPublisher(configurationMaps, plan);
 
-    final var contentType = getContentType(configurationMaps).orElse("application/json");
-    final var accept = getAccept(configurationMaps).orElse("application/json");
+    final var contentType = getContentType(configurationMaps, plan).orElse("application/json");
+    final var accept = getAccept(configurationMaps, plan).orElse("application/json");
 
     final HttpRequest.Builder builder =
         HttpRequest.newBuilder()
             .uri(URI.create(url))
-            .timeout(CONNECTION_TIMEOUT)
+            .timeout(timeout)
             .header("Content-Type", contentType)
             .header("Accept", accept)
             .method(method, bodyPublisher);
 
-    applyCustomHttpHeaders(configurationMaps).forEach(builder::header);
+    applyCustomHttpHeaders(configurationMaps, plan).forEach(builder::header);
 
-    getAuthorization(configurationMaps).ifPresent(auth -> builder.header("Authorization", auth));
+    getAuthorization(configurationMaps, plan)
+        .ifPresent(auth -> builder.header("Authorization", auth));
 
     return builder.build();
   }
 
-  private Map<String, String> applyCustomHttpHeaders(ConfigurationMaps configurationMaps) {
+  private Map<String, String> applyCustomHttpHeaders(ConfigurationMaps configurationMaps,
+      RequestPlan plan) {
     final Map<String, Object> config = configurationMaps.getConfig();
-    return config.entrySet().stream()
-        .filter(entry -> entry.getKey().toLowerCase().startsWith(CUSTOM_HTTP_HEADER_PREFIX))
+    return configurationMaps.getHttpHeaders().entrySet().stream()
         .collect(toMap(entry -> entry.getKey().substring(CUSTOM_HTTP_HEADER_PREFIX.length()),
-            entry -> placeholderProcessor.process(entry.getValue().toString(), config)));
+            entry -> render(plan, entry.getKey(), entry.getValue().toString(), config)));
   }
 
-  private Optional<String> getConfig(final ConfigurationMaps configMaps,
+  private Optional<String> getConfig(final ConfigurationMaps configMaps, final RequestPlan plan,
       final String parameter) {
     return configMaps
         .getStringIgnoreCase(parameter)
-        .map(url -> placeholderProcessor.process(url, configMaps.getConfig()));
+        .map(value -> render(plan, parameter, value, configMaps.getConfig()));
+  }
+
+  private String render(RequestPlan plan, String parameter, String value,
+      Map<String, Object> context) {
+    final long start = System.nanoTime();
+    final String result = plan.getTemplate(parameter, value).render(context);
+    metrics.recordTemplateRendering(plan.getTaskType(), System.nanoTime() - start);
+    return result;
   }
 
-  private String getUrl(ConfigurationMaps configMaps) {
-    return getConfig(configMaps, PARAMETER_URL)
+  private String getUrl(ConfigurationMaps configMaps, RequestPlan plan) {
+    return getConfig(configMaps, plan, PARAMETER_URL)
         .orElseThrow(() -> new RuntimeException("Missing required parameter: " + PARAMETER_URL));
   }
 
-  private Optional<String> getAuthorization(ConfigurationMaps configMaps) {
-    return getConfig(configMaps, PARAMETER_AUTHORIZATION);
+  private Optional<String> getAuthorization(ConfigurationMaps configMaps, RequestPlan plan) {
+    return getConfig(configMaps, plan, PARAMETER_AUTHORIZATION);
   }
 
-  private Optional<String> getContentType(ConfigurationMaps configMaps) {
-    return getConfig(configMaps, PARAMETER_CONTENT_TYPE);
+  private Optional<String> getContentType(ConfigurationMaps configMaps, RequestPlan plan) {
+    return getConfig(configMaps, plan, PARAMETER_CONTENT_TYPE);
   }
 
-  private Optional<String> getAccept(ConfigurationMaps configMaps) {
-    return getConfig(configMaps, PARAMETER_ACCEPT);
+  private Optional<String> getAccept(ConfigurationMaps configMaps, RequestPlan plan) {
+    return getConfig(configMaps, plan, PARAMETER_ACCEPT);
   }
 
-  private String getMethod(ConfigurationMaps configMaps) {
-    return getConfig(configMaps, PARAMETER_METHOD)
+  private String getMethod(ConfigurationMaps configMaps, RequestPlan plan) {
+    return getConfig(configMaps, plan, PARAMETER_METHOD)
         .map(String::toUpperCase)
         .orElse("GET");
   }
 
-  private HttpRequest.BodyPublisher getBodyPublisher(ConfigurationMaps configMaps) {
+  private HttpRequest.BodyPublisher getBodyPublisher(ConfigurationMaps configMaps,
+      RequestPlan plan) {
     return configMaps
         .get(PARAMETER_BODY)
         .map(
             body -> {
               if (body instanceof String) {
-                return placeholderProcessor.process((String) body, configMaps.getConfig());
+                return render(plan, PARAMETER_BODY, (String) body, configMaps.getConfig());
               } else {
                 return bodyToJson(body);
               }
@@ -218,76 +768,81 @@ public class HttpJobHandler implements JobHandler {
     }
   }
 
-  private boolean hasFailingStatusCode(HttpResponse<String> response,
-      ConfigurationMaps configurationMaps) {
-    String statusCode = String.valueOf(response.statusCode()).toLowerCase();
+  private boolean hasFailingStatusCode(int statusCode, ConfigurationMaps configurationMaps,
+      RequestPlan plan) {
     String statusCodePattern = configurationMaps.getString(PARAMETER_HTTP_STATUS_CODE_FAILURE)
         .orElse("3xx, 4xx, 5xx");
-    return checkIfCodeMatches(statusCode, statusCodePattern);
+    return plan.getStatusCodeMatcher(PARAMETER_HTTP_STATUS_CODE_FAILURE, statusCodePattern)
+        .matches(statusCode);
   }
 
-  private boolean hasCompletingStatusCode(HttpResponse<String> response,
-      ConfigurationMaps configurationMaps) {
-    String statusCode = String.valueOf(response.statusCode()).toLowerCase();
+  private boolean hasCompletingStatusCode(int statusCode, ConfigurationMaps configurationMaps,
+      RequestPlan plan) {
     String statusCodePattern = configurationMaps.getString(PARAMETER_HTTP_STATUS_CODE_COMPLETION)
         .orElse("1xx, 2xx");
-    return checkIfCodeMatches(statusCode, statusCodePattern);
+    return plan.getStatusCodeMatcher(PARAMETER_HTTP_STATUS_CODE_COMPLETION, statusCodePattern)
+        .matches(statusCode);
   }
 
-  private boolean checkIfCodeMatches(String statusCode, String matchCodePattern) {
-    return matchCodePattern.contains(statusCode)
-        || (statusCode.startsWith("1") && matchCodePattern.contains("1xx"))
-        || (statusCode.startsWith("2") && matchCodePattern.contains("2xx"))
-        || (statusCode.startsWith("3") && matchCodePattern.contains("3xx"))
-        || (statusCode.startsWith("4") && matchCodePattern.contains("4xx"))
-        || (statusCode.startsWith("5") && matchCodePattern.contains("5xx"));
-  }
-
-  private Map<String, Object> processResponse(ActivatedJob job, HttpResponse<String> response, HttpRequest request) {
+  Map<String, Object> processResponse(HttpResponse<ResponseBody> response,
+      ResponseProjection projection) {
 
 		final Map<String, Object> result = new java.util.HashMap<>();
 		int statusCode = response.statusCode();
 		result.put("statusCode", statusCode);
 
-		Optional.ofNullable(response.body()).filter(body -> !body.isEmpty()).map(body -> {
-			if (request.headers().allValues("Accept").contains("text/plain")
-					&& response.headers().allValues("Content-Type").contains("text/plain")) {
-				return body;
-			} else if (request.headers().allValues("Accept").contains("application/xml")
-				  	&& response.headers().allValues("Content-Type").contains("application/xml")) {
-				return bodyXmlToJson(body);
-			} else {
-				return bodyToObject(body);
+		final ResponseBody body = response.body();
+		if (!body.isEmpty()) {
+			switch (body.getKind()) {
+				case TEXT:
+					result.put("body", body.getText());
+					if (body.isTruncated()) {
+						result.put("bodyTruncated", true);
+					}
+					break;
+				case XML:
+					final Object xmlBody = bodyXmlToJson(body.getText());
+					if (projection.isEmpty()) {
+						result.put("body", xmlBody);
+					} else {
+						result.putAll(projection.apply(xmlBody, objectMapper));
+					}
+					break;
+				case JSON:
+					// parsed while the response was received
+					result.put("body", body.getValue());
+					break;
+				case PROJECTION:
+					// only the selected values were read
+					result.putAll(body.getVariables());
+					break;
+				default:
+					break;
 			}
-		}).ifPresent(body -> result.put("body", body));
+		}
 
 		return result;
   }
 
-  private Object bodyToObject(String body) {
-    try {
-      return objectMapper.readValue(body, Object.class);
-    } catch (IOException e) {
-      throw new RuntimeException("Failed to deserialize response body from JSON: " + body);
-    }
-  }
-
-  private Optional<String> extractPath(String body, JsonPointer pointer) {
-    try {
-      JsonNode valueNode = objectMapper.readTree(body).at(pointer);
-      return Optional.ofNullable(valueNode.textValue());
-    } catch (IOException e) {
-      return Optional.empty();
-    }
-  }
-  
   private Object bodyXmlToJson(String body) {
 		try {
-			JSONObject json = XML.toJSONObject((String) body);
-			String jsonString = json.toString();
-			return objectMapper.readValue(jsonString, Object.class);
+			return xmlConverter.convert(body);
+		} catch (IllegalArgumentException e) {
+			throw new RuntimeException("Failed to convert XML: " + e.getMessage());
 		} catch (Exception e) {
 			throw new RuntimeException("Failed to serialize XML: " + body);
 		}
   }
+
+  private static final class EnvironmentLayer {
+
+    private final ConfigurationLayer layer;
+    // the variables that the templates of the environment variables refer to
+    private final Optional<Set<String>> referencedVariables;
+
+    private EnvironmentLayer(ConfigurationLayer layer, Optional<Set<String>> referencedVariables) {
+      this.layer = layer;
+      this.referencedVariables = referencedVariables;
+    }
+  }
 }
@@ -0,0 +1,205 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http;
+
+import io.camunda.zeebe.client.api.command.ClientStatusException;
+import io.camunda.zeebe.client.api.response.ActivatedJob;
+import io.grpc.Status;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sends the complete, fail and throw error commands of the jobs asynchronously. The number of
+ * outstanding commands is limited - further commands are queued until a command is
+ * acknowledged. Since a job keeps its in-flight permit until its command is acknowledged, a
+ * full queue slows down the activation of new jobs.
+ *
+ * <p>A command that fails because the gateway is unavailable or overloaded is sent again after a
+ * delay, as long as the job is not expired. A command that didn't get an answer in time is not
+ * sent again, since the broker may have applied it already - sending it again would be rejected.
+ *
+ * <p>Zeebe has no command to complete multiple jobs at once, but the commands share the gRPC
+ * channel of the client, which multiplexes them over one connection.
+ */
+@Component
+public class JobCommands {
+
+  private static final Logger LOG = LoggerFactory.getLogger(JobCommands.class);
+
+  private static final Set<Status.Code> TRANSIENT_STATUS_CODES = Set.of(
+      Status.Code.UNAVAILABLE,
+      Status.Code.RESOURCE_EXHAUSTED);
+
+  private final Queue<Runnable> queuedCommands = new ArrayDeque<>();
+  private int outstandingCommands = 0;
+  private final AtomicInteger sendRequests = new AtomicInteger();
+
+  private final MeterRegistry meterRegistry;
+  private final int maxOutstandingCommands;
+  private final int maxRetries;
+  private final Duration retryDelay;
+
+  @Autowired
+  public JobCommands(ZeebeHttpWorkerConfig config, MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+    this.maxOutstandingCommands = config.getMaxOutstandingCommands();
+    this.maxRetries = config.getCommandRetries();
+    this.retryDelay = config.getCommandRetryDelay();
+
+    Gauge.builder("zeebe.http.worker.commands.outstanding", this,
+            JobCommands::getOutstandingCommands)
+        .description("The number of job commands that are not acknowledged yet")
+        .register(meterRegistry);
+    Gauge.builder("zeebe.http.worker.commands.queued", this, JobCommands::getQueuedCommands)
+        .description("The number of job commands that wait to be sent")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Send the command of the job, or queue it if the limit of outstanding commands is reached.
+   *
+   * @param command sends the command - called again if the command is retried
+   * @return a future that completes when the command is acknowledged
+   */
+  public <T> CompletableFuture<T> send(ActivatedJob job,
+      Supplier<? extends CompletionStage<T>> command) {
+    final CompletableFuture<T> result = new CompletableFuture<>();
+    final Runnable sendCommand = () -> sendWithRetries(job, command, 0)
+        .whenComplete((response, failure) -> {
+          release();
+          if (failure != null) {
+            result.completeExceptionally(failure);
+          } else {
+            result.complete(response);
+          }
+        });
+
+    synchronized (this) {
+      queuedCommands.add(sendCommand);
+    }
+    sendQueuedCommands();
+    return result;
+  }
+
+  private void release() {
+    synchronized (this) {
+      outstandingCommands -= 1;
+    }
+    sendQueuedCommands();
+  }
+
+  private void sendQueuedCommands() {
+    if (sendRequests.getAndIncrement() > 0) {
+      // another thread is sending the commands and checks the queue again
+      return;
+    }
+
+    // a command that is acknowledged right away releases its permit on this thread - send the
+    // next commands in this loop instead of recursively
+    int requests = 1;
+    do {
+      Runnable next;
+      while ((next = pollNext()) != null) {
+        next.run();
+      }
+      requests = sendRequests.addAndGet(-requests);
+    } while (requests > 0);
+  }
+
+  private synchronized Runnable pollNext() {
+    if (maxOutstandingCommands > 0 && outstandingCommands >= maxOutstandingCommands) {
+      return null;
+    }
+    final Runnable next = queuedCommands.poll();
+    if (next != null) {
+      outstandingCommands += 1;
+    }
+    return next;
+  }
+
+  private <T> CompletableFuture<T> sendWithRetries(ActivatedJob job,
+      Supplier<? extends CompletionStage<T>> command, int retries) {
+    final CompletableFuture<T> response;
+    try {
+      response = command.get().toCompletableFuture();
+    } catch (RuntimeException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+
+    return response
+        .handle((result, failure) -> {
+          if (failure == null) {
+            return CompletableFuture.completedFuture(result);
+          }
+
+          final Duration delay = retryDelay.multipliedBy(1L << Math.min(retries, 16));
+          if (retries >= maxRetries || !isTransient(failure)
+              || System.currentTimeMillis() + delay.toMillis() >= job.getDeadline()) {
+            return CompletableFuture.<T>failedFuture(failure);
+          }
+
+          LOG.debug("Retry command of job {} in {} (retry {}) after: {}", job.getKey(), delay,
+              retries + 1, failure.toString());
+          meterRegistry.counter("zeebe.http.worker.commands.retries").increment();
+
+          return CompletableFuture.runAsync(() -> {},
+                  CompletableFuture.delayedExecutor(delay.toMillis(), TimeUnit.MILLISECONDS))
+              .thenCompose(ignored -> sendWithRetries(job, command, retries + 1));
+        })
+        .thenCompose(Function.identity());
+  }
+
+  /**
+   * @return true if the command failed because the gateway or the broker is not available or is
+   *     overloaded
+   */
+  static boolean isTransient(Throwable failure) {
+    final Throwable cause = TransientFailures.unwrap(failure);
+    return cause instanceof ClientStatusException
+        && TRANSIENT_STATUS_CODES.contains(((ClientStatusException) cause).getStatusCode());
+  }
+
+  /**
+   * @return true if the command didn't get an answer in time - it may be applied by the broker
+   */
+  public static boolean hasUnknownOutcome(Throwable failure) {
+    final Throwable cause = TransientFailures.unwrap(failure);
+    return cause instanceof ClientStatusException
+        && ((ClientStatusException) cause).getStatusCode() == Status.Code.DEADLINE_EXCEEDED;
+  }
+
+  public synchronized int getOutstandingCommands() {
+    return outstandingCommands;
+  }
+
+  public synchronized int getQueuedCommands() {
+    return queuedCommands.size();
+  }
+}
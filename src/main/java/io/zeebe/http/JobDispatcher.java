@@ -0,0 +1,207 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http;
+
+import io.camunda.zeebe.client.api.response.ActivatedJob;
+import io.camunda.zeebe.client.api.worker.JobClient;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.trace.Span;
+import io.zeebe.http.tracing.JobTracer;
+import io.zeebe.http.tracing.JobTracer.JobTrace;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs the activated jobs either directly on the threads of the job worker, or - if configured -
+ * on a virtual thread per job.
+ *
+ * <p>The number of jobs in flight is limited by the maximum number of in-flight requests. A job
+ * is only handed to its thread if it gets a permit. Otherwise, it waits in a queue, and the
+ * waiting job with the earliest deadline gets the next permit. The thread of the job worker only
+ * waits if the queue is full. The virtual thread of a job only builds and sends the request - it
+ * doesn't wait for the response.
+ *
+ * <p>Without virtual threads, a job that gets a permit when it is dispatched is handled on the
+ * thread of the job worker. A job that gets the permit of a finished job is started on a
+ * dedicated thread - not on the thread that finished the job, which can be a thread of the HTTP
+ * client or of the Zeebe client.
+ *
+ * <p>Virtual threads are only available on Java 21 or later. On older versions, the jobs are
+ * handled like without virtual threads.
+ */
+@Component
+public class JobDispatcher {
+
+  private static final Logger LOG = LoggerFactory.getLogger(JobDispatcher.class);
+
+  private final AtomicInteger jobsInFlight = new AtomicInteger();
+
+  private final HttpJobHandler jobHandler;
+  private final ZeebeHttpWorkerConfig config;
+  private final MeterRegistry meterRegistry;
+  private final JobTracer tracer;
+  private final Supplier<Optional<ExecutorService>> virtualThreadExecutor;
+
+  private DeadlinePermits inFlightRequests;
+  // null if the jobs are handled on the threads of the job worker
+  private ExecutorService jobExecutor;
+  // starts the waiting jobs when a permit is released - null if the jobs are started on their own
+  // threads
+  private ExecutorService releaseExecutor;
+
+  @Autowired
+  public JobDispatcher(HttpJobHandler jobHandler, ZeebeHttpWorkerConfig config,
+      MeterRegistry meterRegistry, JobTracer tracer) {
+    this(jobHandler, config, meterRegistry, tracer, JobDispatcher::newVirtualThreadExecutor);
+  }
+
+  JobDispatcher(HttpJobHandler jobHandler, ZeebeHttpWorkerConfig config,
+      MeterRegistry meterRegistry, JobTracer tracer,
+      Supplier<Optional<ExecutorService>> virtualThreadExecutor) {
+    this.jobHandler = jobHandler;
+    this.config = config;
+    this.meterRegistry = meterRegistry;
+    this.tracer = tracer;
+    this.virtualThreadExecutor = virtualThreadExecutor;
+  }
+
+  @PostConstruct
+  public void init() {
+    inFlightRequests =
+        new DeadlinePermits(config.getMaxInFlightRequests(), config.getMaxWaitingJobs());
+
+    if (config.isVirtualThreadsEnabled()) {
+      jobExecutor = virtualThreadExecutor.get().orElse(null);
+      if (jobExecutor == null) {
+        LOG.warn("Virtual threads are not supported by Java {}. Handle the jobs on the threads "
+            + "of the job worker.", Runtime.version().feature());
+      }
+    }
+    if (jobExecutor == null) {
+      releaseExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "job-starter");
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+
+    Gauge.builder("zeebe.http.worker.jobs.in.flight", jobsInFlight, AtomicInteger::get)
+        .description("The number of activated jobs that are not completed or failed yet")
+        .register(meterRegistry);
+    Gauge.builder("zeebe.http.worker.jobs.waiting", inFlightRequests,
+            DeadlinePermits::getWaitingJobs)
+        .description("The number of activated jobs that wait for an in-flight request")
+        .register(meterRegistry);
+  }
+
+  @PreDestroy
+  public void close() {
+    if (jobExecutor != null) {
+      jobExecutor.shutdown();
+    }
+    if (releaseExecutor != null) {
+      releaseExecutor.shutdown();
+    }
+  }
+
+  /**
+   * Handle the job when it gets a permit - on the thread that starts it, or on a virtual thread.
+   * Blocks the calling thread only if the queue of waiting jobs is full. A job whose deadline
+   * passes in the meantime is skipped, since it may be activated by another worker already.
+   */
+  public void dispatch(JobClient jobClient, ActivatedJob job) throws InterruptedException {
+    final JobTrace trace = tracer.start(job);
+    final Span waiting = trace.startPhase("wait for permit");
+    try {
+      inFlightRequests.submit(job.getDeadline(),
+          () -> {
+            waiting.end();
+            start(jobClient, job, trace);
+          },
+          () -> {
+            waiting.end();
+            jobHandler.skip(job, trace);
+          });
+    } catch (InterruptedException e) {
+      waiting.end();
+      trace.end(e);
+      throw e;
+    }
+  }
+
+  private void start(JobClient jobClient, ActivatedJob job, JobTrace trace) {
+    jobsInFlight.incrementAndGet();
+    final Runnable execution = () -> jobHandler.execute(jobClient, job, trace)
+        .whenComplete((ignored, failure) -> {
+          jobsInFlight.decrementAndGet();
+          release();
+        });
+
+    if (jobExecutor == null) {
+      execution.run();
+      return;
+    }
+    try {
+      jobExecutor.execute(execution);
+    } catch (RejectedExecutionException e) {
+      // the worker is closed
+      jobsInFlight.decrementAndGet();
+      release();
+      trace.end(e);
+    }
+  }
+
+  private void release() {
+    if (releaseExecutor == null) {
+      // the waiting jobs are only handed to their own threads
+      inFlightRequests.release();
+      return;
+    }
+    try {
+      // the waiting jobs are started on the thread that releases the permit
+      releaseExecutor.execute(inFlightRequests::release);
+    } catch (RejectedExecutionException e) {
+      // the worker is closed - the waiting jobs are not started anymore
+      LOG.debug("Don't start the waiting jobs because the worker is closed");
+    }
+  }
+
+  public int getJobsInFlight() {
+    return jobsInFlight.get();
+  }
+
+  private static Optional<ExecutorService> newVirtualThreadExecutor() {
+    try {
+      // available since Java 21
+      return Optional.of((ExecutorService) Executors.class
+          .getMethod("newVirtualThreadPerTaskExecutor")
+          .invoke(null));
+    } catch (ReflectiveOperationException e) {
+      return Optional.empty();
+    }
+  }
+}
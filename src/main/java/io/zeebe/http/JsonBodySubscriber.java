@@ -0,0 +1,262 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import java.io.IOException;
+import java.net.http.HttpResponse.BodySubscriber;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+
+/**
+ * Parses a JSON response body while it is received, using the non-blocking parser of Jackson.
+ * The body is never held as string - the chunks are fed to the parser and its tokens are
+ * collected until the body is complete.
+ *
+ * <p>If the response is projected, only the tokens of the selected values are collected. Once
+ * all values are selected, the rest of the body is not parsed anymore.
+ *
+ * <p>The tokens are validated as well, since the non-blocking parser (Jackson 2.13) doesn't
+ * reject every malformed body - e.g. a field without value, if the body is split right after the
+ * colon, is followed by the end of the object.
+ */
+public class JsonBodySubscriber implements BodySubscriber<ResponseBody> {
+
+  private final CompletableFuture<ResponseBody> body = new CompletableFuture<>();
+
+  private final ObjectMapper objectMapper;
+  private final JsonParser parser;
+  private final ByteArrayFeeder feeder;
+  private final TokenBuffer tokens;
+  private final ResponseProjection projection;
+
+  private Flow.Subscription subscription;
+  private boolean hasTokens = false;
+  private JsonToken lastToken;
+
+  // the values that are selected by the projection
+  private final List<Selection> openSelections = new ArrayList<>();
+  private final Map<String, TokenBuffer> selectedValues = new HashMap<>();
+  private int depth = 0;
+
+  public JsonBodySubscriber(ObjectMapper objectMapper) {
+    this(objectMapper, ResponseProjection.none());
+  }
+
+  public JsonBodySubscriber(ObjectMapper objectMapper, ResponseProjection projection) {
+    this.objectMapper = objectMapper;
+    this.projection = projection;
+    try {
+      parser = objectMapper.getFactory().createNonBlockingByteArrayParser();
+    } catch (IOException e) {
+      throw new IllegalStateException("Failed to create JSON parser", e);
+    }
+    feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+    tokens = new TokenBuffer(parser);
+  }
+
+  @Override
+  public CompletionStage<ResponseBody> getBody() {
+    return body;
+  }
+
+  @Override
+  public void onSubscribe(Flow.Subscription subscription) {
+    this.subscription = subscription;
+    subscription.request(1);
+  }
+
+  @Override
+  public void onNext(List<ByteBuffer> buffers) {
+    try {
+      for (ByteBuffer buffer : buffers) {
+        feed(buffer);
+      }
+      subscription.request(1);
+    } catch (IOException e) {
+      subscription.cancel();
+      fail(e);
+    }
+  }
+
+  private void feed(ByteBuffer buffer) throws IOException {
+    final int length = buffer.remaining();
+    if (length == 0 || isProjectionComplete()) {
+      return;
+    }
+
+    if (buffer.hasArray()) {
+      final int offset = buffer.arrayOffset() + buffer.position();
+      feeder.feedInput(buffer.array(), offset, offset + length);
+    } else {
+      final byte[] bytes = new byte[length];
+      buffer.get(bytes);
+      feeder.feedInput(bytes, 0, length);
+    }
+    buffer.position(buffer.limit());
+
+    // consume the input completely - the parser needs it before the next chunk is fed
+    readAvailableTokens();
+  }
+
+  private void readAvailableTokens() throws IOException {
+    JsonToken token;
+    while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+      validate(token);
+
+      if (projection.isEmpty()) {
+        tokens.copyCurrentEvent(parser);
+        hasTokens = true;
+      } else {
+        project(token);
+      }
+    }
+  }
+
+  private void validate(JsonToken token) throws JsonParseException {
+    if (lastToken == JsonToken.FIELD_NAME && token.isStructEnd()) {
+      throw new JsonParseException(parser,
+          "Unexpected " + token.asString() + ": expected a value of the field");
+    }
+    lastToken = token;
+  }
+
+  private void validateEndOfInput() throws JsonParseException {
+    if (!parser.getParsingContext().inRoot()) {
+      throw new JsonParseException(parser, "Unexpected end of input: the body is incomplete");
+    }
+  }
+
+  private void project(JsonToken token) throws IOException {
+    // continue the selected values that contain the token
+    for (int i = openSelections.size() - 1; i >= 0; i--) {
+      final Selection selection = openSelections.get(i);
+      if (selection.copy(parser, token)) {
+        openSelections.remove(i);
+      }
+    }
+
+    if (token.isStructEnd()) {
+      depth -= 1;
+    } else if (token != JsonToken.FIELD_NAME) {
+      // the token starts a value - check if it is selected
+      if (depth <= projection.getMaxDepth()) {
+        final String pointer = parser.getParsingContext().pathAsPointer().toString();
+        for (String name : projection.select(pointer)) {
+          final Selection selection = new Selection(new TokenBuffer(parser));
+          selectedValues.putIfAbsent(name, selection.tokens);
+          if (!selection.copy(parser, token)) {
+            openSelections.add(selection);
+          }
+        }
+      }
+
+      if (token.isStructStart()) {
+        depth += 1;
+      }
+    }
+  }
+
+  private boolean isProjectionComplete() {
+    return !projection.isEmpty()
+        && openSelections.isEmpty()
+        && selectedValues.size() == projection.size();
+  }
+
+  @Override
+  public void onError(Throwable throwable) {
+    body.completeExceptionally(throwable);
+  }
+
+  @Override
+  public void onComplete() {
+    try {
+      if (!projection.isEmpty()) {
+        completeProjection();
+        return;
+      }
+
+      feeder.endOfInput();
+      readAvailableTokens();
+      validateEndOfInput();
+
+      if (!hasTokens) {
+        body.complete(ResponseBody.empty());
+      } else {
+        final Object value = objectMapper.readValue(tokens.asParser(), Object.class);
+        body.complete(ResponseBody.ofJson(value));
+      }
+    } catch (IOException e) {
+      fail(e);
+    }
+  }
+
+  private void completeProjection() throws IOException {
+    if (!isProjectionComplete()) {
+      // validate the rest of the body
+      feeder.endOfInput();
+      readAvailableTokens();
+      validateEndOfInput();
+    }
+
+    final Map<String, Object> variables = new HashMap<>();
+    for (Map.Entry<String, TokenBuffer> value : selectedValues.entrySet()) {
+      variables.put(value.getKey(),
+          objectMapper.readValue(value.getValue().asParser(), Object.class));
+    }
+    body.complete(ResponseBody.ofProjection(variables));
+  }
+
+  private void fail(IOException e) {
+    body.completeExceptionally(
+        new RuntimeException("Failed to deserialize response body from JSON: " + e.getMessage(),
+            e));
+  }
+
+  private static final class Selection {
+
+    private final TokenBuffer tokens;
+    private int depth = 0;
+
+    private Selection(TokenBuffer tokens) {
+      this.tokens = tokens;
+    }
+
+    /**
+     * @return true if the selected value is complete
+     */
+    private boolean copy(JsonParser parser, JsonToken token) throws IOException {
+      tokens.copyCurrentEvent(parser);
+      if (token.isStructStart()) {
+        depth += 1;
+      } else if (token.isStructEnd()) {
+        depth -= 1;
+      }
+      return depth == 0 && token != JsonToken.FIELD_NAME;
+    }
+  }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http;
+
+import io.zeebe.http.ResponseSizeLimit.Action;
+import java.io.ByteArrayOutputStream;
+import java.net.http.HttpResponse.BodySubscriber;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+
+/**
+ * Passes the response body to another subscriber until the body exceeds the size limit. Then,
+ * the response is cancelled and the body is completed depending on the action of the limit,
+ * without reading the rest of the response.
+ *
+ * <p>If the response announces its length, a body that is too large is aborted right away,
+ * unless it should be truncated.
+ */
+public class LimitedBodySubscriber implements BodySubscriber<ResponseBody> {
+
+  private final CompletableFuture<ResponseBody> body = new CompletableFuture<>();
+
+  private final BodySubscriber<ResponseBody> delegate;
+  private final ResponseSizeLimit limit;
+  private final long contentLength;
+  private final Charset charset;
+  private final boolean isFailure;
+  private final Runnable onExceeded;
+
+  // the first bytes of the body, only kept if the body should be truncated
+  private final ByteArrayOutputStream head;
+
+  private Flow.Subscription subscription;
+  private long receivedBytes = 0;
+  private boolean isExceeded = false;
+
+  /**
+   * @param contentLength the announced length of the body, or -1 if unknown
+   * @param isFailure if the body belongs to a response with a failing status code
+   * @param onExceeded called once if the body exceeds the limit
+   */
+  public LimitedBodySubscriber(BodySubscriber<ResponseBody> delegate, ResponseSizeLimit limit,
+      long contentLength, Charset charset, boolean isFailure, Runnable onExceeded) {
+    this.delegate = delegate;
+    this.limit = limit;
+    this.contentLength = contentLength;
+    this.charset = charset;
+    this.isFailure = isFailure;
+    this.onExceeded = onExceeded;
+    this.head = limit.getAction() == Action.TRUNCATE ? new ByteArrayOutputStream() : null;
+
+    delegate.getBody().whenComplete((result, failure) -> {
+      if (failure != null) {
+        body.completeExceptionally(failure);
+      } else {
+        body.complete(result);
+      }
+    });
+  }
+
+  @Override
+  public CompletionStage<ResponseBody> getBody() {
+    return body;
+  }
+
+  @Override
+  public void onSubscribe(Flow.Subscription subscription) {
+    this.subscription = subscription;
+
+    if (contentLength > limit.getMaxSize() && limit.getAction() != Action.TRUNCATE) {
+      exceeded();
+    } else {
+      delegate.onSubscribe(subscription);
+    }
+  }
+
+  @Override
+  public void onNext(List<ByteBuffer> buffers) {
+    if (isExceeded) {
+      return;
+    }
+
+    long size = 0;
+    for (ByteBuffer buffer : buffers) {
+      size += buffer.remaining();
+    }
+
+    if (receivedBytes + size > limit.getMaxSize()) {
+      if (head != null) {
+        keepHead(buffers, limit.getMaxSize() - receivedBytes);
+      }
+      exceeded();
+    } else {
+      receivedBytes += size;
+      if (head != null) {
+        keepHead(buffers, size);
+      }
+      delegate.onNext(buffers);
+    }
+  }
+
+  private void keepHead(List<ByteBuffer> buffers, long length) {
+    long remaining = length;
+    for (ByteBuffer buffer : buffers) {
+      if (remaining <= 0) {
+        break;
+      }
+      final ByteBuffer chunk = buffer.duplicate();
+      final int chunkLength = (int) Math.min(chunk.remaining(), remaining);
+      final byte[] bytes = new byte[chunkLength];
+      chunk.get(bytes);
+      head.write(bytes, 0, chunkLength);
+      remaining -= chunkLength;
+    }
+  }
+
+  private void exceeded() {
+    isExceeded = true;
+    onExceeded.run();
+
+    switch (limit.getAction()) {
+      case TRUNCATE:
+        final byte[] bytes = head.toByteArray();
+        body.complete(isFailure
+            ? ResponseBody.ofBytes(bytes, charset)
+            : ResponseBody.ofTruncatedText(bytes, charset));
+        break;
+      case DROP:
+        body.complete(ResponseBody.empty());
+        break;
+      default:
+        body.completeExceptionally(new RuntimeException(
+            "Response body exceeds the maximum size of " + limit.getMaxSize() + " bytes"));
+    }
+
+    // after the body is completed - cancelling an HTTP/2 stream fails the pending response
+    subscription.cancel();
+  }
+
+  @Override
+  public void onError(Throwable throwable) {
+    if (!isExceeded) {
+      delegate.onError(throwable);
+    }
+  }
+
+  @Override
+  public void onComplete() {
+    if (!isExceeded) {
+      delegate.onComplete();
+    }
+  }
+}
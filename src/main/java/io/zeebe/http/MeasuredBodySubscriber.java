@@ -0,0 +1,111 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http;
+
+import java.net.http.HttpResponse.BodySubscriber;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Passes the response body to another subscriber and measures the size of the body and the time
+ * that the subscriber spends to read it - e.g. to parse a JSON body while it is received.
+ *
+ * <p>If the subscriber cancels the body before it is completed - e.g. because the body exceeds
+ * the size limit - the bytes that are received until then are measured.
+ */
+public class MeasuredBodySubscriber<T> implements BodySubscriber<T> {
+
+  private final BodySubscriber<T> delegate;
+  private final Measurement measurement;
+  private final AtomicBoolean isRecorded = new AtomicBoolean();
+
+  private long receivedBytes = 0;
+  private long readTime = 0;
+
+  /**
+   * @param measurement called once when the body is completed or cancelled
+   */
+  public MeasuredBodySubscriber(BodySubscriber<T> delegate, Measurement measurement) {
+    this.delegate = delegate;
+    this.measurement = measurement;
+  }
+
+  @Override
+  public CompletionStage<T> getBody() {
+    return delegate.getBody();
+  }
+
+  @Override
+  public void onSubscribe(Flow.Subscription subscription) {
+    delegate.onSubscribe(new Flow.Subscription() {
+      @Override
+      public void request(long n) {
+        subscription.request(n);
+      }
+
+      @Override
+      public void cancel() {
+        record(false);
+        subscription.cancel();
+      }
+    });
+  }
+
+  @Override
+  public void onNext(List<ByteBuffer> buffers) {
+    for (ByteBuffer buffer : buffers) {
+      receivedBytes += buffer.remaining();
+    }
+
+    final long start = System.nanoTime();
+    delegate.onNext(buffers);
+    readTime += System.nanoTime() - start;
+  }
+
+  @Override
+  public void onError(Throwable throwable) {
+    delegate.onError(throwable);
+  }
+
+  @Override
+  public void onComplete() {
+    final long start = System.nanoTime();
+    delegate.onComplete();
+    readTime += System.nanoTime() - start;
+
+    record(true);
+  }
+
+  private void record(boolean isCompleted) {
+    if (isRecorded.compareAndSet(false, true)) {
+      measurement.record(receivedBytes, readTime, isCompleted);
+    }
+  }
+
+  @FunctionalInterface
+  public interface Measurement {
+
+    /**
+     * @param bytes the size of the body in bytes
+     * @param readTime the time in nanoseconds that the subscriber spent to read the body
+     * @param isCompleted {@code false} if the body is cancelled before it is completed
+     */
+    void record(long bytes, long readTime, boolean isCompleted);
+  }
+}
@@ -2,39 +2,196 @@ package io.zeebe.http;
 
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.Set;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.mustachejava.DefaultMustacheFactory;
 import com.github.mustachejava.Mustache;
 import com.github.mustachejava.MustacheFactory;
+import com.github.mustachejava.Code;
+import com.github.mustachejava.codes.ExtendCode;
+import com.github.mustachejava.codes.PartialCode;
 
 public class PlaceholderProcessor {
 
+  private static final String MUSTACHE_TAG_START = "{{";
+  private static final String LEGACY_PLACEHOLDER_START = "${";
+  private static final char LEGACY_PLACEHOLDER_END = '}';
+  private static final long DEFAULT_MAXIMUM_TEMPLATES = 1000;
+
   private final MustacheFactory mf = new DefaultMustacheFactory();
 
+  // compiled templates by their template text - the templates come mostly from custom headers
+  // and don't change between the jobs
+  private final Cache<String, Template> templates;
+
+  public PlaceholderProcessor() {
+    this(DEFAULT_MAXIMUM_TEMPLATES);
+  }
+
+  public PlaceholderProcessor(long maximumTemplates) {
+    templates = Caffeine.newBuilder()
+        .maximumSize(maximumTemplates)
+        .recordStats()
+        .build();
+  }
+
   public String process(String input, Map<String, Object> context) {
-    final StringWriter output = new StringWriter();
+    return compile(input).render(context);
+  }
+
+  /**
+   * @return the compiled template for the input, that can be rendered with different contexts
+   */
+  public Template compile(String input) {
+    if (input == null || !input.contains(MUSTACHE_TAG_START)) {
+      // nothing to render for Mustache
+      return new Template(input, null);
+    }
+    return templates.get(input, this::compileMustache);
+  }
 
-    final Mustache mustache = mf.compile(new StringReader(input), "");
-    mustache.execute(output, context);
+  private Template compileMustache(String input) {
+    return new Template(input, mf.compile(new StringReader(input), ""));
+  }
 
-    String result = legacyProcess(output.toString(), context);
-    return result;
+  /**
+   * @return the cache of the compiled templates, e.g. to monitor it
+   */
+  Cache<String, Template> getTemplateCache() {
+    return templates;
   }
 
   /**
    * Also process the old way of having placeholders in the Cloud.
    * Can hopefully be removed when everything is touched with https://github.com/zeebe-io/zeebe/issues/3417.
+   *
+   * <p>Scans the input once and looks up only the placeholders that are present. Placeholders
+   * without a matching context entry are kept as they are.
    */
   public String legacyProcess(String input,  Map<String, Object> context) {
     if (input==null || context==null) {
       return null;
     }
-    // RegEx: .*(\$\{hallo\}).* 
-    for (Entry<String, Object> entry : context.entrySet()) {
-      input = input.replaceAll("\\$\\{" + entry.getKey() + "\\}", String.valueOf(entry.getValue()));        
+
+    int placeholderStart = input.indexOf(LEGACY_PLACEHOLDER_START);
+    if (placeholderStart < 0) {
+      return input;
+    }
+
+    final StringBuilder result = new StringBuilder(input.length());
+    int position = 0;
+
+    while (placeholderStart >= 0) {
+      final int nameStart = placeholderStart + LEGACY_PLACEHOLDER_START.length();
+      final int placeholderEnd = input.indexOf(LEGACY_PLACEHOLDER_END, nameStart);
+      if (placeholderEnd < 0) {
+        break;
+      }
+
+      final String name = input.substring(nameStart, placeholderEnd);
+      if (context.containsKey(name)) {
+        result.append(input, position, placeholderStart).append(context.get(name));
+        position = placeholderEnd + 1;
+        placeholderStart = input.indexOf(LEGACY_PLACEHOLDER_START, position);
+      } else {
+        // may contain the start of another placeholder, e.g. "${a${b}"
+        placeholderStart = input.indexOf(LEGACY_PLACEHOLDER_START, nameStart);
+      }
+    }
+
+    result.append(input, position, input.length());
+    return result.toString();
+  }
+
+  private static boolean collectNames(Code[] codes, Set<String> names) {
+    if (codes == null) {
+      return true;
+    }
+
+    for (Code code : codes) {
+      if (code instanceof PartialCode || code instanceof ExtendCode) {
+        return false;
+      }
+
+      // names inside a section may refer to the section value or to a variable, so add them too
+      final String name = code.getName();
+      if (name != null) {
+        final String rootName = name.split("\\.", 2)[0].trim();
+        if (!rootName.isEmpty()) {
+          names.add(rootName);
+        }
+      }
+
+      if (!collectNames(code.getCodes(), names)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static void collectLegacyNames(String input, Set<String> names) {
+    if (input == null) {
+      return;
+    }
+
+    int placeholderStart = input.indexOf(LEGACY_PLACEHOLDER_START);
+    while (placeholderStart >= 0) {
+      final int nameStart = placeholderStart + LEGACY_PLACEHOLDER_START.length();
+      final int placeholderEnd = input.indexOf(LEGACY_PLACEHOLDER_END, nameStart);
+      if (placeholderEnd < 0) {
+        return;
+      }
+      names.add(input.substring(nameStart, placeholderEnd));
+      placeholderStart = input.indexOf(LEGACY_PLACEHOLDER_START, nameStart);
+    }
+  }
+
+  public class Template {
+
+    private final String input;
+    // null if the input contains no Mustache tags
+    private final Mustache mustache;
+
+    private Template(String input, Mustache mustache) {
+      this.input = input;
+      this.mustache = mustache;
+    }
+
+    public String getInput() {
+      return input;
+    }
+
+    /**
+     * @return the names of the variables that the template refers to, or empty if they can't be
+     * determined, e.g. because the template includes a partial. The names of nested values
+     * (e.g. "{{order.id}}") are the names of their root variable.
+     */
+    public Optional<Set<String>> getReferencedNames() {
+      final Set<String> names = new HashSet<>();
+
+      if (mustache != null && !collectNames(mustache.getCodes(), names)) {
+        return Optional.empty();
+      }
+      collectLegacyNames(input, names);
+
+      return Optional.of(Collections.unmodifiableSet(names));
+    }
+
+    public String render(Map<String, Object> context) {
+      if (mustache == null) {
+        return legacyProcess(input, context);
+      }
+
+      final StringWriter output = new StringWriter();
+      mustache.execute(output, context);
+
+      return legacyProcess(output.toString(), context);
     }
-    return input;
   }
 }
@@ -0,0 +1,49 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http;
+
+import java.time.Duration;
+
+/**
+ * The HTTP request of a job is not sent, e.g. because the target host is overloaded. The job is
+ * failed with a retry backoff, so it is activated again later.
+ */
+public class RejectedRequestException extends RuntimeException {
+
+  private static final long serialVersionUID = 1L;
+
+  private final Duration retryBackoff;
+  private final boolean decrementRetries;
+
+  /**
+   * @param retryBackoff the time until the job is activated again
+   * @param decrementRetries false if the job is yielded back, without counting it as attempt
+   */
+  public RejectedRequestException(String message, Duration retryBackoff,
+      boolean decrementRetries) {
+    super(message);
+    this.retryBackoff = retryBackoff;
+    this.decrementRetries = decrementRetries;
+  }
+
+  public Duration getRetryBackoff() {
+    return retryBackoff;
+  }
+
+  public boolean isDecrementRetries() {
+    return decrementRetries;
+  }
+}
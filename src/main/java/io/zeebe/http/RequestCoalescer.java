@@ -0,0 +1,123 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Lets concurrent jobs that send the same request share one request in flight (single flight).
+ * The first job sends the request, the jobs that arrive while it is in flight join it and get the
+ * same response. A job that arrives after the response is received sends a new request.
+ *
+ * <p>A job that gives up - e.g. on its timeout - leaves the request. The shared request is
+ * cancelled only when all of its jobs have left it.
+ *
+ * <p>The jobs that join a request get their own copy of the result, so that they don't share
+ * mutable state with each other.
+ *
+ * @param <T> the result of the request
+ */
+public class RequestCoalescer<T> {
+
+  private final Map<Object, Flight<T>> flights = new ConcurrentHashMap<>();
+  private final UnaryOperator<T> copy;
+  private final Runnable onJoined;
+
+  /**
+   * @param copy creates a deep copy of a result for a job that joined the request
+   * @param onJoined called when a job joins a request in flight, instead of sending its own
+   */
+  public RequestCoalescer(UnaryOperator<T> copy, Runnable onJoined) {
+    this.copy = copy;
+    this.onJoined = onJoined;
+  }
+
+  /**
+   * Send the request, or join the request with the same key that is in flight.
+   *
+   * @param key identifies the request - equal keys share one request
+   * @param cancellation completed when the job gives up on the request
+   * @param request sends the request, given a future that is completed to cancel it
+   * @return the result of the request - a future of its own for each job
+   */
+  public CompletableFuture<T> execute(Object key, CompletableFuture<Void> cancellation,
+      Function<CompletableFuture<Void>, CompletableFuture<T>> request) {
+    final Flight<T> created = new Flight<>();
+    final Flight<T> flight = flights.compute(key,
+        (k, existing) -> existing != null && existing.join() ? existing : created);
+
+    if (flight != created) {
+      onJoined.run();
+      cancellation.thenRun(flight::leave);
+      // a job that times out completes only its own future
+      return flight.result.thenApply(copy);
+    }
+
+    CompletableFuture<T> response;
+    try {
+      response = request.apply(flight.cancellation);
+    } catch (RuntimeException e) {
+      // e.g. the request can't be built - the jobs that joined it fail, too
+      response = CompletableFuture.failedFuture(e);
+    }
+    response.whenComplete((result, failure) -> {
+      // later jobs send a new request
+      flights.remove(key, flight);
+      if (failure != null) {
+        flight.result.completeExceptionally(failure);
+      } else {
+        flight.result.complete(result);
+      }
+    });
+
+    cancellation.thenRun(flight::leave);
+    return flight.result.copy();
+  }
+
+  /**
+   * @return the number of requests in flight
+   */
+  public int getInFlightRequests() {
+    return flights.size();
+  }
+
+  private static final class Flight<T> {
+
+    private final CompletableFuture<T> result = new CompletableFuture<>();
+    private final CompletableFuture<Void> cancellation = new CompletableFuture<>();
+
+    private int jobs = 1;
+
+    synchronized boolean join() {
+      if (jobs == 0 || result.isDone()) {
+        return false;
+      }
+      jobs += 1;
+      return true;
+    }
+
+    synchronized void leave() {
+      jobs -= 1;
+      if (jobs == 0) {
+        cancellation.complete(null);
+      }
+    }
+  }
+}
@@ -0,0 +1,263 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.mustachejava.MustacheException;
+import io.camunda.zeebe.client.api.response.ActivatedJob;
+import io.zeebe.http.PlaceholderProcessor.Template;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * The parsed configuration of a service task: templates, status code matchers and JSON pointers.
+ * The custom headers are static per BPMN element, so the plan is created once per element and
+ * reused for all of its jobs.
+ *
+ * <p>A parsed value is only reused if the job resolves the same configuration value, e.g. if it
+ * is not overridden by a variable.
+ *
+ * <p>The plan also knows which variables the templates of the custom headers refer to, so only
+ * these variables - and the ones that the environment variables refer to - need to be read from
+ * the job.
+ */
+public class RequestPlan {
+
+  private final PlaceholderProcessor placeholderProcessor;
+  private final String taskType;
+  private final ConfigurationLayer customHeaders;
+
+  // the lower case names of the variables that are used, or null if all variables are needed
+  private final Set<String> referencedVariables;
+
+  private final Map<String, Parsed<Template>> templates = new ConcurrentHashMap<>();
+  private final Map<String, Parsed<StatusCodeMatcher>> statusCodeMatchers =
+      new ConcurrentHashMap<>();
+  private final Map<String, Parsed<JsonPointer>> jsonPointers = new ConcurrentHashMap<>();
+  private final Map<String, Parsed<Long>> sizes = new ConcurrentHashMap<>();
+  private final Map<String, Parsed<Duration>> durations = new ConcurrentHashMap<>();
+  private final Map<String, Parsed<Map<String, JsonPointer>>> resultVariables =
+      new ConcurrentHashMap<>();
+
+  public RequestPlan(PlaceholderProcessor placeholderProcessor, String taskType,
+      Map<String, String> customHeaders) {
+    this.placeholderProcessor = placeholderProcessor;
+    this.taskType = taskType;
+    this.customHeaders = new ConfigurationLayer(customHeaders);
+    this.referencedVariables = findReferencedVariables(placeholderProcessor, customHeaders)
+        .orElse(null);
+  }
+
+  private static Optional<Set<String>> findReferencedVariables(
+      PlaceholderProcessor placeholderProcessor, Map<String, String> customHeaders) {
+    // the parameters can be given as variables as well
+    final Set<String> names = new HashSet<>(HttpJobHandler.PARAMETERS);
+
+    if (customHeaders != null) {
+      final Optional<Set<String>> referencedNames =
+          findReferencedVariables(placeholderProcessor, customHeaders.values());
+      if (referencedNames.isEmpty()) {
+        return Optional.empty();
+      }
+      names.addAll(referencedNames.get());
+    }
+    return Optional.of(Collections.unmodifiableSet(names));
+  }
+
+  /**
+   * @param templates configuration values that are rendered as templates
+   * @return the lower case names of the variables that the templates refer to, or empty if the
+   *     referenced variables can't be determined
+   */
+  static Optional<Set<String>> findReferencedVariables(
+      PlaceholderProcessor placeholderProcessor, Collection<String> templates) {
+    final Set<String> names = new HashSet<>();
+
+    for (String template : templates) {
+      final Optional<Set<String>> referencedNames;
+      try {
+        referencedNames = placeholderProcessor.compile(template).getReferencedNames();
+      } catch (MustacheException e) {
+        // e.g. a missing partial - the job fails when the template is rendered
+        return Optional.empty();
+      }
+      if (referencedNames.isEmpty()) {
+        return Optional.empty();
+      }
+      referencedNames.get().forEach(name -> names.add(name.toLowerCase(Locale.ROOT)));
+    }
+    return Optional.of(Collections.unmodifiableSet(names));
+  }
+
+  /**
+   * @return the type of the jobs of the element
+   */
+  public String getTaskType() {
+    return taskType;
+  }
+
+  /**
+   * @return the variables that are used by this plan, or empty if all variables are needed
+   */
+  public Optional<Set<String>> getReferencedVariables() {
+    return Optional.ofNullable(referencedVariables);
+  }
+
+  /**
+   * Read the variables of the job that are used by this plan (i.e. referenced by a template, a
+   * parameter or a custom HTTP header), without deserializing the other variables. Reads all
+   * variables if the used variables can't be determined.
+   *
+   * @param environmentReferences the lower case names of the variables that the templates of the
+   *     environment variables refer to, or empty if all variables are needed
+   */
+  public Map<String, Object> readVariables(ActivatedJob job, ObjectMapper objectMapper,
+      Optional<Set<String>> environmentReferences) {
+    if (referencedVariables == null || environmentReferences.isEmpty()) {
+      return job.getVariablesAsMap();
+    }
+    final Set<String> environmentNames = environmentReferences.get();
+
+    try (JsonParser parser = objectMapper.createParser(job.getVariables())) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        return job.getVariablesAsMap();
+      }
+
+      final Map<String, Object> variables = new HashMap<>();
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        final String name = parser.getCurrentName();
+        parser.nextToken();
+
+        if (isReferenced(name, environmentNames)) {
+          final Object value = objectMapper.readValue(parser, Object.class);
+          if (isTemplate(value)) {
+            // a parameter given as variable may refer to any other variable
+            return job.getVariablesAsMap();
+          }
+          variables.put(name, value);
+        } else {
+          parser.skipChildren();
+        }
+      }
+      return variables;
+
+    } catch (IOException e) {
+      return job.getVariablesAsMap();
+    }
+  }
+
+  private boolean isReferenced(String name, Set<String> environmentNames) {
+    final String lowerCaseName = name.toLowerCase(Locale.ROOT);
+    return referencedVariables.contains(lowerCaseName)
+        || environmentNames.contains(lowerCaseName)
+        || lowerCaseName.startsWith(HttpJobHandler.CUSTOM_HTTP_HEADER_PREFIX);
+  }
+
+  private static boolean isTemplate(Object value) {
+    return value instanceof String
+        && (((String) value).contains("{{") || ((String) value).contains("${"));
+  }
+
+  /**
+   * @return true if the plan was created from the given custom headers
+   */
+  public boolean isCreatedFrom(Map<String, String> customHeaders) {
+    final Map<String, ?> entries = this.customHeaders.getEntries();
+    return customHeaders == null ? entries.isEmpty() : entries.equals(customHeaders);
+  }
+
+  /**
+   * @return the custom headers of the element as configuration layer, that is shared by all jobs
+   * of the element
+   */
+  public ConfigurationLayer getCustomHeaders() {
+    return customHeaders;
+  }
+
+  public Template getTemplate(String key, String source) {
+    return resolve(templates, key, source, placeholderProcessor::compile);
+  }
+
+  public StatusCodeMatcher getStatusCodeMatcher(String key, String source) {
+    return resolve(statusCodeMatchers, key, source, StatusCodeMatcher::parse);
+  }
+
+  /**
+   * @param source a path expression in dot notation (e.g. "error.code") or a JSON pointer (e.g.
+   *     "/error/code")
+   */
+  public JsonPointer getJsonPointer(String key, String source) {
+    return resolve(jsonPointers, key, source, ResponseProjection::parsePath);
+  }
+
+  /**
+   * @param source a duration, e.g. "500ms", "5s" or "PT1M"
+   */
+  public Duration getDuration(String key, String source) {
+    return resolve(durations, key, source, Durations::parse);
+  }
+
+  /**
+   * @param source a JSON object that maps variable names to paths
+   */
+  public Map<String, JsonPointer> getResultVariables(String key, String source) {
+    return resolve(resultVariables, key, source, ResponseProjection::parseVariables);
+  }
+
+  /**
+   * @param source a data size, e.g. "1024" or "10MB"
+   * @return the size in bytes
+   */
+  public long getSize(String key, String source) {
+    return resolve(sizes, key, source, ResponseSizeLimit::parseSize);
+  }
+
+  private static <T> T resolve(Map<String, Parsed<T>> parsedValues, String key, String source,
+      Function<String, T> parser) {
+    final Parsed<T> parsed = parsedValues.computeIfAbsent(key,
+        k -> new Parsed<>(source, parser.apply(source)));
+
+    if (parsed.source.equals(source)) {
+      return parsed.value;
+    } else {
+      return parser.apply(source);
+    }
+  }
+
+  private static final class Parsed<T> {
+
+    private final String source;
+    private final T value;
+
+    private Parsed(String source, T value) {
+      this.source = source;
+      this.value = value;
+    }
+  }
+}
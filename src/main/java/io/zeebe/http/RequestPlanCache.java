@@ -0,0 +1,99 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.camunda.zeebe.client.api.response.ActivatedJob;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Caches the request plans by process definition and element. The plans of a process are
+ * removed when a job of a newer version of the process is activated. A plan is created again if
+ * the custom headers of the job differ from the ones of the cached plan.
+ */
+public class RequestPlanCache {
+
+  private static final Logger LOG = LoggerFactory.getLogger(RequestPlanCache.class);
+
+  private final PlaceholderProcessor placeholderProcessor;
+
+  private final Cache<PlanKey, RequestPlan> plans;
+  private final Map<String, Integer> latestVersions = new ConcurrentHashMap<>();
+
+  public RequestPlanCache(PlaceholderProcessor placeholderProcessor, long maximumPlans) {
+    this.placeholderProcessor = placeholderProcessor;
+
+    plans = Caffeine.newBuilder()
+        .maximumSize(maximumPlans)
+        .recordStats()
+        .build();
+  }
+
+  public RequestPlan get(ActivatedJob job) {
+    final String bpmnProcessId = job.getBpmnProcessId();
+    final int version = job.getProcessDefinitionVersion();
+
+    latestVersions.compute(bpmnProcessId, (id, latestVersion) -> {
+      if (latestVersion == null) {
+        return version;
+      } else if (latestVersion < version) {
+        // a new version is deployed - the plans of the old versions are likely not used anymore
+        invalidateOlderVersions(bpmnProcessId, version);
+        return version;
+      } else {
+        return latestVersion;
+      }
+    });
+
+    final PlanKey key = new PlanKey(bpmnProcessId, version, job.getProcessDefinitionKey(),
+        job.getElementId());
+    final RequestPlan plan = plans.get(key, k -> createPlan(k, job));
+    if (plan.isCreatedFrom(job.getCustomHeaders())) {
+      return plan;
+    }
+
+    // the keys are assigned again if the broker starts without its data, e.g. in a test
+    final RequestPlan newPlan = createPlan(key, job);
+    plans.put(key, newPlan);
+    return newPlan;
+  }
+
+  private RequestPlan createPlan(PlanKey key, ActivatedJob job) {
+    final RequestPlan plan = new RequestPlan(placeholderProcessor, job.getType(),
+        job.getCustomHeaders());
+
+    LOG.debug("Created request plan for {}, reads the variables: {}", key,
+        plan.getReferencedVariables().map(String::valueOf).orElse("all"));
+    return plan;
+  }
+
+  private void invalidateOlderVersions(String bpmnProcessId, int version) {
+    plans.asMap().keySet().removeIf(
+        key -> key.bpmnProcessId.equals(bpmnProcessId) && key.version < version);
+  }
+
+  Cache<PlanKey, RequestPlan> getPlans() {
+    return plans;
+  }
+
+  record PlanKey(String bpmnProcessId, int version, long processDefinitionKey, String elementId) {
+
+  }
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The body of an HTTP response, read in the representation that is needed to process the
+ * response. A raw body is decoded and parsed at most once, no matter how often it is accessed.
+ */
+public class ResponseBody {
+
+  public enum Kind {
+    /** no body, or the body is not needed */
+    EMPTY,
+    /** a plain text body */
+    TEXT,
+    /** an XML body as text */
+    XML,
+    /** a JSON body, already parsed while it was received */
+    JSON,
+    /** the values of a JSON body that are selected as variables */
+    PROJECTION,
+    /** the raw bytes of the body, e.g. to extract the error of a failed request */
+    RAW
+  }
+
+  private static final ResponseBody EMPTY =
+      new ResponseBody(Kind.EMPTY, null, null, null, null, false);
+
+  // serializes a parsed JSON body, i.e. plain maps, lists and values
+  private static final ObjectMapper JSON_WRITER = new ObjectMapper();
+
+  private final Kind kind;
+  private final byte[] bytes;
+  private final Charset charset;
+  private final Object value;
+  private final boolean truncated;
+
+  // computed on demand - a response can be shared by the jobs of a coalesced request
+  private volatile String text;
+  private volatile Optional<JsonNode> json;
+
+  private ResponseBody(Kind kind, byte[] bytes, Charset charset, String text, Object value,
+      boolean truncated) {
+    this.kind = kind;
+    this.bytes = bytes;
+    this.charset = charset;
+    this.text = text;
+    this.value = value;
+    this.truncated = truncated;
+  }
+
+  public static ResponseBody empty() {
+    return EMPTY;
+  }
+
+  public static ResponseBody ofText(String text) {
+    return new ResponseBody(Kind.TEXT, null, null, text, null, false);
+  }
+
+  public static ResponseBody ofXml(String text) {
+    return new ResponseBody(Kind.XML, null, null, text, null, false);
+  }
+
+  /**
+   * @param value the parsed JSON body, e.g. a map or a list
+   */
+  public static ResponseBody ofJson(Object value) {
+    return new ResponseBody(Kind.JSON, null, null, null, value, false);
+  }
+
+  /**
+   * @param variables the selected values of the body, by variable name
+   */
+  public static ResponseBody ofProjection(Map<String, Object> variables) {
+    return new ResponseBody(Kind.PROJECTION, null, null, null, variables, false);
+  }
+
+  public static ResponseBody ofBytes(byte[] bytes, Charset charset) {
+    return new ResponseBody(Kind.RAW, bytes, charset, null, null, false);
+  }
+
+  /**
+   * @param bytes the beginning of a body that exceeds the size limit
+   */
+  public static ResponseBody ofTruncatedText(byte[] bytes, Charset charset) {
+    return new ResponseBody(Kind.TEXT, bytes, charset, null, null, true);
+  }
+
+  /**
+   * @return a body that shares no mutable state with this one, i.e. the parsed JSON body or the
+   *     selected variables are copied
+   */
+  public ResponseBody copy() {
+    if (value == null) {
+      return this;
+    }
+    return new ResponseBody(kind, bytes, charset, text, copyValue(value), truncated);
+  }
+
+  private static Object copyValue(Object value) {
+    if (value instanceof Map) {
+      final Map<Object, Object> copy = new LinkedHashMap<>();
+      ((Map<?, ?>) value).forEach((key, entry) -> copy.put(key, copyValue(entry)));
+      return copy;
+    } else if (value instanceof List) {
+      final List<Object> copy = new ArrayList<>(((List<?>) value).size());
+      ((List<?>) value).forEach(entry -> copy.add(copyValue(entry)));
+      return copy;
+    } else {
+      // a string, number, boolean or null
+      return value;
+    }
+  }
+
+  public Kind getKind() {
+    return kind;
+  }
+
+  public boolean isEmpty() {
+    switch (kind) {
+      case EMPTY:
+        return true;
+      case RAW:
+        return bytes.length == 0;
+      case JSON:
+      case PROJECTION:
+        return false;
+      default:
+        return getText().isEmpty();
+    }
+  }
+
+  /**
+   * @return true if the body exceeds the size limit and only its beginning is kept
+   */
+  public boolean isTruncated() {
+    return truncated;
+  }
+
+  /**
+   * @return the parsed JSON body, or the selected variables of a projection
+   */
+  public Object getValue() {
+    return value;
+  }
+
+  /**
+   * @return the selected variables of a projection
+   */
+  @SuppressWarnings("unchecked")
+  public Map<String, Object> getVariables() {
+    return kind == Kind.PROJECTION ? (Map<String, Object>) value : Map.of();
+  }
+
+  /**
+   * @return the body as text - a parsed JSON body is serialized again
+   */
+  public String getText() {
+    if (text == null) {
+      if (bytes != null) {
+        text = new String(bytes, charset);
+      } else if (value != null) {
+        text = toJson(value);
+      } else {
+        text = "";
+      }
+    }
+    return text;
+  }
+
+  private static String toJson(Object value) {
+    try {
+      return JSON_WRITER.writeValueAsString(value);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Failed to serialize response body to JSON", e);
+    }
+  }
+
+  /**
+   * @return the body as JSON tree, or empty if it is not valid JSON
+   */
+  public Optional<JsonNode> getJson(ObjectMapper objectMapper) {
+    if (json == null) {
+      json = parseJson(objectMapper);
+    }
+    return json;
+  }
+
+  private Optional<JsonNode> parseJson(ObjectMapper objectMapper) {
+    if (isEmpty()) {
+      return Optional.empty();
+    }
+
+    try {
+      if (bytes != null) {
+        return Optional.ofNullable(objectMapper.readTree(bytes));
+      } else if (value != null) {
+        return Optional.ofNullable(objectMapper.valueToTree(value));
+      } else {
+        return Optional.ofNullable(objectMapper.readTree(text));
+      }
+    } catch (IOException | IllegalArgumentException e) {
+      return Optional.empty();
+    }
+  }
+}
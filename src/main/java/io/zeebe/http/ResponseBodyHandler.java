@@ -0,0 +1,138 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse.BodyHandler;
+import java.net.http.HttpResponse.BodySubscriber;
+import java.net.http.HttpResponse.BodySubscribers;
+import java.net.http.HttpResponse.ResponseInfo;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.function.IntPredicate;
+
+/**
+ * Reads the response body in the representation that is needed to process the response,
+ * depending on the status code and the content type of the response:
+ *
+ * <ul>
+ *   <li>failing status code: the raw bytes, to extract the error and build the error message
+ *   <li>completing status code: the text, the XML text or the JSON body parsed while streaming
+ *       - or only the values of the JSON body that are selected by the projection
+ *   <li>other status codes: nothing, the body is discarded
+ * </ul>
+ */
+public class ResponseBodyHandler implements BodyHandler<ResponseBody> {
+
+  private static final String CONTENT_TYPE = "Content-Type";
+  private static final String ACCEPT = "Accept";
+
+  private final HttpRequest request;
+  private final IntPredicate isFailingStatusCode;
+  private final IntPredicate isCompletingStatusCode;
+  private final ObjectMapper objectMapper;
+  private final ResponseSizeLimit sizeLimit;
+  private final Runnable onSizeExceeded;
+  private final ResponseProjection projection;
+
+  public ResponseBodyHandler(HttpRequest request, IntPredicate isFailingStatusCode,
+      IntPredicate isCompletingStatusCode, ObjectMapper objectMapper) {
+    this(request, isFailingStatusCode, isCompletingStatusCode, objectMapper,
+        ResponseSizeLimit.unlimited(), () -> {}, ResponseProjection.none());
+  }
+
+  /**
+   * @param sizeLimit the maximum size of the body that is read
+   * @param onSizeExceeded called if the body is aborted because it exceeds the limit
+   * @param projection the values of a JSON body that are read, instead of the whole body
+   */
+  public ResponseBodyHandler(HttpRequest request, IntPredicate isFailingStatusCode,
+      IntPredicate isCompletingStatusCode, ObjectMapper objectMapper,
+      ResponseSizeLimit sizeLimit, Runnable onSizeExceeded, ResponseProjection projection) {
+    this.request = request;
+    this.isFailingStatusCode = isFailingStatusCode;
+    this.isCompletingStatusCode = isCompletingStatusCode;
+    this.objectMapper = objectMapper;
+    this.sizeLimit = sizeLimit;
+    this.onSizeExceeded = onSizeExceeded;
+    this.projection = projection;
+  }
+
+  @Override
+  public BodySubscriber<ResponseBody> apply(ResponseInfo responseInfo) {
+    final int statusCode = responseInfo.statusCode();
+    final Charset charset = getCharset(responseInfo.headers());
+    final boolean isFailure = isFailingStatusCode.test(statusCode);
+    final BodySubscriber<ResponseBody> subscriber =
+        createSubscriber(responseInfo, statusCode, charset);
+
+    if (!sizeLimit.isLimited() || (!isFailure && !isCompletingStatusCode.test(statusCode))) {
+      // a discarded body is not limited
+      return subscriber;
+    }
+
+    final long contentLength = responseInfo.headers().firstValueAsLong("Content-Length")
+        .orElse(-1);
+    return new LimitedBodySubscriber(subscriber, sizeLimit, contentLength, charset, isFailure,
+        onSizeExceeded);
+  }
+
+  private BodySubscriber<ResponseBody> createSubscriber(ResponseInfo responseInfo,
+      int statusCode, Charset charset) {
+    if (isFailingStatusCode.test(statusCode)) {
+      return BodySubscribers.mapping(BodySubscribers.ofByteArray(),
+          bytes -> ResponseBody.ofBytes(bytes, charset));
+
+    } else if (!isCompletingStatusCode.test(statusCode)) {
+      return BodySubscribers.replacing(ResponseBody.empty());
+
+    } else if (isAcceptedContentType(responseInfo, "text/plain")) {
+      return BodySubscribers.mapping(BodySubscribers.ofString(charset), ResponseBody::ofText);
+
+    } else if (isAcceptedContentType(responseInfo, "application/xml")) {
+      return BodySubscribers.mapping(BodySubscribers.ofString(charset), ResponseBody::ofXml);
+
+    } else {
+      return new JsonBodySubscriber(objectMapper, projection);
+    }
+  }
+
+  private boolean isAcceptedContentType(ResponseInfo responseInfo, String contentType) {
+    return request.headers().allValues(ACCEPT).contains(contentType)
+        && responseInfo.headers().allValues(CONTENT_TYPE).contains(contentType);
+  }
+
+  private static Charset getCharset(HttpHeaders headers) {
+    return headers.firstValue(CONTENT_TYPE)
+        .flatMap(contentType -> {
+          final int charsetIndex = contentType.toLowerCase().indexOf("charset=");
+          if (charsetIndex < 0) {
+            return Optional.empty();
+          }
+          final String charsetName = contentType.substring(charsetIndex + "charset=".length())
+              .split(";", 2)[0].trim().replace("\"", "");
+          try {
+            return Optional.of(Charset.forName(charsetName));
+          } catch (IllegalArgumentException e) {
+            return Optional.empty();
+          }
+        })
+        .orElse(StandardCharsets.UTF_8);
+  }
+}
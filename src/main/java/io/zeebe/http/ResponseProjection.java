@@ -0,0 +1,158 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Selects the parts of a JSON response body that are set as variables, instead of the whole
+ * body. Each selection maps a JSON pointer to the name of a variable.
+ */
+public class ResponseProjection {
+
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  private static final ResponseProjection NONE = new ResponseProjection(Map.of());
+
+  // variable name -> pointer
+  private final Map<String, JsonPointer> selections;
+  // pointer -> variable names
+  private final Map<String, List<String>> namesByPointer = new HashMap<>();
+  private final int maxDepth;
+
+  private ResponseProjection(Map<String, JsonPointer> selections) {
+    this.selections = selections;
+
+    int depth = 0;
+    for (Map.Entry<String, JsonPointer> selection : selections.entrySet()) {
+      namesByPointer
+          .computeIfAbsent(selection.getValue().toString(), p -> new ArrayList<>())
+          .add(selection.getKey());
+      depth = Math.max(depth, getDepth(selection.getValue()));
+    }
+    this.maxDepth = depth;
+  }
+
+  public static ResponseProjection none() {
+    return NONE;
+  }
+
+  /**
+   * @param resultPath the pointer to the value that is set as variable "body", or null
+   * @param resultVariables the pointers to the values that are set as variables, by name
+   */
+  public static ResponseProjection of(JsonPointer resultPath,
+      Map<String, JsonPointer> resultVariables) {
+    if (resultPath == null && resultVariables.isEmpty()) {
+      return NONE;
+    }
+
+    final Map<String, JsonPointer> selections = new LinkedHashMap<>(resultVariables);
+    if (resultPath != null) {
+      selections.put("body", resultPath);
+    }
+    return new ResponseProjection(selections);
+  }
+
+  /**
+   * @param path a JSON pointer (e.g. "/order/id") or a path in dot notation (e.g. "order.id")
+   */
+  public static JsonPointer parsePath(String path) {
+    if (path.isEmpty() || path.startsWith("/")) {
+      return JsonPointer.compile(path);
+    } else {
+      return JsonPointer.compile("/" + path.replace('.', '/'));
+    }
+  }
+
+  /**
+   * @param resultVariables a JSON object that maps the variable names to the paths, e.g.
+   *     <code>{"orderId": "/order/id"}</code>
+   */
+  public static Map<String, JsonPointer> parseVariables(String resultVariables) {
+    try {
+      final Map<String, String> paths =
+          OBJECT_MAPPER.readValue(resultVariables, new TypeReference<Map<String, String>>() {});
+
+      final Map<String, JsonPointer> pointers = new LinkedHashMap<>();
+      paths.forEach((name, path) -> pointers.put(name, parsePath(path)));
+      return Collections.unmodifiableMap(pointers);
+
+    } catch (IOException | IllegalArgumentException e) {
+      throw new RuntimeException("Invalid result variables: " + resultVariables
+          + " (expected a JSON object that maps variable names to paths)");
+    }
+  }
+
+  private static int getDepth(JsonPointer pointer) {
+    int depth = 0;
+    for (JsonPointer p = pointer; !p.matches(); p = p.tail()) {
+      depth += 1;
+    }
+    return depth;
+  }
+
+  public boolean isEmpty() {
+    return selections.isEmpty();
+  }
+
+  /**
+   * @return the number of segments of the longest pointer - values nested deeper are never
+   * selected
+   */
+  public int getMaxDepth() {
+    return maxDepth;
+  }
+
+  /**
+   * @param pointer the pointer to a value of the body
+   * @return the names of the variables that the value is set as
+   */
+  public List<String> select(String pointer) {
+    return namesByPointer.getOrDefault(pointer, List.of());
+  }
+
+  public int size() {
+    return selections.size();
+  }
+
+  /**
+   * Select the values from a body that is already read, e.g. an XML body that is converted to
+   * JSON. A value that is not present is not set.
+   */
+  public Map<String, Object> apply(Object body, ObjectMapper objectMapper) {
+    final JsonNode tree = objectMapper.valueToTree(body);
+
+    final Map<String, Object> variables = new HashMap<>();
+    selections.forEach((name, pointer) -> {
+      final JsonNode value = tree.at(pointer);
+      if (!value.isMissingNode()) {
+        variables.put(name, objectMapper.convertValue(value, Object.class));
+      }
+    });
+    return variables;
+  }
+}
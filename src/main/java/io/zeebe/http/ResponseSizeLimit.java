@@ -0,0 +1,99 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http;
+
+import java.util.Locale;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * The maximum size of a response body and what happens if a response exceeds it. The body is not
+ * read further than the limit, i.e. the response is aborted as soon as the limit is exceeded.
+ */
+public class ResponseSizeLimit {
+
+  public enum Action {
+    /** fail the job */
+    FAIL,
+    /** keep the body up to the limit as text */
+    TRUNCATE,
+    /** discard the body and keep only the status code */
+    DROP
+  }
+
+  private static final ResponseSizeLimit UNLIMITED = new ResponseSizeLimit(-1, Action.FAIL);
+
+  private final long maxSize;
+  private final Action action;
+
+  private ResponseSizeLimit(long maxSize, Action action) {
+    this.maxSize = maxSize;
+    this.action = action;
+  }
+
+  public static ResponseSizeLimit unlimited() {
+    return UNLIMITED;
+  }
+
+  /**
+   * @param maxSize the maximum size in bytes, or a negative value for no limit
+   */
+  public static ResponseSizeLimit of(long maxSize, Action action) {
+    return maxSize < 0 ? UNLIMITED : new ResponseSizeLimit(maxSize, action);
+  }
+
+  /**
+   * @param size the maximum size, e.g. "1024", "512KB" or "10MB" - empty for no limit
+   */
+  public static long parseSize(String size) {
+    if (size == null || size.isBlank()) {
+      return -1;
+    }
+    try {
+      return DataSize.parse(size.trim()).toBytes();
+    } catch (IllegalArgumentException e) {
+      throw new RuntimeException("Invalid response size: " + size);
+    }
+  }
+
+  /**
+   * @param action one of "fail", "truncate" or "drop" (ignoring the case)
+   */
+  public static Action parseAction(String action) {
+    try {
+      return Action.valueOf(action.trim().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new RuntimeException(
+          "Invalid response size exceeded action: " + action + " (allowed: fail, truncate, drop)");
+    }
+  }
+
+  public boolean isLimited() {
+    return maxSize >= 0;
+  }
+
+  public long getMaxSize() {
+    return maxSize;
+  }
+
+  public Action getAction() {
+    return action;
+  }
+
+  @Override
+  public String toString() {
+    return isLimited() ? maxSize + " bytes (" + action + ")" : "unlimited";
+  }
+}
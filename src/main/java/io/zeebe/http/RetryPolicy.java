@@ -0,0 +1,160 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http;
+
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Retries a request within the worker if it failed with a transient failure (a timeout or a
+ * connection failure) or a retryable status code (e.g. 429 or 503). The delay between the
+ * attempts grows exponentially with jitter, but a Retry-After header of the response is
+ * honored.
+ *
+ * <p>A failed POST or PATCH request may have been processed by the host already, e.g. if the
+ * response timed out. So these requests are only retried on a failure if it is enabled, and only
+ * if the connection could not be established.
+ *
+ * <p>If the request still fails, the job is failed with the retry backoff - so the broker
+ * doesn't activate it again right away.
+ */
+public class RetryPolicy {
+
+  /**
+   * The failures of a request that are retried.
+   */
+  public enum Failures {
+    /** timeouts and connection failures */
+    TRANSIENT,
+    /** only failures to establish the connection, before the request is sent */
+    CONNECT,
+    NONE
+  }
+
+  private static final RetryPolicy NONE =
+      new RetryPolicy(0, Duration.ZERO, Duration.ZERO, null, null, Failures.NONE);
+
+  private final int maxRetries;
+  private final Duration delay;
+  private final Duration maxDelay;
+  private final StatusCodeMatcher retryStatusCodes;
+  private final Duration jobRetryBackoff;
+  private final Failures failures;
+
+  /**
+   * @param maxRetries the number of retries within the worker
+   * @param delay the delay before the first retry, doubled for each further retry
+   * @param maxDelay the maximum delay before a retry
+   * @param retryStatusCodes the status codes that are retried
+   * @param jobRetryBackoff the retry backoff of the job if it fails, or null
+   * @param failures the failures of the request that are retried
+   */
+  public RetryPolicy(int maxRetries, Duration delay, Duration maxDelay,
+      StatusCodeMatcher retryStatusCodes, Duration jobRetryBackoff, Failures failures) {
+    this.maxRetries = maxRetries;
+    this.delay = delay;
+    this.maxDelay = maxDelay;
+    this.retryStatusCodes = retryStatusCodes;
+    this.jobRetryBackoff = jobRetryBackoff;
+    this.failures = failures;
+  }
+
+  public static RetryPolicy none() {
+    return NONE;
+  }
+
+  /**
+   * @param retries the number of retries that are done already
+   * @return true if the request should be sent again
+   */
+  public boolean shouldRetry(int retries, HttpResponse<?> response, Throwable failure) {
+    if (retries >= maxRetries) {
+      return false;
+    } else if (failure != null) {
+      switch (failures) {
+        case TRANSIENT:
+          return TransientFailures.isTransient(failure);
+        case CONNECT:
+          return TransientFailures.isConnectFailure(failure);
+        default:
+          return false;
+      }
+    } else if (!retryStatusCodes.matches(response.statusCode())) {
+      return false;
+    }
+
+    // wait for the host as long as it asks for, or give the job back if that takes too long
+    return getRetryAfter(response)
+        .map(retryAfter -> retryAfter.compareTo(maxDelay) <= 0)
+        .orElse(true);
+  }
+
+  /**
+   * @param retries the number of retries that are done already
+   * @return the delay before the next retry
+   */
+  public Duration getDelay(int retries, HttpResponse<?> response) {
+    final Optional<Duration> retryAfter =
+        Optional.ofNullable(response).flatMap(RetryPolicy::getRetryAfter);
+    if (retryAfter.isPresent()) {
+      return retryAfter.get();
+    }
+
+    final long maxDelayMillis = maxDelay.toMillis();
+    final long exponentialDelay = delay.toMillis() << Math.min(retries, 30);
+    final long cappedDelay = Math.min(maxDelayMillis, Math.max(0, exponentialDelay));
+
+    // equal jitter: at least the half of the delay
+    final long jitter = ThreadLocalRandom.current().nextLong(cappedDelay / 2 + 1);
+    return Duration.ofMillis(cappedDelay / 2 + jitter);
+  }
+
+  /**
+   * @param response the last response, or null if the request failed
+   * @return the retry backoff of the job if it fails - the Retry-After header of the response
+   * takes precedence over the configured backoff
+   */
+  public Optional<Duration> getJobRetryBackoff(HttpResponse<?> response) {
+    return Optional.ofNullable(response)
+        .flatMap(RetryPolicy::getRetryAfter)
+        .or(() -> Optional.ofNullable(jobRetryBackoff));
+  }
+
+  /**
+   * @return the value of the Retry-After header, given in seconds or as HTTP date
+   */
+  static Optional<Duration> getRetryAfter(HttpResponse<?> response) {
+    return response.headers().firstValue("Retry-After").flatMap(value -> {
+      try {
+        return Optional.of(Duration.ofSeconds(Math.max(0, Long.parseLong(value.trim()))));
+      } catch (NumberFormatException e) {
+        try {
+          final ZonedDateTime date =
+              ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+          final Duration untilDate = Duration.between(ZonedDateTime.now(), date);
+          return Optional.of(untilDate.isNegative() ? Duration.ZERO : untilDate);
+        } catch (DateTimeParseException dateException) {
+          return Optional.empty();
+        }
+      }
+    });
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http;
+
+/**
+ * Matches HTTP status codes against a pattern like "2xx, 404". The pattern is evaluated once
+ * for all common status codes, so matching a response is a simple lookup.
+ */
+public class StatusCodeMatcher {
+
+  private static final int MIN_STATUS_CODE = 100;
+  private static final int MAX_STATUS_CODE = 599;
+
+  private final String pattern;
+  private final boolean[] matchingStatusCodes;
+
+  private StatusCodeMatcher(String pattern) {
+    this.pattern = pattern;
+
+    matchingStatusCodes = new boolean[MAX_STATUS_CODE - MIN_STATUS_CODE + 1];
+    for (int statusCode = MIN_STATUS_CODE; statusCode <= MAX_STATUS_CODE; statusCode++) {
+      matchingStatusCodes[statusCode - MIN_STATUS_CODE] = checkIfCodeMatches(statusCode);
+    }
+  }
+
+  public static StatusCodeMatcher parse(String pattern) {
+    return new StatusCodeMatcher(pattern);
+  }
+
+  public boolean matches(int statusCode) {
+    if (statusCode < MIN_STATUS_CODE || statusCode > MAX_STATUS_CODE) {
+      return checkIfCodeMatches(statusCode);
+    }
+    return matchingStatusCodes[statusCode - MIN_STATUS_CODE];
+  }
+
+  public String getPattern() {
+    return pattern;
+  }
+
+  private boolean checkIfCodeMatches(int code) {
+    final String statusCode = String.valueOf(code);
+    return pattern.contains(statusCode)
+        || (statusCode.startsWith("1") && pattern.contains("1xx"))
+        || (statusCode.startsWith("2") && pattern.contains("2xx"))
+        || (statusCode.startsWith("3") && pattern.contains("3xx"))
+        || (statusCode.startsWith("4") && pattern.contains("4xx"))
+        || (statusCode.startsWith("5") && pattern.contains("5xx"));
+  }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.http.HttpConnectTimeoutException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Classifies the failures of HTTP requests.
+ */
+public final class TransientFailures {
+
+  private TransientFailures() {}
+
+  /**
+   * @return true if the request failed with a timeout or a connection failure - but not e.g.
+   * because the response body can't be parsed
+   */
+  public static boolean isTransient(Throwable failure) {
+    final Throwable cause = unwrap(failure);
+    return cause instanceof TimeoutException || cause instanceof IOException;
+  }
+
+  /**
+   * @return true if the connection could not be established (refused or timed out), so the
+   * request was not sent - but not e.g. if the response timed out
+   */
+  public static boolean isConnectFailure(Throwable failure) {
+    final Throwable cause = unwrap(failure);
+    return cause instanceof HttpConnectTimeoutException || cause instanceof ConnectException;
+  }
+
+  /**
+   * @return true if the status code indicates that the server can't handle the request now
+   */
+  public static boolean isServerError(int statusCode) {
+    return statusCode >= 500;
+  }
+
+  public static Throwable unwrap(Throwable failure) {
+    return failure instanceof CompletionException && failure.getCause() != null
+        ? failure.getCause() : failure;
+  }
+}
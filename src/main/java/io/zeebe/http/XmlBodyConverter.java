@@ -0,0 +1,304 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.json.JSONObject;
+import org.json.XML;
+
+/**
+ * Converts an XML body into the same maps, lists and values as {@link XML#toJSONObject(String)}
+ * followed by parsing its JSON string with Jackson - but in one pass with a StAX reader, without
+ * the intermediate JSON object and string:
+ *
+ * <ul>
+ *   <li>an element becomes a key of its parent, repeated elements become a list
+ *   <li>the attributes of an element become keys, the text of an element with attributes or
+ *       child elements becomes the key {@code content}
+ *   <li>an element with only text becomes its value, an empty element becomes {@code ""}
+ *   <li>the text is trimmed and converted to a boolean, {@code null} or a number if possible -
+ *       the text of a CDATA section is kept as it is
+ *   <li>namespace prefixes are kept as part of the names, namespace declarations are attributes
+ * </ul>
+ *
+ * <p>If the body is not well-formed XML, it is converted by org.json, which accepts more.
+ *
+ * <p>The body is converted after it is received completely, since the fallback needs the whole
+ * text. Its size is limited while it is received, by the maximum size of the response body.
+ */
+public class XmlBodyConverter {
+
+  private static final String CONTENT = "content";
+  // the same limit as org.json
+  private static final int MAX_NESTING_DEPTH = 512;
+  private static final String REPORT_CDATA_EVENT =
+      "http://java.sun.com/xml/stream/properties/report-cdata-event";
+
+  private final XMLInputFactory inputFactory;
+  private final ObjectMapper objectMapper;
+
+  public XmlBodyConverter(ObjectMapper objectMapper) {
+    this.objectMapper = objectMapper;
+
+    // the JDK's implementation, to report CDATA sections separately
+    inputFactory = XMLInputFactory.newDefaultFactory();
+    inputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+    inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    inputFactory.setProperty(REPORT_CDATA_EVENT, true);
+  }
+
+  /**
+   * @return the body as map of its root element
+   * @throws IllegalArgumentException if the elements are nested too deeply
+   */
+  public Map<String, Object> convert(String xml) throws IOException {
+    try {
+      return read(new StringReader(xml));
+    } catch (XMLStreamException e) {
+      return convertWithOrgJson(xml);
+    }
+  }
+
+  /**
+   * The previous conversion: org.json builds a JSON object, that is serialized and parsed again.
+   */
+  @SuppressWarnings("unchecked")
+  Map<String, Object> convertWithOrgJson(String xml) throws IOException {
+    final JSONObject json = XML.toJSONObject(xml);
+    return objectMapper.readValue(json.toString(), Map.class);
+  }
+
+  private Map<String, Object> read(Reader xml) throws XMLStreamException {
+    final XMLStreamReader reader = inputFactory.createXMLStreamReader(xml);
+    try {
+      final Map<String, Object> root = new LinkedHashMap<>();
+      final Deque<Element> elements = new ArrayDeque<>();
+      // the text since the last tag, comment or CDATA section
+      final StringBuilder text = new StringBuilder();
+      final StringBuilder cdata = new StringBuilder();
+
+      while (reader.hasNext()) {
+        final int event = reader.next();
+
+        if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.SPACE
+            || event == XMLStreamConstants.ENTITY_REFERENCE) {
+          addCdata(elements, cdata);
+          if (!elements.isEmpty()) {
+            text.append(reader.getText());
+          }
+          continue;
+        } else if (event == XMLStreamConstants.CDATA) {
+          addText(elements, text);
+          if (!elements.isEmpty()) {
+            cdata.append(reader.getText());
+          }
+          continue;
+        }
+
+        addText(elements, text);
+        addCdata(elements, cdata);
+
+        if (event == XMLStreamConstants.START_ELEMENT) {
+          if (elements.size() >= MAX_NESTING_DEPTH) {
+            throw new IllegalArgumentException(
+                "Maximum nesting depth of " + MAX_NESTING_DEPTH + " reached");
+          }
+          elements.push(new Element(reader));
+        } else if (event == XMLStreamConstants.END_ELEMENT) {
+          final Element element = elements.pop();
+          final Map<String, Object> parent =
+              elements.isEmpty() ? root : elements.peek().values;
+          accumulate(parent, element.name, element.getValue());
+        }
+      }
+      return root;
+    } finally {
+      reader.close();
+    }
+  }
+
+  private static void addText(Deque<Element> elements, StringBuilder text) {
+    if (text.length() > 0) {
+      final String value = text.toString().trim();
+      if (!value.isEmpty()) {
+        accumulate(elements.peek().values, CONTENT, toValue(value));
+      }
+      text.setLength(0);
+    }
+  }
+
+  private static void addCdata(Deque<Element> elements, StringBuilder cdata) {
+    if (cdata.length() > 0) {
+      accumulate(elements.peek().values, CONTENT, cdata.toString());
+      cdata.setLength(0);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static void accumulate(Map<String, Object> values, String key, Object value) {
+    if (!values.containsKey(key)) {
+      // like org.json, a list (i.e. the text of an element split by a comment or CDATA section)
+      // is wrapped into another list
+      values.put(key, value instanceof List ? new ArrayList<>(List.of(value)) : value);
+      return;
+    }
+
+    final Object existing = values.get(key);
+    if (existing instanceof List) {
+      ((List<Object>) existing).add(value);
+    } else {
+      final List<Object> repeated = new ArrayList<>();
+      repeated.add(existing);
+      repeated.add(value);
+      values.put(key, repeated);
+    }
+  }
+
+  /**
+   * The value of a text or an attribute, like org.json converts it and Jackson reads it again.
+   */
+  static Object toValue(String text) {
+    if (text.isEmpty()) {
+      return text;
+    } else if (text.equalsIgnoreCase("true")) {
+      return Boolean.TRUE;
+    } else if (text.equalsIgnoreCase("false")) {
+      return Boolean.FALSE;
+    } else if (text.equalsIgnoreCase("null")) {
+      return null;
+    }
+
+    final char initial = text.charAt(0);
+    if ((initial >= '0' && initial <= '9') || initial == '-') {
+      try {
+        return toNumber(text);
+      } catch (NumberFormatException e) {
+        return text;
+      }
+    }
+    return text;
+  }
+
+  private static Object toNumber(String text) {
+    final char initial = text.charAt(0);
+    if (text.indexOf('.') > -1 || text.indexOf('e') > -1 || text.indexOf('E') > -1
+        || text.equals("-0")) {
+      String number;
+      try {
+        final BigDecimal decimal = new BigDecimal(text);
+        number = initial == '-' && BigDecimal.ZERO.compareTo(decimal) == 0
+            ? Double.toString(-0.0)
+            : decimal.toString();
+      } catch (NumberFormatException e) {
+        // e.g. a hexadecimal floating point number
+        final double value = Double.parseDouble(text);
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+          throw e;
+        }
+        number = Double.toString(value);
+      }
+      return parseJsonNumber(stripTrailingZeros(number));
+    }
+
+    // leading zeros are not a number
+    if (initial == '0' && text.length() > 1 && Character.isDigit(text.charAt(1))
+        || initial == '-' && text.length() > 2 && text.charAt(1) == '0'
+        && Character.isDigit(text.charAt(2))) {
+      throw new NumberFormatException(text);
+    }
+    return toInteger(new BigInteger(text));
+  }
+
+  /**
+   * org.json writes a decimal without its trailing zeros, e.g. {@code 2.50} as {@code 2.5} and
+   * {@code 2.0} as {@code 2}.
+   */
+  private static String stripTrailingZeros(String number) {
+    if (number.indexOf('.') > 0 && number.indexOf('e') < 0 && number.indexOf('E') < 0) {
+      int end = number.length();
+      while (number.charAt(end - 1) == '0') {
+        end -= 1;
+      }
+      if (number.charAt(end - 1) == '.') {
+        end -= 1;
+      }
+      return number.substring(0, end);
+    }
+    return number;
+  }
+
+  /**
+   * Jackson reads a number with a fraction or an exponent as double, otherwise as the smallest
+   * integer type.
+   */
+  private static Object parseJsonNumber(String number) {
+    if (number.indexOf('.') > -1 || number.indexOf('e') > -1 || number.indexOf('E') > -1) {
+      return Double.parseDouble(number);
+    }
+    return toInteger(new BigInteger(number));
+  }
+
+  private static Object toInteger(BigInteger integer) {
+    if (integer.bitLength() <= 31) {
+      return integer.intValue();
+    } else if (integer.bitLength() <= 63) {
+      return integer.longValue();
+    }
+    return integer;
+  }
+
+  private static final class Element {
+
+    private final String name;
+    private final Map<String, Object> values = new LinkedHashMap<>();
+
+    private Element(XMLStreamReader reader) {
+      name = reader.getLocalName();
+      for (int i = 0; i < reader.getAttributeCount(); i++) {
+        final String prefix = reader.getAttributePrefix(i);
+        final String attribute = prefix == null || prefix.isEmpty()
+            ? reader.getAttributeLocalName(i)
+            : prefix + ":" + reader.getAttributeLocalName(i);
+        accumulate(values, attribute, toValue(reader.getAttributeValue(i)));
+      }
+    }
+
+    private Object getValue() {
+      if (values.isEmpty()) {
+        return "";
+      } else if (values.size() == 1 && values.containsKey(CONTENT)) {
+        return values.get(CONTENT);
+      }
+      return values;
+    }
+  }
+}
@@ -19,9 +19,6 @@ import io.camunda.zeebe.client.api.response.ActivatedJob;
 import io.camunda.zeebe.client.api.worker.JobClient;
 import io.camunda.zeebe.spring.client.EnableZeebeClient;
 import io.camunda.zeebe.spring.client.annotation.ZeebeWorker;
-import java.io.IOException;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.TimeoutException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
@@ -31,18 +28,36 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 public class ZeebeHttpWorkerApplication {
 
   @Autowired
-  private HttpJobHandler jobHandler;
+  private JobDispatcher jobDispatcher;
 
   public static void main(String[] args) {
+    // the connection pool of the JDK HTTP client is configured by system properties, that are
+    // read once - so they must be set before the context creates the first client
+    setSystemPropertyFromEnvironment("jdk.httpclient.connectionPoolSize",
+        "HTTP_CLIENT_CONNECTION_POOL_SIZE");
+    setSystemPropertyFromEnvironment("jdk.httpclient.keepalive.timeout",
+        "HTTP_CLIENT_KEEP_ALIVE_TIMEOUT");
+
     SpringApplication.run(ZeebeHttpWorkerApplication.class, args);
   }
 
+  private static void setSystemPropertyFromEnvironment(String key, String environmentVariable) {
+    final String value = System.getenv(environmentVariable);
+    // a property given on the command line takes precedence
+    if (value != null && System.getProperty(key) == null) {
+      System.setProperty(key, value);
+    }
+  }
+
   // This code does not limit the variables resolves
-  // That means the worker always fetches all variables to support expressions/placeholders
+  // That means the worker fetches all variables by default to support expressions/placeholders
   // as a workaround until https://github.com/zeebe-io/zeebe/issues/3417 is there
+  // One worker handles the jobs of all elements, so the fetched variables can't be limited per
+  // element - they can only be listed for all elements (see FetchVariablesCustomizer), but only
+  // the variables that are used by the element are deserialized (see RequestPlan)
   @ZeebeWorker
   public void handleFooJob(final JobClient client, final ActivatedJob job)
-      throws IOException, InterruptedException, ExecutionException, TimeoutException {
-    jobHandler.handle(client, job);
+      throws InterruptedException {
+    jobDispatcher.dispatch(client, job);
   }
 }
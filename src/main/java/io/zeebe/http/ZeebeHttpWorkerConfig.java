@@ -1,8 +1,17 @@
 package io.zeebe.http;
 
+import java.net.http.HttpClient;
 import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
@@ -32,6 +41,60 @@ public class ZeebeHttpWorkerConfig {
   @Value( "${LOCAL_ENV_VARS_REMOVE_PREFIX:true}")
   private Boolean removeLocalEnvironmentVariablesPrefix;
 
+  @Value( "${HTTP_MAX_IN_FLIGHT_REQUESTS:${zeebe.client.worker.maxJobsActive:32}}")
+  private Integer maxInFlightRequests;
+
+  @Value( "${WORKER_MAX_WAITING_JOBS:${zeebe.client.worker.maxJobsActive:32}}")
+  private Integer maxWaitingJobs;
+
+  @Value( "${WORKER_VIRTUAL_THREADS:false}")
+  private Boolean virtualThreadsEnabled;
+
+  @Value( "${WORKER_FETCH_VARIABLES:}")
+  private String fetchVariables;
+
+  @Value( "${PLACEHOLDER_TEMPLATE_CACHE_SIZE:1000}")
+  private Long placeholderTemplateCacheSize;
+
+  @Value( "${REQUEST_PLAN_CACHE_SIZE:1000}")
+  private Long requestPlanCacheSize;
+
+  @Value( "${HTTP_MAX_RESPONSE_SIZE:10MB}")
+  private String maxResponseSize;
+
+  @Value( "${HTTP_RESPONSE_SIZE_EXCEEDED:fail}")
+  private String responseSizeExceededAction;
+
+  @Value( "${HTTP_CLIENT_VERSION:HTTP_2}")
+  private HttpClient.Version httpClientVersion;
+
+  @Value( "${HTTP_CLIENT_CONNECT_TIMEOUT:60000}")
+  private Long httpClientConnectTimeoutMs;
+
+  @Value( "${HTTP_CLIENT_THREADS:0}")
+  private Integer httpClientThreads;
+
+  @Value( "${HTTP_CLIENT_FOLLOW_REDIRECTS:NEVER}")
+  private HttpClient.Redirect httpClientFollowRedirects;
+
+  @Value( "${HTTP_REQUEST_TIMEOUT:60000}")
+  private Long requestTimeoutMs;
+
+  @Value( "${HTTP_TOTAL_TIMEOUT:60000}")
+  private Long totalTimeoutMs;
+
+  @Value( "${HTTP_COALESCE_REQUESTS:false}")
+  private Boolean coalesceRequests;
+
+  @Value( "${WORKER_MAX_OUTSTANDING_COMMANDS:${zeebe.client.worker.maxJobsActive:32}}")
+  private Integer maxOutstandingCommands;
+
+  @Value( "${WORKER_COMMAND_RETRIES:3}")
+  private Integer commandRetries;
+
+  @Value( "${WORKER_COMMAND_RETRY_DELAY:100}")
+  private Long commandRetryDelayMs;
+
   public boolean isEnvironmentVariableUrlSet() {
     return (getEnvironmentVariablesUrl() != null && getEnvironmentVariablesUrl().length() > 0);
   }
@@ -74,4 +137,162 @@ public class ZeebeHttpWorkerConfig {
 
   public Boolean removeLocalEnvironmentVariablesPrefix() { return removeLocalEnvironmentVariablesPrefix; }
 
+  /**
+   * @return the maximum number of HTTP requests the worker has in flight at the same time, by
+   * default the maximum number of activated jobs.
+   */
+  public int getMaxInFlightRequests() {
+    return maxInFlightRequests;
+  }
+
+  /**
+   * @return the maximum number of activated jobs that wait for an in-flight request before the
+   * threads of the job worker wait, too - by default the maximum number of activated jobs.
+   */
+  public int getMaxWaitingJobs() {
+    return maxWaitingJobs;
+  }
+
+  public boolean isVirtualThreadsEnabled() {
+    return virtualThreadsEnabled;
+  }
+
+  /**
+   * @return the names of the variables that are fetched in addition to the parameters, or empty
+   * if all variables are fetched
+   */
+  public List<String> getFetchVariables() {
+    return Arrays.stream(fetchVariables.split(","))
+        .map(String::trim)
+        .filter(name -> !name.isEmpty())
+        .collect(Collectors.toList());
+  }
+
+  public long getPlaceholderTemplateCacheSize() {
+    return placeholderTemplateCacheSize;
+  }
+
+  public long getRequestPlanCacheSize() {
+    return requestPlanCacheSize;
+  }
+
+  /**
+   * @return the default maximum size of a response body (default: "10MB"), or empty for no
+   *     limit
+   */
+  public String getMaxResponseSize() {
+    return maxResponseSize;
+  }
+
+  /**
+   * @return what happens by default if a response body exceeds the maximum size: fail, truncate
+   * or drop
+   */
+  public String getResponseSizeExceededAction() {
+    return responseSizeExceededAction;
+  }
+
+  public HttpClient.Version getHttpClientVersion() {
+    return httpClientVersion;
+  }
+
+  public Duration getHttpClientConnectTimeout() {
+    return Duration.ofMillis( httpClientConnectTimeoutMs );
+  }
+
+  /**
+   * @return the number of threads of the HTTP client, or 0 to create the threads as needed
+   */
+  public int getHttpClientThreads() {
+    return httpClientThreads;
+  }
+
+  public HttpClient.Redirect getHttpClientFollowRedirects() {
+    return httpClientFollowRedirects;
+  }
+
+  /**
+   * @return the default timeout of a request until the response headers are received
+   */
+  public Duration getRequestTimeout() {
+    return Duration.ofMillis( requestTimeoutMs );
+  }
+
+  /**
+   * @return the default timeout of a job's HTTP call, including retries and reading the body
+   */
+  public Duration getTotalTimeout() {
+    return Duration.ofMillis( totalTimeoutMs );
+  }
+
+  /**
+   * @return whether concurrent jobs that send the same GET request share one request by default
+   */
+  public boolean isCoalesceRequests() {
+    return coalesceRequests;
+  }
+
+  /**
+   * @return the maximum number of job commands that are sent but not acknowledged yet
+   */
+  public int getMaxOutstandingCommands() {
+    return maxOutstandingCommands;
+  }
+
+  public int getCommandRetries() {
+    return commandRetries;
+  }
+
+  /**
+   * @return the delay before a job command is sent again, doubled with each retry
+   */
+  public Duration getCommandRetryDelay() {
+    return Duration.ofMillis( commandRetryDelayMs );
+  }
+
+  /**
+   * The HTTP client that is shared by the job handler and the remote environment variables. The
+   * connection pool is configured by system properties of the JDK (see
+   * {@link ZeebeHttpWorkerApplication#main(String[])}).
+   */
+  @Bean
+  public HttpClient httpClient() {
+    return newHttpClient(getHttpClientConnectTimeout());
+  }
+
+  /**
+   * A dedicated executor that is shared by all HTTP clients: the client of the configured connect
+   * timeout, and the clients of other connect timeouts that are cached by {@link HttpClients}. So
+   * the clients don't create a thread pool each. It creates the threads as needed - unless the
+   * number of threads is configured.
+   */
+  @Bean(destroyMethod = "shutdown")
+  public ExecutorService httpClientExecutor() {
+    final AtomicInteger threadCount = new AtomicInteger();
+    final ThreadFactory threadFactory = runnable -> {
+      final Thread thread = new Thread(runnable, "http-client-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+
+    if (getHttpClientThreads() > 0) {
+      return Executors.newFixedThreadPool(getHttpClientThreads(), threadFactory);
+    } else {
+      return Executors.newCachedThreadPool(threadFactory);
+    }
+  }
+
+  /**
+   * @return a new HTTP client with the configured settings, but the given connect timeout - the
+   * connect timeout can only be set per client
+   */
+  public HttpClient newHttpClient(Duration connectTimeout) {
+    return HttpClient.newBuilder()
+        .version(getHttpClientVersion())
+        .connectTimeout(connectTimeout)
+        .followRedirects(getHttpClientFollowRedirects())
+        .executor(httpClientExecutor())
+        .build();
+  }
+
 }
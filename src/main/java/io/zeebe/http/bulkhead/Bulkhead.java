@@ -0,0 +1,134 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http.bulkhead;
+
+import io.zeebe.http.RejectedRequestException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Limits the number of concurrent requests to a host. If the limit is reached, a request waits
+ * in a queue until a running request is finished - without blocking a thread. A request is
+ * rejected if the queue is full or it waited too long. A request that is cancelled while it waits
+ * leaves the queue, so it doesn't take a permit that nobody waits for.
+ */
+public class Bulkhead {
+
+  private final String name;
+  private final int maxConcurrentRequests;
+  private final int maxQueueDepth;
+  private final Duration maxWait;
+  private final Supplier<RejectedRequestException> rejection;
+
+  private final Deque<CompletableFuture<Void>> queue = new ArrayDeque<>();
+  private int activeRequests = 0;
+
+  /**
+   * @param rejection creates the failure of a rejected request
+   */
+  public Bulkhead(String name, int maxConcurrentRequests, int maxQueueDepth, Duration maxWait,
+      Supplier<RejectedRequestException> rejection) {
+    this.name = name;
+    this.maxConcurrentRequests = maxConcurrentRequests;
+    this.maxQueueDepth = maxQueueDepth;
+    this.maxWait = maxWait;
+    this.rejection = rejection;
+  }
+
+  /**
+   * Run the request when the limit allows it. The returned future fails with a {@link
+   * RejectedRequestException} if the request is rejected.
+   *
+   * @param cancellation completed when the request is not needed anymore, e.g. on a timeout
+   */
+  public <T> CompletableFuture<T> execute(CompletableFuture<Void> cancellation,
+      Supplier<CompletableFuture<T>> request) {
+    return acquire(cancellation).thenCompose(ignored -> {
+      final CompletableFuture<T> result;
+      try {
+        result = request.get();
+      } catch (RuntimeException e) {
+        release();
+        throw e;
+      }
+      return result.whenComplete((r, failure) -> release());
+    });
+  }
+
+  private CompletableFuture<Void> acquire(CompletableFuture<Void> cancellation) {
+    final CompletableFuture<Void> waiting = new CompletableFuture<>();
+    synchronized (this) {
+      if (activeRequests < maxConcurrentRequests) {
+        activeRequests += 1;
+        return CompletableFuture.completedFuture(null);
+      } else if (queue.size() >= maxQueueDepth) {
+        return CompletableFuture.failedFuture(rejection.get());
+      }
+      queue.add(waiting);
+    }
+
+    // a request that got the permit already is aborted by its own cancellation
+    cancellation.thenRun(() -> waiting.cancel(false));
+
+    return waiting
+        .orTimeout(maxWait.toMillis(), TimeUnit.MILLISECONDS)
+        .exceptionallyCompose(failure -> {
+          synchronized (this) {
+            queue.remove(waiting);
+          }
+          return CompletableFuture.failedFuture(
+              failure instanceof CancellationException ? failure : rejection.get());
+        });
+  }
+
+  private void release() {
+    while (true) {
+      final CompletableFuture<Void> next;
+      synchronized (this) {
+        next = queue.poll();
+        if (next == null) {
+          activeRequests -= 1;
+          return;
+        }
+      }
+      // hand over the permit, unless the request stopped waiting already
+      if (next.complete(null)) {
+        return;
+      }
+    }
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public synchronized int getActiveRequests() {
+    return activeRequests;
+  }
+
+  public synchronized int getQueuedRequests() {
+    return queue.size();
+  }
+
+  public int getMaxConcurrentRequests() {
+    return maxConcurrentRequests;
+  }
+}
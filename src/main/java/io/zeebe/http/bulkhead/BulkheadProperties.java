@@ -0,0 +1,167 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http.bulkhead;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.stereotype.Component;
+
+/**
+ * Limits the concurrent requests per host, so that a slow host can't take all in-flight requests
+ * of the worker. For example:
+ *
+ * <pre>
+ * HTTP_BULKHEAD_MAX_CONCURRENT_REQUESTS=16
+ * HTTP_BULKHEAD_MAX_QUEUE_DEPTH=32
+ * HTTP_BULKHEAD_HOSTS=[{"prefix": "https://slow.example.com", "maxConcurrentRequests": 4}]
+ * </pre>
+ *
+ * <p>The default limits apply to each host on its own, the limits of a prefix apply to all
+ * requests whose URL starts with the prefix.
+ */
+@Component
+public class BulkheadProperties {
+
+  public enum Rejection {
+    /** fail the job with decremented retries */
+    FAIL,
+    /** fail the job with the same retries, i.e. give it back to try again later */
+    YIELD
+  }
+
+  // 0 means no limit
+  @Value( "${HTTP_BULKHEAD_MAX_CONCURRENT_REQUESTS:0}")
+  private int maxConcurrentRequests;
+
+  @Value( "${HTTP_BULKHEAD_MAX_QUEUE_DEPTH:0}")
+  private int maxQueueDepth;
+
+  @Value( "${HTTP_BULKHEAD_MAX_WAIT:1s}")
+  private Duration maxWait;
+
+  @Value( "${HTTP_BULKHEAD_REJECTION:yield}")
+  private Rejection rejection;
+
+  @Value( "${HTTP_BULKHEAD_RETRY_BACKOFF:5s}")
+  private Duration retryBackoff;
+
+  // a JSON array of the limits per host
+  @Value( "${HTTP_BULKHEAD_HOSTS:[]}")
+  private String hostsJson;
+
+  private List<Host> hosts;
+
+  @PostConstruct
+  public void init() {
+    hosts = parseHosts(hostsJson);
+  }
+
+  public int getMaxConcurrentRequests() {
+    return maxConcurrentRequests;
+  }
+
+  public int getMaxQueueDepth() {
+    return maxQueueDepth;
+  }
+
+  public Duration getMaxWait() {
+    return maxWait;
+  }
+
+  public Rejection getRejection() {
+    return rejection;
+  }
+
+  public Duration getRetryBackoff() {
+    return retryBackoff;
+  }
+
+  public List<Host> getHosts() {
+    return hosts;
+  }
+
+  /**
+   * @param json a JSON array of objects with the prefix and the limits of a host, e.g. {@code
+   *     [{"prefix": "https://slow.example.com", "maxConcurrentRequests": 4, "maxWait": "500ms"}]}
+   */
+  static List<Host> parseHosts(String json) {
+    final JsonNode nodes;
+    try {
+      nodes = new ObjectMapper().readTree(json);
+    } catch (JsonProcessingException e) {
+      throw new IllegalArgumentException("Failed to parse the bulkhead hosts: " + json, e);
+    }
+    if (nodes == null || nodes.isMissingNode()) {
+      return List.of();
+    } else if (!nodes.isArray()) {
+      throw new IllegalArgumentException(
+          "Failed to parse the bulkhead hosts: expected a JSON array but got " + json);
+    }
+
+    final List<Host> hosts = new ArrayList<>();
+    for (JsonNode node : nodes) {
+      final Host host = new Host();
+      host.prefix = node.path("prefix").textValue();
+      if (node.hasNonNull("maxConcurrentRequests")) {
+        host.maxConcurrentRequests = node.get("maxConcurrentRequests").asInt();
+      }
+      if (node.hasNonNull("maxQueueDepth")) {
+        host.maxQueueDepth = node.get("maxQueueDepth").asInt();
+      }
+      if (node.hasNonNull("maxWait")) {
+        host.maxWait = DurationStyle.detectAndParse(node.get("maxWait").asText());
+      }
+      hosts.add(host);
+    }
+    return Collections.unmodifiableList(hosts);
+  }
+
+  /**
+   * The limits of the requests to a host or URL prefix. Limits that are not set are taken from
+   * the defaults.
+   */
+  public static class Host {
+
+    private String prefix;
+    private Integer maxConcurrentRequests;
+    private Integer maxQueueDepth;
+    private Duration maxWait;
+
+    public String getPrefix() {
+      return prefix;
+    }
+
+    public Integer getMaxConcurrentRequests() {
+      return maxConcurrentRequests;
+    }
+
+    public Integer getMaxQueueDepth() {
+      return maxQueueDepth;
+    }
+
+    public Duration getMaxWait() {
+      return maxWait;
+    }
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http.bulkhead;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.zeebe.http.RejectedRequestException;
+import io.zeebe.http.bulkhead.BulkheadProperties.Host;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * The bulkheads of the hosts, created on the first request to a host.
+ */
+@Component
+public class BulkheadRegistry {
+
+  private final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+
+  @Autowired
+  private BulkheadProperties properties;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  /**
+   * Send the request when the bulkhead of its host allows it.
+   *
+   * @param cancellation completed when the request is not needed anymore - it leaves the queue of
+   *     the bulkhead then
+   */
+  public <T> CompletableFuture<T> execute(URI uri, CompletableFuture<Void> cancellation,
+      Supplier<CompletableFuture<T>> request) {
+    return get(uri)
+        .map(bulkhead -> bulkhead.execute(cancellation, request))
+        .orElseGet(request);
+  }
+
+  /**
+   * @return the bulkhead of the host, or empty if the requests to the host are not limited
+   */
+  public Optional<Bulkhead> get(URI uri) {
+    final String url = uri.toString();
+    for (Host host : properties.getHosts()) {
+      final String prefix = host.getPrefix();
+      if (prefix != null && (url.startsWith(prefix) || prefix.equalsIgnoreCase(uri.getHost()))) {
+        return Optional.of(bulkheads.computeIfAbsent(prefix, name -> createBulkhead(name,
+            Optional.ofNullable(host.getMaxConcurrentRequests())
+                .orElse(properties.getMaxConcurrentRequests()),
+            Optional.ofNullable(host.getMaxQueueDepth()).orElse(properties.getMaxQueueDepth()),
+            Optional.ofNullable(host.getMaxWait()).orElse(properties.getMaxWait()))));
+      }
+    }
+
+    if (properties.getMaxConcurrentRequests() <= 0) {
+      return Optional.empty();
+    }
+    final String hostName = uri.getScheme() + "://" + uri.getAuthority();
+    return Optional.of(bulkheads.computeIfAbsent(hostName, name -> createBulkhead(name,
+        properties.getMaxConcurrentRequests(), properties.getMaxQueueDepth(),
+        properties.getMaxWait())));
+  }
+
+  private Bulkhead createBulkhead(String name, int maxConcurrentRequests, int maxQueueDepth,
+      Duration maxWait) {
+    final Counter rejections = Counter.builder("zeebe.http.worker.bulkhead.rejected")
+        .tag("bulkhead", name)
+        .register(meterRegistry);
+
+    final boolean decrementRetries =
+        properties.getRejection() == BulkheadProperties.Rejection.FAIL;
+    final Bulkhead bulkhead = new Bulkhead(name,
+        maxConcurrentRequests > 0 ? maxConcurrentRequests : Integer.MAX_VALUE,
+        maxQueueDepth, maxWait,
+        () -> {
+          rejections.increment();
+          return new RejectedRequestException(
+              "Too many concurrent requests to " + name + " (limit: " + maxConcurrentRequests
+                  + ")", properties.getRetryBackoff(), decrementRetries);
+        });
+
+    Gauge.builder("zeebe.http.worker.bulkhead.active", bulkhead, Bulkhead::getActiveRequests)
+        .tag("bulkhead", name)
+        .register(meterRegistry);
+    Gauge.builder("zeebe.http.worker.bulkhead.queued", bulkhead, Bulkhead::getQueuedRequests)
+        .tag("bulkhead", name)
+        .register(meterRegistry);
+
+    return bulkhead;
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http.cache;
+
+import java.net.http.HttpHeaders;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Optional;
+
+/**
+ * The directives of the {@code Cache-Control} header of a response that decide if and how long
+ * the response can be cached.
+ */
+final class CacheControl {
+
+  private final boolean noStore;
+  private final boolean noCache;
+  private final Duration maxAge;
+
+  private CacheControl(boolean noStore, boolean noCache, Duration maxAge) {
+    this.noStore = noStore;
+    this.noCache = noCache;
+    this.maxAge = maxAge;
+  }
+
+  static CacheControl of(HttpHeaders headers) {
+    boolean noStore = false;
+    boolean noCache = false;
+    Duration maxAge = null;
+
+    for (String value : headers.allValues("Cache-Control")) {
+      for (String directive : value.split(",")) {
+        final String[] nameAndValue = directive.trim().split("=", 2);
+        final String name = nameAndValue[0].trim().toLowerCase();
+        if (name.equals("no-store") || name.equals("private")) {
+          // a private response is meant for a single user - but the worker handles the jobs of
+          // all processes and tenants
+          noStore = true;
+        } else if (name.equals("no-cache")) {
+          noCache = true;
+        } else if (name.equals("max-age") && nameAndValue.length == 2) {
+          maxAge = parseSeconds(nameAndValue[1]).orElse(maxAge);
+        }
+      }
+    }
+    return new CacheControl(noStore, noCache, maxAge);
+  }
+
+  /**
+   * @return true if the response must not be cached at all, i.e. it has {@code no-store} or
+   *     {@code private}
+   */
+  boolean isNoStore() {
+    return noStore;
+  }
+
+  /**
+   * The time that the response can be used without asking the server again. A response with
+   * {@code no-cache} can be cached, but it is revalidated each time.
+   */
+  Duration getFreshness(HttpHeaders headers) {
+    if (noCache) {
+      return Duration.ZERO;
+    } else if (maxAge != null) {
+      // the time that the response was cached already by a proxy
+      final Duration age = headers.firstValue("Age")
+          .flatMap(CacheControl::parseSeconds)
+          .orElse(Duration.ZERO);
+      return positive(maxAge.minus(age));
+    } else {
+      return getExpires(headers).orElse(Duration.ZERO);
+    }
+  }
+
+  private static Optional<Duration> getExpires(HttpHeaders headers) {
+    final Optional<String> expiresHeader = headers.firstValue("Expires");
+    if (expiresHeader.isEmpty()) {
+      return Optional.empty();
+    }
+    // an invalid date, e.g. "0", means that the response is expired already
+    final Optional<ZonedDateTime> expires = parseDate(expiresHeader.get());
+    if (expires.isEmpty()) {
+      return Optional.of(Duration.ZERO);
+    }
+    final ZonedDateTime date = headers.firstValue("Date")
+        .flatMap(CacheControl::parseDate)
+        .orElseGet(ZonedDateTime::now);
+    return Optional.of(positive(Duration.between(date, expires.get())));
+  }
+
+  private static Optional<Duration> parseSeconds(String value) {
+    try {
+      return Optional.of(Duration.ofSeconds(Long.parseLong(value.trim().replace("\"", ""))));
+    } catch (NumberFormatException e) {
+      return Optional.empty();
+    }
+  }
+
+  private static Optional<ZonedDateTime> parseDate(String value) {
+    try {
+      return Optional.of(ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME));
+    } catch (DateTimeParseException e) {
+      return Optional.empty();
+    }
+  }
+
+  private static Duration positive(Duration duration) {
+    return duration.isNegative() ? Duration.ZERO : duration;
+  }
+}
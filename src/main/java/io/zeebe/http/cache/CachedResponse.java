@@ -0,0 +1,158 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http.cache;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.http.HttpHeaders;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * A response in the cache: the status code, the headers and the raw bytes of the body. The body
+ * is read again by the body handler of each job that gets the response from the cache.
+ */
+final class CachedResponse {
+
+  // the headers of a 304 response that don't describe the cached body
+  private static final Set<String> BODY_HEADERS =
+      Set.of("content-length", "content-encoding", "transfer-encoding");
+
+  private final int statusCode;
+  private final HttpHeaders headers;
+  private final byte[] body;
+  private final long expiresAt;
+
+  /**
+   * @param expiresAt the time in epoch milliseconds until the response can be used without
+   *     revalidating it
+   */
+  CachedResponse(int statusCode, HttpHeaders headers, byte[] body, long expiresAt) {
+    this.statusCode = statusCode;
+    this.headers = headers;
+    this.body = body;
+    this.expiresAt = expiresAt;
+  }
+
+  int getStatusCode() {
+    return statusCode;
+  }
+
+  HttpHeaders getHeaders() {
+    return headers;
+  }
+
+  byte[] getBody() {
+    return body;
+  }
+
+  boolean isFresh(long now) {
+    return now < expiresAt;
+  }
+
+  Optional<String> getETag() {
+    return headers.firstValue("ETag");
+  }
+
+  Optional<String> getLastModified() {
+    return headers.firstValue("Last-Modified");
+  }
+
+  /**
+   * @return true if the server can tell if the response is still valid, without sending it again
+   */
+  boolean hasValidators() {
+    return getETag().isPresent() || getLastModified().isPresent();
+  }
+
+  /**
+   * @return the approximate size of the response in memory, in bytes
+   */
+  int getSize() {
+    int size = body.length;
+    for (Map.Entry<String, List<String>> header : headers.map().entrySet()) {
+      size += header.getKey().length();
+      for (String value : header.getValue()) {
+        size += value.length();
+      }
+    }
+    return size;
+  }
+
+  /**
+   * The server confirmed that the response is still valid. The headers of the confirmation
+   * replace the cached ones, e.g. a new {@code Cache-Control}.
+   */
+  HttpHeaders mergeHeaders(HttpHeaders notModified) {
+    final Map<String, List<String>> merged = new HashMap<>(headers.map());
+    notModified.map().forEach((name, values) -> {
+      if (!BODY_HEADERS.contains(name.toLowerCase())) {
+        merged.keySet().removeIf(existing -> existing.equalsIgnoreCase(name));
+        merged.put(name, values);
+      }
+    });
+    return HttpHeaders.of(merged, (name, value) -> true);
+  }
+
+  CachedResponse withHeaders(HttpHeaders headers, long expiresAt) {
+    return new CachedResponse(statusCode, headers, body, expiresAt);
+  }
+
+  void writeTo(DataOutputStream output) throws IOException {
+    output.writeInt(statusCode);
+    output.writeLong(expiresAt);
+
+    final Map<String, List<String>> headerMap = headers.map();
+    output.writeInt(headerMap.size());
+    for (Map.Entry<String, List<String>> header : headerMap.entrySet()) {
+      output.writeUTF(header.getKey());
+      output.writeInt(header.getValue().size());
+      for (String value : header.getValue()) {
+        output.writeUTF(value);
+      }
+    }
+
+    output.writeInt(body.length);
+    output.write(body);
+  }
+
+  static CachedResponse readFrom(DataInputStream input) throws IOException {
+    final int statusCode = input.readInt();
+    final long expiresAt = input.readLong();
+
+    final int headerCount = input.readInt();
+    final Map<String, List<String>> headerMap = new HashMap<>();
+    for (int i = 0; i < headerCount; i++) {
+      final String name = input.readUTF();
+      final int valueCount = input.readInt();
+      final List<String> values = new ArrayList<>(valueCount);
+      for (int j = 0; j < valueCount; j++) {
+        values.add(input.readUTF());
+      }
+      headerMap.put(name, values);
+    }
+
+    final byte[] body = new byte[input.readInt()];
+    input.readFully(body);
+    return new CachedResponse(statusCode, HttpHeaders.of(headerMap, (name, value) -> true), body,
+        expiresAt);
+  }
+}
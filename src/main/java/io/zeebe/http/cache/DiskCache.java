@@ -0,0 +1,181 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The second tier of the response cache: the responses that are evicted from the memory are
+ * written to files in a local directory, one file per response. If the files exceed the maximum
+ * size, the least recently used ones are deleted.
+ *
+ * <p>The index of the files is kept in memory only, so the directory is cleared on start. A file is
+ * written to a temporary file first, which is moved while the index is updated - so the files in
+ * the directory always match the index.
+ */
+final class DiskCache {
+
+  private static final Logger LOG = LoggerFactory.getLogger(DiskCache.class);
+  private static final String SUFFIX = ".response";
+  private static final String TEMP_SUFFIX = ".tmp";
+
+  private final Path directory;
+  private final long maxSize;
+
+  // the file names and their sizes, in the order of their last access
+  private final LinkedHashMap<String, Long> files = new LinkedHashMap<>(16, 0.75f, true);
+  private long size = 0;
+
+  DiskCache(Path directory, long maxSize) {
+    this.directory = directory;
+    this.maxSize = maxSize;
+
+    try {
+      Files.createDirectories(directory);
+      // incl. the temporary files that are left if the worker stopped while writing them
+      try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+          "*{" + SUFFIX + "," + TEMP_SUFFIX + "}")) {
+        for (Path file : stream) {
+          Files.deleteIfExists(file);
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to prepare the cache directory " + directory, e);
+    }
+  }
+
+  void put(String key, CachedResponse response) {
+    final String fileName = getFileName(key);
+    final Path file = directory.resolve(fileName);
+    final Path tempFile;
+    final long fileSize;
+    try {
+      tempFile = Files.createTempFile(directory, null, TEMP_SUFFIX);
+      try (DataOutputStream output = new DataOutputStream(
+          new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+        response.writeTo(output);
+      }
+      fileSize = Files.size(tempFile);
+    } catch (IOException e) {
+      LOG.debug("Failed to write cached response to {}", file, e);
+      return;
+    }
+
+    synchronized (this) {
+      try {
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+      } catch (IOException e) {
+        LOG.debug("Failed to write cached response to {}", file, e);
+        delete(tempFile);
+        return;
+      }
+
+      final Long previousSize = files.put(fileName, fileSize);
+      size += fileSize - (previousSize != null ? previousSize : 0);
+
+      final Iterator<Map.Entry<String, Long>> eldest = files.entrySet().iterator();
+      while (size > maxSize && eldest.hasNext()) {
+        final Map.Entry<String, Long> entry = eldest.next();
+        size -= entry.getValue();
+        delete(directory.resolve(entry.getKey()));
+        eldest.remove();
+      }
+    }
+  }
+
+  /**
+   * @return the cached response, which is removed from the disk - it is moved to the memory
+   */
+  Optional<CachedResponse> remove(String key) {
+    final String fileName = getFileName(key);
+    final Path file = directory.resolve(fileName);
+    final Path removedFile;
+    synchronized (this) {
+      final Long fileSize = files.remove(fileName);
+      if (fileSize == null) {
+        return Optional.empty();
+      }
+      size -= fileSize;
+
+      // read the file outside the lock - a new response of the key may be written meanwhile
+      try {
+        removedFile = Files.createTempFile(directory, null, TEMP_SUFFIX);
+        Files.move(file, removedFile, StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+      } catch (IOException e) {
+        LOG.debug("Failed to remove cached response {}", file, e);
+        delete(file);
+        return Optional.empty();
+      }
+    }
+
+    try (DataInputStream input = new DataInputStream(
+        new BufferedInputStream(Files.newInputStream(removedFile)))) {
+      return Optional.of(CachedResponse.readFrom(input));
+    } catch (IOException e) {
+      LOG.debug("Failed to read cached response from {}", file, e);
+      return Optional.empty();
+    } finally {
+      delete(removedFile);
+    }
+  }
+
+  synchronized int getEntries() {
+    return files.size();
+  }
+
+  synchronized long getSize() {
+    return size;
+  }
+
+  private static void delete(Path file) {
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      LOG.debug("Failed to delete cached response {}", file, e);
+    }
+  }
+
+  private static String getFileName(String key) {
+    try {
+      final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      return HexFormat.of().formatHex(digest.digest(key.getBytes(StandardCharsets.UTF_8)))
+          + SUFFIX;
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
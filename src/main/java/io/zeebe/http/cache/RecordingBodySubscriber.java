@@ -0,0 +1,89 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.net.http.HttpResponse.BodySubscriber;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+
+/**
+ * Passes the response body to another subscriber and keeps a copy of its bytes, to cache the
+ * response. The copy is dropped if the body exceeds the maximum size.
+ */
+final class RecordingBodySubscriber<T> implements BodySubscriber<T> {
+
+  private final BodySubscriber<T> delegate;
+  private final long maxSize;
+
+  private ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+  private boolean completed = false;
+
+  RecordingBodySubscriber(BodySubscriber<T> delegate, long maxSize) {
+    this.delegate = delegate;
+    this.maxSize = maxSize;
+  }
+
+  @Override
+  public CompletionStage<T> getBody() {
+    return delegate.getBody();
+  }
+
+  @Override
+  public void onSubscribe(Flow.Subscription subscription) {
+    delegate.onSubscribe(subscription);
+  }
+
+  @Override
+  public void onNext(List<ByteBuffer> buffers) {
+    if (bytes != null) {
+      for (ByteBuffer buffer : buffers) {
+        if (bytes.size() + buffer.remaining() > maxSize) {
+          bytes = null;
+          break;
+        }
+        // a duplicate, the delegate reads the buffer itself
+        final ByteBuffer copy = buffer.duplicate();
+        final byte[] chunk = new byte[copy.remaining()];
+        copy.get(chunk);
+        bytes.writeBytes(chunk);
+      }
+    }
+    delegate.onNext(buffers);
+  }
+
+  @Override
+  public void onError(Throwable throwable) {
+    bytes = null;
+    delegate.onError(throwable);
+  }
+
+  @Override
+  public void onComplete() {
+    completed = true;
+    delegate.onComplete();
+  }
+
+  /**
+   * @return the whole body, or empty if it was not received completely or is too large
+   */
+  Optional<byte[]> getBytes() {
+    return completed && bytes != null ? Optional.of(bytes.toByteArray()) : Optional.empty();
+  }
+}
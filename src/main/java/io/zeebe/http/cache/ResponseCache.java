@@ -0,0 +1,294 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandler;
+import java.net.http.HttpResponse.BodySubscriber;
+import java.net.http.HttpResponse.BodySubscribers;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.LongSupplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Caches the responses of GET requests in memory, and optionally on the disk. A response is
+ * cached if its {@code Cache-Control} header allows it, or if it can be revalidated by its
+ * {@code ETag} or {@code Last-Modified} header. A fresh response is taken from the cache without
+ * sending the request. A stale response is revalidated by a conditional request - if the server
+ * answers with {@code 304 Not Modified}, the cached response is used.
+ *
+ * <p>The raw body is cached, and read by the body handler of each job again. So, jobs with a
+ * different handling of the response, e.g. other result variables, can share the cached response.
+ */
+@Component
+public class ResponseCache {
+
+  private static final int NOT_MODIFIED = 304;
+  // the status codes of responses that are cacheable by default
+  private static final Set<Integer> CACHEABLE_STATUS_CODES =
+      Set.of(200, 203, 204, 300, 301, 404, 410);
+
+  private final ResponseCacheProperties properties;
+  private final MeterRegistry meterRegistry;
+  private final LongSupplier clock;
+
+  private final Cache<String, CachedResponse> memory;
+  private final DiskCache disk;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  @Autowired
+  public ResponseCache(ResponseCacheProperties properties, MeterRegistry meterRegistry) {
+    this(properties, meterRegistry, System::currentTimeMillis, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * @param clock the current time in milliseconds
+   * @param executor moves the evicted responses to the disk
+   */
+  ResponseCache(ResponseCacheProperties properties, MeterRegistry meterRegistry,
+      LongSupplier clock, Executor executor) {
+    this.properties = properties;
+    this.meterRegistry = meterRegistry;
+    this.clock = clock;
+
+    disk = properties.isEnabled() && properties.getDiskDirectory() != null
+        ? new DiskCache(Path.of(properties.getDiskDirectory()),
+            properties.getMaxDiskSize().toBytes())
+        : null;
+    memory = Caffeine.newBuilder()
+        .maximumWeight(properties.getMaxMemorySize().toBytes())
+        .weigher((String key, CachedResponse response) -> response.getSize())
+        .executor(executor)
+        .removalListener((String key, CachedResponse response, RemovalCause cause) -> {
+          if (disk != null && cause == RemovalCause.SIZE) {
+            disk.put(key, response);
+          }
+        })
+        .build();
+
+    meterRegistry.gauge("zeebe.http.worker.response.cache.hit.ratio", this,
+        ResponseCache::getHitRatio);
+    meterRegistry.gauge("zeebe.http.worker.response.cache.size", List.of(tier("memory")), memory,
+        Cache::estimatedSize);
+    meterRegistry.gauge("zeebe.http.worker.response.cache.bytes", List.of(tier("memory")), memory,
+        cache -> cache.policy().eviction()
+            .map(eviction -> eviction.weightedSize().orElse(0))
+            .orElse(0L));
+    if (disk != null) {
+      meterRegistry.gauge("zeebe.http.worker.response.cache.size", List.of(tier("disk")), disk,
+          DiskCache::getEntries);
+      meterRegistry.gauge("zeebe.http.worker.response.cache.bytes", List.of(tier("disk")), disk,
+          DiskCache::getSize);
+    }
+  }
+
+  /**
+   * @param ttl the time that a response is cached, instead of its {@code Cache-Control} header -
+   *     or null to use the header
+   * @return the policy to cache the response of the request, or empty if it is not cacheable
+   */
+  public Optional<Policy> getPolicy(HttpRequest request, Duration ttl) {
+    if (!properties.isEnabled()
+        || !request.method().equals("GET")
+        || request.bodyPublisher().map(body -> body.contentLength() != 0).orElse(false)) {
+      return Optional.empty();
+    }
+    // the headers are part of the key, e.g. to cache the responses of each authorization
+    // separately
+    final String key = request.method() + " " + request.uri() + " " + request.headers().map();
+    return Optional.of(new Policy(key, ttl));
+  }
+
+  /**
+   * Take the response from the cache, or send the request and cache its response.
+   *
+   * @param request the request to send, possibly with headers that are not part of the key
+   * @param send sends the given request - a conditional request to revalidate a stale response
+   */
+  public <T> CompletableFuture<HttpResponse<T>> execute(Policy policy, HttpRequest request,
+      BodyHandler<T> bodyHandler,
+      BiFunction<HttpRequest, BodyHandler<T>, CompletableFuture<HttpResponse<T>>> send) {
+    final Optional<CachedResponse> cached = get(policy.key);
+    if (cached.isPresent() && cached.get().isFresh(clock.getAsLong())) {
+      countRequest("hit");
+      return replay(request, cached.get(), bodyHandler);
+    }
+
+    final HttpRequest conditionalRequest =
+        cached.map(response -> withValidators(request, response)).orElse(request);
+    final long maxEntrySize = properties.getMaxEntrySize().toBytes();
+    final AtomicReference<RecordingBodySubscriber<T>> recording = new AtomicReference<>();
+
+    return send.apply(conditionalRequest, responseInfo -> {
+          if (cached.isPresent() && responseInfo.statusCode() == NOT_MODIFIED) {
+            return BodySubscribers.replacing(null);
+          }
+          final RecordingBodySubscriber<T> subscriber =
+              new RecordingBodySubscriber<>(bodyHandler.apply(responseInfo), maxEntrySize);
+          recording.set(subscriber);
+          return subscriber;
+        })
+        .thenCompose(response -> {
+          if (cached.isPresent() && response.statusCode() == NOT_MODIFIED) {
+            countRequest("revalidated");
+            final HttpHeaders headers = cached.get().mergeHeaders(response.headers());
+            final CachedResponse revalidated =
+                cached.get().withHeaders(headers, getExpiresAt(policy, headers));
+            memory.put(policy.key, revalidated);
+            return replay(request, revalidated, bodyHandler);
+          }
+
+          countRequest("miss");
+          Optional.ofNullable(recording.get())
+              .flatMap(RecordingBodySubscriber::getBytes)
+              .ifPresent(body -> put(policy, response, body));
+          return CompletableFuture.completedFuture(response);
+        });
+  }
+
+  private Optional<CachedResponse> get(String key) {
+    final CachedResponse cached = memory.getIfPresent(key);
+    if (cached != null || disk == null) {
+      return Optional.ofNullable(cached);
+    }
+
+    // the response is moved back to the memory, since it is used again
+    final Optional<CachedResponse> fromDisk = disk.remove(key);
+    fromDisk.ifPresent(response -> memory.put(key, response));
+    return fromDisk;
+  }
+
+  private void put(Policy policy, HttpResponse<?> response, byte[] body) {
+    final CacheControl cacheControl = CacheControl.of(response.headers());
+    if (!CACHEABLE_STATUS_CODES.contains(response.statusCode()) || cacheControl.isNoStore()) {
+      return;
+    }
+
+    final CachedResponse cached = new CachedResponse(response.statusCode(), response.headers(),
+        body, getExpiresAt(policy, response.headers()));
+    if (cached.isFresh(clock.getAsLong()) || cached.hasValidators()) {
+      memory.put(policy.key, cached);
+    } else {
+      // a new response that can't be used again replaces the old one
+      memory.invalidate(policy.key);
+    }
+  }
+
+  private long getExpiresAt(Policy policy, HttpHeaders headers) {
+    final Duration freshness = policy.ttl != null
+        ? policy.ttl
+        : CacheControl.of(headers).getFreshness(headers);
+    return clock.getAsLong() + freshness.toMillis();
+  }
+
+  private static HttpRequest withValidators(HttpRequest request, CachedResponse cached) {
+    final HttpRequest.Builder builder = HttpRequest.newBuilder(request, (name, value) -> true);
+    cached.getETag().ifPresent(etag -> builder.setHeader("If-None-Match", etag));
+    cached.getLastModified()
+        .ifPresent(lastModified -> builder.setHeader("If-Modified-Since", lastModified));
+    return builder.build();
+  }
+
+  /**
+   * Read the cached body by the body handler, like a response that is received.
+   */
+  static <T> CompletableFuture<HttpResponse<T>> replay(HttpRequest request,
+      CachedResponse cached, BodyHandler<T> bodyHandler) {
+    final BodySubscriber<T> subscriber =
+        bodyHandler.apply(new CachedHttpResponse<>(request, cached, null));
+
+    subscriber.onSubscribe(new Flow.Subscription() {
+      private boolean done = false;
+
+      @Override
+      public void request(long n) {
+        // the subscriber may request more while it reads the body
+        if (done) {
+          return;
+        }
+        done = true;
+        if (cached.getBody().length > 0) {
+          subscriber.onNext(List.of(ByteBuffer.wrap(cached.getBody())));
+        }
+        subscriber.onComplete();
+      }
+
+      @Override
+      public void cancel() {
+        done = true;
+      }
+    });
+
+    return subscriber.getBody().toCompletableFuture()
+        .thenApply(body -> new CachedHttpResponse<>(request, cached, body));
+  }
+
+  private void countRequest(String result) {
+    if (result.equals("miss")) {
+      misses.increment();
+    } else {
+      hits.increment();
+    }
+    meterRegistry.counter("zeebe.http.worker.response.cache.requests", "result", result)
+        .increment();
+  }
+
+  private double getHitRatio() {
+    final long hitCount = hits.sum();
+    final long total = hitCount + misses.sum();
+    return total == 0 ? 0 : (double) hitCount / total;
+  }
+
+  private static Tag tier(String tier) {
+    return Tag.of("tier", tier);
+  }
+
+  /**
+   * How the response of a job's request is cached.
+   */
+  public static final class Policy {
+
+    private final String key;
+    private final Duration ttl;
+
+    private Policy(String key, Duration ttl) {
+      this.key = key;
+      this.ttl = ttl;
+    }
+  }
+}
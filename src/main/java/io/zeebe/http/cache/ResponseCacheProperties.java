@@ -0,0 +1,83 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Caches the responses of GET requests, as long as allowed by their {@code Cache-Control} header
+ * or the {@code cacheTtl} of the task. For example:
+ *
+ * <pre>
+ * HTTP_RESPONSE_CACHE_ENABLED=true
+ * HTTP_RESPONSE_CACHE_MAX_MEMORY_SIZE=64MB
+ * HTTP_RESPONSE_CACHE_DISK_DIRECTORY=/tmp/http-worker-cache
+ * </pre>
+ */
+@Component
+public class ResponseCacheProperties {
+
+  @Value( "${HTTP_RESPONSE_CACHE_ENABLED:false}")
+  private boolean enabled;
+
+  // the rarely used responses are evicted if the cached responses exceed the size
+  @Value( "${HTTP_RESPONSE_CACHE_MAX_MEMORY_SIZE:64MB}")
+  private DataSize maxMemorySize;
+
+  // larger responses are not cached
+  @Value( "${HTTP_RESPONSE_CACHE_MAX_ENTRY_SIZE:1MB}")
+  private DataSize maxEntrySize;
+
+  // the responses that are evicted from the memory are moved to this directory, if set
+  @Value( "${HTTP_RESPONSE_CACHE_DISK_DIRECTORY:#{null}}")
+  private String diskDirectory;
+
+  @Value( "${HTTP_RESPONSE_CACHE_MAX_DISK_SIZE:1GB}")
+  private DataSize maxDiskSize;
+
+  public ResponseCacheProperties() {}
+
+  ResponseCacheProperties(boolean enabled, DataSize maxMemorySize, DataSize maxEntrySize,
+      String diskDirectory, DataSize maxDiskSize) {
+    this.enabled = enabled;
+    this.maxMemorySize = maxMemorySize;
+    this.maxEntrySize = maxEntrySize;
+    this.diskDirectory = diskDirectory;
+    this.maxDiskSize = maxDiskSize;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public DataSize getMaxMemorySize() {
+    return maxMemorySize;
+  }
+
+  public DataSize getMaxEntrySize() {
+    return maxEntrySize;
+  }
+
+  public String getDiskDirectory() {
+    return diskDirectory;
+  }
+
+  public DataSize getMaxDiskSize() {
+    return maxDiskSize;
+  }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http.circuitbreaker;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.LongSupplier;
+
+/**
+ * The circuit breaker of a host:
+ *
+ * <ul>
+ *   <li>closed: the requests are sent; if the failure rate of the last requests exceeds the
+ *       threshold, the circuit opens
+ *   <li>open: the requests are rejected; after the open duration, the circuit is half-open
+ *   <li>half-open: a few probe requests are sent, the others are rejected; if all probes
+ *       succeed the circuit closes, otherwise it opens again
+ * </ul>
+ */
+public class CircuitBreaker {
+
+  public enum State {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+  }
+
+  public enum Outcome {
+    SUCCESS,
+    FAILURE,
+    /** the request didn't reach the host, e.g. because it was rejected by a limit */
+    IGNORED
+  }
+
+  /**
+   * Called on each state change, after the breaker is unlocked - so the listener can take its
+   * time without blocking the requests of the host.
+   */
+  public interface StateListener {
+
+    void onStateChange(State from, State to);
+  }
+
+  private final int failureRateThreshold;
+  private final int minimumRequests;
+  private final long openDurationNanos;
+  private final int halfOpenProbes;
+  private final LongSupplier clock;
+  private final StateListener listener;
+
+  // the state changes that are not passed to the listener yet, as pairs of from and to
+  private final Queue<State[]> stateChanges = new ConcurrentLinkedQueue<>();
+
+  // ring buffer of the last outcomes
+  private final boolean[] failures;
+  private int recorded = 0;
+  private int next = 0;
+  private int failureCount = 0;
+
+  private State state = State.CLOSED;
+  private long openedAt;
+  private int probesInFlight = 0;
+  private int successfulProbes = 0;
+
+  public CircuitBreaker(int failureRateThreshold, int slidingWindowSize, int minimumRequests,
+      Duration openDuration, int halfOpenProbes, LongSupplier clock, StateListener listener) {
+    this.failureRateThreshold = failureRateThreshold;
+    this.failures = new boolean[Math.max(1, slidingWindowSize)];
+    this.minimumRequests = Math.min(minimumRequests, failures.length);
+    this.openDurationNanos = openDuration.toNanos();
+    this.halfOpenProbes = Math.max(1, halfOpenProbes);
+    this.clock = clock;
+    this.listener = listener;
+  }
+
+  /**
+   * @return true if the request can be sent, and then {@link #onResult} must be called when it
+   * is done
+   */
+  public boolean tryAcquire() {
+    try {
+      return acquire();
+    } finally {
+      notifyListener();
+    }
+  }
+
+  private synchronized boolean acquire() {
+    if (state == State.OPEN && clock.getAsLong() - openedAt >= openDurationNanos) {
+      transitionTo(State.HALF_OPEN);
+    }
+
+    switch (state) {
+      case CLOSED:
+        return true;
+      case HALF_OPEN:
+        if (probesInFlight + successfulProbes < halfOpenProbes) {
+          probesInFlight += 1;
+          return true;
+        }
+        return false;
+      default:
+        return false;
+    }
+  }
+
+  public void onResult(Outcome outcome) {
+    try {
+      handleResult(outcome);
+    } finally {
+      notifyListener();
+    }
+  }
+
+  private synchronized void handleResult(Outcome outcome) {
+    switch (state) {
+      case CLOSED:
+        if (outcome != Outcome.IGNORED) {
+          record(outcome == Outcome.FAILURE);
+          if (recorded >= minimumRequests
+              && failureCount * 100 >= failureRateThreshold * recorded) {
+            transitionTo(State.OPEN);
+          }
+        }
+        break;
+
+      case HALF_OPEN:
+        probesInFlight = Math.max(0, probesInFlight - 1);
+        if (outcome == Outcome.FAILURE) {
+          transitionTo(State.OPEN);
+        } else if (outcome == Outcome.SUCCESS) {
+          successfulProbes += 1;
+          if (successfulProbes >= halfOpenProbes) {
+            transitionTo(State.CLOSED);
+          }
+        }
+        break;
+
+      default:
+        // a request that was sent before the circuit opened
+        break;
+    }
+  }
+
+  private void record(boolean failure) {
+    if (recorded == failures.length) {
+      if (failures[next]) {
+        failureCount -= 1;
+      }
+    } else {
+      recorded += 1;
+    }
+    failures[next] = failure;
+    if (failure) {
+      failureCount += 1;
+    }
+    next = (next + 1) % failures.length;
+  }
+
+  private void transitionTo(State newState) {
+    final State oldState = state;
+    state = newState;
+
+    if (newState == State.OPEN) {
+      openedAt = clock.getAsLong();
+    } else if (newState == State.HALF_OPEN) {
+      probesInFlight = 0;
+      successfulProbes = 0;
+    } else {
+      recorded = 0;
+      next = 0;
+      failureCount = 0;
+    }
+
+    stateChanges.add(new State[] {oldState, newState});
+  }
+
+  private void notifyListener() {
+    State[] stateChange;
+    while ((stateChange = stateChanges.poll()) != null) {
+      listener.onStateChange(stateChange[0], stateChange[1]);
+    }
+  }
+
+  public synchronized State getState() {
+    return state;
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http.circuitbreaker;
+
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stops sending requests to a host that fails, and fails the jobs right away instead. For
+ * example:
+ *
+ * <pre>
+ * HTTP_CIRCUIT_BREAKER_ENABLED=true
+ * HTTP_CIRCUIT_BREAKER_FAILURE_RATE_THRESHOLD=50
+ * HTTP_CIRCUIT_BREAKER_OPEN_DURATION=30s
+ * </pre>
+ */
+@Component
+public class CircuitBreakerProperties {
+
+  @Value( "${HTTP_CIRCUIT_BREAKER_ENABLED:false}")
+  private boolean enabled;
+
+  // the percentage of failed requests that opens the circuit
+  @Value( "${HTTP_CIRCUIT_BREAKER_FAILURE_RATE_THRESHOLD:50}")
+  private int failureRateThreshold;
+
+  // the number of the last requests that the failure rate is calculated of
+  @Value( "${HTTP_CIRCUIT_BREAKER_SLIDING_WINDOW_SIZE:20}")
+  private int slidingWindowSize;
+
+  // the number of requests that are needed to calculate the failure rate
+  @Value( "${HTTP_CIRCUIT_BREAKER_MINIMUM_REQUESTS:10}")
+  private int minimumRequests;
+
+  @Value( "${HTTP_CIRCUIT_BREAKER_OPEN_DURATION:30s}")
+  private Duration openDuration;
+
+  @Value( "${HTTP_CIRCUIT_BREAKER_HALF_OPEN_PROBES:3}")
+  private int halfOpenProbes;
+
+  @Value( "${HTTP_CIRCUIT_BREAKER_RETRY_BACKOFF:30s}")
+  private Duration retryBackoff;
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public int getFailureRateThreshold() {
+    return failureRateThreshold;
+  }
+
+  public int getSlidingWindowSize() {
+    return slidingWindowSize;
+  }
+
+  public int getMinimumRequests() {
+    return minimumRequests;
+  }
+
+  public Duration getOpenDuration() {
+    return openDuration;
+  }
+
+  public int getHalfOpenProbes() {
+    return halfOpenProbes;
+  }
+
+  public Duration getRetryBackoff() {
+    return retryBackoff;
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http.circuitbreaker;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.zeebe.http.RejectedRequestException;
+import io.zeebe.http.TransientFailures;
+import io.zeebe.http.circuitbreaker.CircuitBreaker.Outcome;
+import io.zeebe.http.circuitbreaker.CircuitBreaker.State;
+import java.net.URI;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * The circuit breakers of the hosts, created on the first request to a host.
+ */
+@Component
+public class CircuitBreakerRegistry {
+
+  private static final Logger LOG = LoggerFactory.getLogger(CircuitBreakerRegistry.class);
+
+  private final Map<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+
+  @Autowired
+  private CircuitBreakerProperties properties;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Autowired
+  private ApplicationEventPublisher eventPublisher;
+
+  /**
+   * Send the request if the circuit of its host is not open, and record the outcome. The
+   * returned future fails with a {@link RejectedRequestException} if the circuit is open.
+   */
+  public <T> CompletableFuture<HttpResponse<T>> execute(URI uri,
+      Supplier<CompletableFuture<HttpResponse<T>>> request) {
+    if (!properties.isEnabled()) {
+      return request.get();
+    }
+
+    final String host = uri.getScheme() + "://" + uri.getAuthority();
+    final CircuitBreaker circuitBreaker =
+        circuitBreakers.computeIfAbsent(host, this::createCircuitBreaker);
+
+    if (!circuitBreaker.tryAcquire()) {
+      return CompletableFuture.failedFuture(new RejectedRequestException(
+          "Circuit breaker of " + host + " is " + circuitBreaker.getState(),
+          properties.getRetryBackoff(), false));
+    }
+
+    final CompletableFuture<HttpResponse<T>> response;
+    try {
+      response = request.get();
+    } catch (RuntimeException e) {
+      circuitBreaker.onResult(Outcome.IGNORED);
+      throw e;
+    }
+
+    return response.whenComplete((r, failure) -> circuitBreaker.onResult(getOutcome(r, failure)));
+  }
+
+  private static Outcome getOutcome(HttpResponse<?> response, Throwable failure) {
+    if (failure == null) {
+      return TransientFailures.isServerError(response.statusCode())
+          ? Outcome.FAILURE : Outcome.SUCCESS;
+    } else if (TransientFailures.isTransient(failure)) {
+      return Outcome.FAILURE;
+    } else {
+      return Outcome.IGNORED;
+    }
+  }
+
+  private CircuitBreaker createCircuitBreaker(String host) {
+    final CircuitBreaker circuitBreaker = new CircuitBreaker(
+        properties.getFailureRateThreshold(),
+        properties.getSlidingWindowSize(),
+        properties.getMinimumRequests(),
+        properties.getOpenDuration(),
+        properties.getHalfOpenProbes(),
+        System::nanoTime,
+        (from, to) -> onStateChange(host, from, to));
+
+    Gauge.builder("zeebe.http.worker.circuit.breaker.state", circuitBreaker,
+            c -> c.getState().ordinal())
+        .tag("host", host)
+        .description("0 - closed, 1 - open, 2 - half-open")
+        .register(meterRegistry);
+
+    return circuitBreaker;
+  }
+
+  private void onStateChange(String host, State from, State to) {
+    LOG.info("Circuit breaker of {} changed from {} to {}", host, from, to);
+
+    meterRegistry.counter("zeebe.http.worker.circuit.breaker.transitions",
+        "host", host, "state", to.name().toLowerCase()).increment();
+    eventPublisher.publishEvent(new CircuitBreakerStateChangedEvent(host, from, to));
+  }
+}
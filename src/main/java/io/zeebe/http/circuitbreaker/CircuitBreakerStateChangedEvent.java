@@ -0,0 +1,52 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http.circuitbreaker;
+
+import io.zeebe.http.circuitbreaker.CircuitBreaker.State;
+
+/**
+ * Published as Spring application event when the circuit breaker of a host changes its state.
+ */
+public class CircuitBreakerStateChangedEvent {
+
+  private final String host;
+  private final State previousState;
+  private final State state;
+
+  public CircuitBreakerStateChangedEvent(String host, State previousState, State state) {
+    this.host = host;
+    this.previousState = previousState;
+    this.state = state;
+  }
+
+  public String getHost() {
+    return host;
+  }
+
+  public State getPreviousState() {
+    return previousState;
+  }
+
+  public State getState() {
+    return state;
+  }
+
+  @Override
+  public String toString() {
+    return "CircuitBreakerStateChangedEvent{host=" + host + ", " + previousState + " -> " + state
+        + "}";
+  }
+}
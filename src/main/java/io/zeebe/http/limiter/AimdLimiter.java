@@ -0,0 +1,105 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http.limiter;
+
+/**
+ * Limits the concurrent requests to a host. The limit grows by one while the requests succeed,
+ * their latency stays flat and the limit is used. It shrinks by the backoff ratio if a request
+ * fails (e.g. with a 5xx status code or a timeout) or its latency rises above the baseline.
+ *
+ * <p>The baseline is the moving average of the latency of the recent requests. A request is too
+ * slow if its latency exceeds the baseline times the latency tolerance. Since the baseline
+ * follows the latency slowly, the limit adapts to a host whose latency rises permanently.
+ *
+ * <p>A request is rejected if the limit is reached - it doesn't wait.
+ */
+public class AimdLimiter {
+
+  // the weight of a sample in the baseline - it follows the latency of about 100 requests
+  private static final double BASELINE_SMOOTHING = 0.01;
+
+  private final int minLimit;
+  private final int maxLimit;
+  private final double backoffRatio;
+  private final double latencyTolerance;
+
+  private double limit;
+  private int inFlight = 0;
+  // the moving average of the latency, or 0 before the first sample
+  private double baselineNanos = 0;
+
+  public AimdLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio,
+      double latencyTolerance) {
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.backoffRatio = backoffRatio;
+    this.latencyTolerance = latencyTolerance;
+    this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+  }
+
+  /**
+   * @return true if the request can be sent, and then {@link #onSample} must be called when it
+   * is done
+   */
+  public synchronized boolean tryAcquire() {
+    if (inFlight >= getLimit()) {
+      return false;
+    }
+    inFlight += 1;
+    return true;
+  }
+
+  /**
+   * @param latencyNanos the time from sending the request until the response headers were
+   *     received, or until the request failed
+   * @param dropped true if the request failed because the host is overloaded
+   */
+  public synchronized void onSample(long latencyNanos, boolean dropped) {
+    // the number of requests in flight while the request was sent
+    final int usedLimit = inFlight;
+    inFlight -= 1;
+
+    final boolean slow = baselineNanos > 0 && latencyNanos > baselineNanos * latencyTolerance;
+    if (!dropped) {
+      // a failure can be fast (e.g. a refused connection) - it doesn't tell the normal latency
+      baselineNanos = baselineNanos == 0
+          ? latencyNanos
+          : baselineNanos + (latencyNanos - baselineNanos) * BASELINE_SMOOTHING;
+    }
+
+    if (dropped || slow) {
+      limit = Math.max(minLimit, limit * backoffRatio);
+    } else if (usedLimit * 2 >= limit) {
+      // only grow if the limit is actually used
+      limit = Math.min(maxLimit, limit + 1);
+    }
+  }
+
+  public synchronized int getLimit() {
+    return (int) limit;
+  }
+
+  /**
+   * @return the moving average of the latency in nanoseconds, or 0 before the first request
+   */
+  public synchronized long getBaselineNanos() {
+    return (long) baselineNanos;
+  }
+
+  public synchronized int getInFlight() {
+    return inFlight;
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http.limiter;
+
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Adapts the number of concurrent requests per host to the observed latency and errors, using
+ * the AIMD algorithm (additive increase, multiplicative decrease). For example:
+ *
+ * <pre>
+ * HTTP_LIMITER_ENABLED=true
+ * HTTP_LIMITER_INITIAL_LIMIT=20
+ * HTTP_LIMITER_LATENCY_TOLERANCE=2.0
+ * </pre>
+ */
+@Component
+public class ConcurrencyLimiterProperties {
+
+  @Value( "${HTTP_LIMITER_ENABLED:false}")
+  private boolean enabled;
+
+  @Value( "${HTTP_LIMITER_INITIAL_LIMIT:20}")
+  private int initialLimit;
+
+  @Value( "${HTTP_LIMITER_MIN_LIMIT:1}")
+  private int minLimit;
+
+  @Value( "${HTTP_LIMITER_MAX_LIMIT:200}")
+  private int maxLimit;
+
+  @Value( "${HTTP_LIMITER_BACKOFF_RATIO:0.9}")
+  private double backoffRatio;
+
+  // a request is slow if its latency exceeds the baseline latency of the host times the tolerance
+  @Value( "${HTTP_LIMITER_LATENCY_TOLERANCE:2.0}")
+  private double latencyTolerance;
+
+  @Value( "${HTTP_LIMITER_RETRY_BACKOFF:1s}")
+  private Duration retryBackoff;
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public int getInitialLimit() {
+    return initialLimit;
+  }
+
+  public int getMinLimit() {
+    return minLimit;
+  }
+
+  public int getMaxLimit() {
+    return maxLimit;
+  }
+
+  public double getBackoffRatio() {
+    return backoffRatio;
+  }
+
+  public double getLatencyTolerance() {
+    return latencyTolerance;
+  }
+
+  public Duration getRetryBackoff() {
+    return retryBackoff;
+  }
+}
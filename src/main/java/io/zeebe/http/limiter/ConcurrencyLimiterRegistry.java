@@ -0,0 +1,127 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http.limiter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.zeebe.http.RejectedRequestException;
+import io.zeebe.http.TransientFailures;
+import java.net.URI;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * The adaptive concurrency limits of the hosts, created on the first request to a host.
+ */
+@Component
+public class ConcurrencyLimiterRegistry {
+
+  private final Map<String, Limiter> limiters = new ConcurrentHashMap<>();
+
+  @Autowired
+  private ConcurrencyLimiterProperties properties;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  /**
+   * Send the request if the limit of its host allows it, and adapt the limit to the outcome.
+   * The returned future fails with a {@link RejectedRequestException} if the limit is reached.
+   *
+   * @param request sends the request - it must run the given callback when the response headers
+   *     are received, so that the latency doesn't include reading the body
+   */
+  public <T> CompletableFuture<HttpResponse<T>> execute(URI uri,
+      Function<Runnable, CompletableFuture<HttpResponse<T>>> request) {
+    if (!properties.isEnabled()) {
+      return request.apply(() -> {});
+    }
+
+    final String host = uri.getScheme() + "://" + uri.getAuthority();
+    final Limiter limiter = limiters.computeIfAbsent(host, this::createLimiter);
+
+    if (!limiter.limit.tryAcquire()) {
+      limiter.rejections.increment();
+      return CompletableFuture.failedFuture(new RejectedRequestException(
+          "Too many concurrent requests to " + host + " (adaptive limit: "
+              + limiter.limit.getLimit() + ")", properties.getRetryBackoff(), false));
+    }
+
+    final long startTime = System.nanoTime();
+    // the time until the response headers are received - or until the request failed
+    final AtomicLong latency = new AtomicLong(-1);
+    final Runnable headersReceived =
+        () -> latency.compareAndSet(-1, System.nanoTime() - startTime);
+
+    final CompletableFuture<HttpResponse<T>> response;
+    try {
+      response = request.apply(headersReceived);
+    } catch (RuntimeException e) {
+      limiter.limit.onSample(System.nanoTime() - startTime, true);
+      throw e;
+    }
+
+    // the request counts as in flight until its body is read
+    return response.whenComplete((r, failure) -> {
+      headersReceived.run();
+      final boolean dropped = failure != null
+          ? TransientFailures.isTransient(failure)
+          : TransientFailures.isServerError(r.statusCode());
+      limiter.limit.onSample(latency.get(), dropped);
+    });
+  }
+
+  private Limiter createLimiter(String host) {
+    final AimdLimiter limit = new AimdLimiter(properties.getInitialLimit(),
+        properties.getMinLimit(), properties.getMaxLimit(), properties.getBackoffRatio(),
+        properties.getLatencyTolerance());
+
+    Gauge.builder("zeebe.http.worker.limiter.limit", limit, AimdLimiter::getLimit)
+        .tag("host", host)
+        .register(meterRegistry);
+    Gauge.builder("zeebe.http.worker.limiter.in.flight", limit, AimdLimiter::getInFlight)
+        .tag("host", host)
+        .register(meterRegistry);
+    Gauge.builder("zeebe.http.worker.limiter.latency.baseline", limit,
+            l -> l.getBaselineNanos() / 1_000_000_000.0)
+        .tag("host", host)
+        .baseUnit("seconds")
+        .register(meterRegistry);
+    final Counter rejections = Counter.builder("zeebe.http.worker.limiter.rejected")
+        .tag("host", host)
+        .register(meterRegistry);
+
+    return new Limiter(limit, rejections);
+  }
+
+  private static final class Limiter {
+
+    private final AimdLimiter limit;
+    private final Counter rejections;
+
+    private Limiter(AimdLimiter limit, Counter rejections) {
+      this.limit = limit;
+      this.rejections = rejections;
+    }
+  }
+}
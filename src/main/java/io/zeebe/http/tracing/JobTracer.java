@@ -0,0 +1,196 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http.tracing;
+
+import io.camunda.zeebe.client.api.response.ActivatedJob;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.propagation.TextMapPropagator;
+import io.zeebe.http.TransientFailures;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Traces a job with a span from its activation until the job command is acknowledged, and a
+ * child span for each phase: waiting for an in-flight permit, building the request, the HTTP call
+ * (incl. reading the body), processing the response and the job command. The trace context of
+ * the HTTP call is propagated with the request, e.g. as W3C {@code traceparent} header.
+ */
+@Component
+public class JobTracer {
+
+  private static final String INSTRUMENTATION_NAME = "io.zeebe.http";
+
+  private static final AttributeKey<Long> JOB_KEY = AttributeKey.longKey("job.key");
+  private static final AttributeKey<Long> PROCESS_INSTANCE_KEY =
+      AttributeKey.longKey("job.process_instance_key");
+  private static final AttributeKey<String> JOB_TYPE = AttributeKey.stringKey("job.type");
+  private static final AttributeKey<String> BPMN_PROCESS_ID =
+      AttributeKey.stringKey("job.bpmn_process_id");
+  private static final AttributeKey<String> ELEMENT_ID = AttributeKey.stringKey("job.element_id");
+  private static final AttributeKey<Long> RETRIES = AttributeKey.longKey("job.retries");
+  private static final AttributeKey<Boolean> EXPIRED = AttributeKey.booleanKey("job.expired");
+
+  private static final AttributeKey<String> HTTP_METHOD =
+      AttributeKey.stringKey("http.request.method");
+  private static final AttributeKey<String> URL = AttributeKey.stringKey("url.full");
+  private static final AttributeKey<String> SERVER_ADDRESS =
+      AttributeKey.stringKey("server.address");
+  private static final AttributeKey<Long> STATUS_CODE =
+      AttributeKey.longKey("http.response.status_code");
+
+  private final Tracer tracer;
+  private final TextMapPropagator propagator;
+
+  @Autowired
+  public JobTracer(OpenTelemetry openTelemetry) {
+    this.tracer = openTelemetry.getTracer(INSTRUMENTATION_NAME);
+    this.propagator = openTelemetry.getPropagators().getTextMapPropagator();
+  }
+
+  /**
+   * Start the span of the job.
+   */
+  public JobTrace start(ActivatedJob job) {
+    final Span span = tracer.spanBuilder("job " + job.getType())
+        .setNoParent()
+        .setAttribute(JOB_KEY, job.getKey())
+        .setAttribute(PROCESS_INSTANCE_KEY, job.getProcessInstanceKey())
+        .setAttribute(JOB_TYPE, job.getType())
+        .setAttribute(BPMN_PROCESS_ID, job.getBpmnProcessId())
+        .setAttribute(ELEMENT_ID, job.getElementId())
+        .setAttribute(RETRIES, (long) job.getRetries())
+        .startSpan();
+    return new JobTrace(span);
+  }
+
+  private static void recordFailure(Span span, Throwable failure) {
+    final Throwable cause = TransientFailures.unwrap(failure);
+    span.recordException(cause);
+    span.setStatus(StatusCode.ERROR, String.valueOf(cause.getMessage()));
+  }
+
+  /**
+   * The trace of one job. The phases are sequential, so the trace is not shared between threads
+   * at the same time.
+   */
+  public class JobTrace {
+
+    private final Span span;
+    private final Context context;
+
+    // the span of the HTTP call, from the first attempt until the body of the last is read
+    private Span requestSpan = Span.getInvalid();
+
+    private JobTrace(Span span) {
+      this.span = span;
+      this.context = Context.root().with(span);
+    }
+
+    /**
+     * Start the span of a phase, which needs to be ended by the caller.
+     */
+    public Span startPhase(String name) {
+      return tracer.spanBuilder(name).setParent(context).startSpan();
+    }
+
+    /**
+     * Run the phase in a span.
+     */
+    public <T> T phase(String name, Supplier<T> phase) {
+      final Span phaseSpan = startPhase(name);
+      try {
+        return phase.get();
+      } catch (RuntimeException e) {
+        recordFailure(phaseSpan, e);
+        throw e;
+      } finally {
+        phaseSpan.end();
+      }
+    }
+
+    /**
+     * Run the asynchronous phase in a span that ends when the phase is completed.
+     */
+    public <T> CompletionStage<T> phaseAsync(String name,
+        Supplier<? extends CompletionStage<T>> phase) {
+      final Span phaseSpan = startPhase(name);
+      return phase.get().whenComplete((result, failure) -> {
+        if (failure != null) {
+          recordFailure(phaseSpan, failure);
+        }
+        phaseSpan.end();
+      });
+    }
+
+    /**
+     * Start the span of the HTTP call.
+     *
+     * @return the request with the trace context, e.g. the {@code traceparent} header
+     */
+    public HttpRequest startRequest(HttpRequest request) {
+      requestSpan = tracer.spanBuilder(request.method())
+          .setParent(context)
+          .setSpanKind(SpanKind.CLIENT)
+          .setAttribute(HTTP_METHOD, request.method())
+          .setAttribute(URL, request.uri().toString())
+          .setAttribute(SERVER_ADDRESS, request.uri().getHost())
+          .startSpan();
+
+      if (!requestSpan.getSpanContext().isValid()) {
+        // tracing is disabled - keep the request as it is
+        return request;
+      }
+
+      final HttpRequest.Builder builder = HttpRequest.newBuilder(request, (name, value) -> true);
+      propagator.inject(context.with(requestSpan), builder, HttpRequest.Builder::setHeader);
+      return builder.build();
+    }
+
+    public void endRequest(HttpResponse<?> response, Throwable failure) {
+      if (response != null) {
+        requestSpan.setAttribute(STATUS_CODE, (long) response.statusCode());
+      }
+      if (failure != null) {
+        recordFailure(requestSpan, failure);
+      }
+      requestSpan.end();
+    }
+
+    /**
+     * Mark the job as expired, i.e. its deadline has passed before the job was done.
+     */
+    public void expired() {
+      span.setAttribute(EXPIRED, true);
+    }
+
+    public void end(Throwable failure) {
+      if (failure != null) {
+        recordFailure(span, failure);
+      }
+      span.end();
+    }
+  }
+}
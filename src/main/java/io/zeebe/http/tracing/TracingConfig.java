@@ -0,0 +1,79 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http.tracing;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.exporter.otlp.http.trace.OtlpHttpSpanExporter;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Creates the OpenTelemetry SDK if tracing is enabled, or a no-op implementation otherwise. The
+ * spans are exported to the OTLP endpoint, unless another {@link SpanExporter} bean is defined -
+ * e.g. an in-memory exporter in a test.
+ */
+@Configuration
+public class TracingConfig {
+
+  private static final AttributeKey<String> SERVICE_NAME = AttributeKey.stringKey("service.name");
+
+  @Bean
+  @ConditionalOnMissingBean(SpanExporter.class)
+  @ConditionalOnProperty(name = "WORKER_TRACING_ENABLED", havingValue = "true")
+  public SpanExporter otlpSpanExporter(TracingProperties properties) {
+    return OtlpHttpSpanExporter.builder()
+        .setEndpoint(properties.getEndpoint())
+        .setTimeout(properties.getExportTimeout())
+        .build();
+  }
+
+  @Bean
+  public OpenTelemetry openTelemetry(TracingProperties properties,
+      ObjectProvider<SpanExporter> spanExporter) {
+    if (!properties.isEnabled()) {
+      return OpenTelemetry.noop();
+    }
+
+    final SdkTracerProvider tracerProvider = SdkTracerProvider.builder()
+        .setResource(Resource.getDefault()
+            .merge(Resource.create(Attributes.of(SERVICE_NAME, properties.getServiceName()))))
+        .setSampler(Sampler.parentBased(
+            Sampler.traceIdRatioBased(properties.getSamplingRatio())))
+        .addSpanProcessor(BatchSpanProcessor.builder(spanExporter.getObject())
+            .setScheduleDelay(properties.getExportDelay())
+            .build())
+        .build();
+
+    // closed with the application context, which exports the remaining spans
+    return OpenTelemetrySdk.builder()
+        .setTracerProvider(tracerProvider)
+        .setPropagators(ContextPropagators.create(W3CTraceContextPropagator.getInstance()))
+        .build();
+  }
+}
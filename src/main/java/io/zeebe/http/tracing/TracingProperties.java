@@ -0,0 +1,78 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http.tracing;
+
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Traces the jobs with OpenTelemetry and exports the spans to an OTLP endpoint. For example:
+ *
+ * <pre>
+ * WORKER_TRACING_ENABLED=true
+ * WORKER_TRACING_ENDPOINT=http://otel-collector:4318/v1/traces
+ * WORKER_TRACING_SAMPLING_RATIO=0.1
+ * </pre>
+ */
+@Component
+public class TracingProperties {
+
+  @Value( "${WORKER_TRACING_ENABLED:false}")
+  private boolean enabled;
+
+  @Value( "${WORKER_TRACING_SERVICE_NAME:zeebe-http-worker}")
+  private String serviceName;
+
+  // the OTLP/HTTP endpoint of the traces
+  @Value( "${WORKER_TRACING_ENDPOINT:http://localhost:4318/v1/traces}")
+  private String endpoint;
+
+  // the ratio of the jobs that are traced, unless the trace is sampled by a parent already
+  @Value( "${WORKER_TRACING_SAMPLING_RATIO:1.0}")
+  private double samplingRatio;
+
+  // the delay between two exports of the collected spans
+  @Value( "${WORKER_TRACING_EXPORT_DELAY:5s}")
+  private Duration exportDelay;
+
+  @Value( "${WORKER_TRACING_EXPORT_TIMEOUT:10s}")
+  private Duration exportTimeout;
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public String getServiceName() {
+    return serviceName;
+  }
+
+  public String getEndpoint() {
+    return endpoint;
+  }
+
+  public double getSamplingRatio() {
+    return samplingRatio;
+  }
+
+  public Duration getExportDelay() {
+    return exportDelay;
+  }
+
+  public Duration getExportTimeout() {
+    return exportTimeout;
+  }
+}
@@ -1,6 +1,7 @@
 package io.zeebe.http.variables;
 
 import io.zeebe.http.ZeebeHttpWorkerConfig;
+import java.net.http.HttpClient;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -8,9 +9,10 @@ import org.springframework.context.annotation.Configuration;
 public class EnvironmentVariablesConfig {
 
   @Bean
-  public EnvironmentVariablesProvider getProvider(ZeebeHttpWorkerConfig config) {
+  public EnvironmentVariablesProvider getProvider(ZeebeHttpWorkerConfig config,
+      HttpClient httpClient) {
     if (config.isEnvironmentVariableUrlSet()) {
-      return new RemoteEnvironmentVariablesProvider(config);
+      return new RemoteEnvironmentVariablesProvider(config, httpClient);
     } else {
       return new LocalVariablesProvider(config);
     }
@@ -8,6 +8,9 @@ import java.util.stream.Collectors;
 public class LocalVariablesProvider implements EnvironmentVariablesProvider {
   private final ZeebeHttpWorkerConfig config;
 
+  // the environment of the process doesn't change, so the variables are filtered only once
+  private volatile Map<String, String> variables;
+
   protected LocalVariablesProvider(ZeebeHttpWorkerConfig config) {
     this.config = config;
   }
@@ -21,9 +24,14 @@ public class LocalVariablesProvider implements EnvironmentVariablesProvider {
    * prefix and (optionally) removing it.
    */
   public Map<String, String> getVariables() {
-    return getRawVariables().entrySet().stream()
-      .filter(this::startsWithPrefix)
-      .collect(Collectors.toMap(this::extractVariableName, Map.Entry::getValue));
+    Map<String, String> filteredVariables = variables;
+    if (filteredVariables == null) {
+      filteredVariables = getRawVariables().entrySet().stream()
+        .filter(this::startsWithPrefix)
+        .collect(Collectors.toMap(this::extractVariableName, Map.Entry::getValue));
+      variables = filteredVariables;
+    }
+    return filteredVariables;
   }
 
   private Boolean startsWithPrefix(Map.Entry<String, String> entry) {
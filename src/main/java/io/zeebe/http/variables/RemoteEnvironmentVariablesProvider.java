@@ -31,7 +31,7 @@ import javax.annotation.PostConstruct;
 public class RemoteEnvironmentVariablesProvider implements EnvironmentVariablesProvider {
 
   private final ZeebeHttpWorkerConfig config;
-  private final HttpClient client = HttpClient.newHttpClient();
+  private final HttpClient client;
   private final ObjectMapper objectMapper = new ObjectMapper();
   
   // M2M Token / JWT used for Auth0 in Cloud
@@ -45,8 +45,9 @@ public class RemoteEnvironmentVariablesProvider implements EnvironmentVariablesP
     public String value;
   }
 
-  protected RemoteEnvironmentVariablesProvider(ZeebeHttpWorkerConfig config) {
+  protected RemoteEnvironmentVariablesProvider(ZeebeHttpWorkerConfig config, HttpClient client) {
     this.config = config;
+    this.client = client;
   }
 
   public Map<String, String> getVariables() {
@@ -39,4 +39,69 @@ class ConfigurationMapsTest {
     // then
     assertThat(valueLower.get()).isEqualTo("value");
   }
+
+  @Test
+  void shouldPreferNonEmptyValueIgnoringCase() {
+    // given
+    customHeaders.put("url", "");
+    customHeaders.put("URL", "value");
+    configurationMaps = new ConfigurationMaps(job, environmentVariables);
+
+    // when
+    final Optional<String> value = configurationMaps.getStringIgnoreCase("Url");
+
+    // then
+    assertThat(value).contains("value");
+  }
+
+  @Test
+  void shouldReturnEmptyIfKeyIsNotPresent() {
+    // given
+    configurationMaps = new ConfigurationMaps(job, environmentVariables);
+
+    // when
+    final Optional<String> value = configurationMaps.getStringIgnoreCase("key");
+
+    // then
+    assertThat(value).isEmpty();
+  }
+
+  @Test
+  void shouldExtractHttpHeaders() {
+    // given
+    customHeaders.put("header-x-lower", "a");
+    customHeaders.put("HEADER-x-upper", "b");
+    customHeaders.put("url", "c");
+    configurationMaps = new ConfigurationMaps(job, Map.of("header-x-env", "d"));
+
+    // when
+    final Map<String, Object> httpHeaders = configurationMaps.getHttpHeaders();
+
+    // then
+    assertThat(httpHeaders).containsOnly(
+        Map.entry("header-x-lower", "a"),
+        Map.entry("HEADER-x-upper", "b"),
+        Map.entry("header-x-env", "d"));
+  }
+
+  @Test
+  void shouldResolveKeyThroughLayers() {
+    // given
+    customHeaders.put("a", "header");
+    customHeaders.put("b", "header");
+    customHeaders.put("c", "header");
+    when(job.getVariablesAsMap()).thenReturn(Map.of("b", "variable", "c", "variable"));
+    when(job.getKey()).thenReturn(1L);
+    configurationMaps = new ConfigurationMaps(job, Map.of("c", "environment"));
+
+    // when
+    final Map<String, Object> config = configurationMaps.getConfig();
+
+    // then
+    assertThat(config)
+        .containsEntry("a", "header")
+        .containsEntry("b", "variable")
+        .containsEntry("c", "environment")
+        .containsEntry("jobKey", 1L);
+  }
 }
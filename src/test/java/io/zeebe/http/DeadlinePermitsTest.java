@@ -0,0 +1,159 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class DeadlinePermitsTest {
+
+  private final AtomicLong clock = new AtomicLong(1_000_000);
+  private final DeadlinePermits permits = new DeadlinePermits(1, 2, clock::get);
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+
+  private final List<String> started = new CopyOnWriteArrayList<>();
+  private final List<String> expired = new CopyOnWriteArrayList<>();
+
+  @AfterEach
+  void shutdown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void shouldStartJobIfPermitIsAvailable() throws InterruptedException {
+    // when
+    submit("job", deadlineIn(Duration.ofMinutes(1)));
+
+    // then
+    assertThat(started).containsExactly("job");
+    assertThat(permits.getWaitingJobs()).isZero();
+  }
+
+  @Test
+  void shouldSkipJobIfDeadlineHasPassed() throws InterruptedException {
+    // when
+    submit("expired", deadlineIn(Duration.ofMillis(-1)));
+    submit("job", deadlineIn(Duration.ofMinutes(1)));
+
+    // then
+    assertThat(expired).containsExactly("expired");
+    assertThat(started).containsExactly("job");
+  }
+
+  @Test
+  void shouldStartWaitingJobWithEarliestDeadline() throws InterruptedException {
+    // given
+    submit("first", deadlineIn(Duration.ofMinutes(3)));
+    submit("later", deadlineIn(Duration.ofMinutes(2)));
+    submit("earlier", deadlineIn(Duration.ofMinutes(1)));
+
+    assertThat(started).containsExactly("first");
+    assertThat(permits.getWaitingJobs()).isEqualTo(2);
+
+    // when
+    permits.release();
+
+    // then
+    assertThat(started).containsExactly("first", "earlier");
+
+    permits.release();
+    assertThat(started).containsExactly("first", "earlier", "later");
+  }
+
+  @Test
+  void shouldSkipWaitingJobIfDeadlineHasPassed() throws InterruptedException {
+    // given
+    submit("first", deadlineIn(Duration.ofMinutes(1)));
+    submit("expiring", deadlineIn(Duration.ofSeconds(1)));
+    submit("waiting", deadlineIn(Duration.ofMinutes(1)));
+
+    // when
+    clock.addAndGet(Duration.ofSeconds(1).toMillis());
+    permits.release();
+
+    // then
+    assertThat(expired).containsExactly("expiring");
+    assertThat(started).containsExactly("first", "waiting");
+    assertThat(permits.getWaitingJobs()).isZero();
+  }
+
+  @Test
+  void shouldWaitIfQueueIsFull() throws InterruptedException {
+    // given
+    submit("first", deadlineIn(Duration.ofMinutes(1)));
+    submit("second", deadlineIn(Duration.ofMinutes(1)));
+    submit("third", deadlineIn(Duration.ofMinutes(1)));
+
+    // when
+    final CompletableFuture<Void> submitted = CompletableFuture.runAsync(() -> {
+      try {
+        submit("fourth", deadlineIn(Duration.ofMinutes(1)));
+      } catch (InterruptedException e) {
+        throw new IllegalStateException(e);
+      }
+    }, executor);
+
+    // then
+    await().during(Duration.ofMillis(200)).until(() -> !submitted.isDone());
+
+    permits.release();
+    assertThat(submitted).succeedsWithin(Duration.ofSeconds(5));
+    assertThat(started).containsExactly("first", "second");
+    assertThat(permits.getWaitingJobs()).isEqualTo(2);
+  }
+
+  @Test
+  void shouldStartWaitingJobsWithoutRecursion() throws InterruptedException {
+    // given
+    final DeadlinePermits permits = new DeadlinePermits(1, 1_000, clock::get);
+    final List<Integer> stackDepths = new ArrayList<>();
+    permits.submit(deadlineIn(Duration.ofMinutes(1)), () -> { }, () -> { });
+
+    for (int i = 0; i < 1_000; i++) {
+      // each job is done right away and releases its permit
+      permits.submit(deadlineIn(Duration.ofMinutes(1)), () -> {
+        stackDepths.add(Thread.currentThread().getStackTrace().length);
+        permits.release();
+      }, () -> { });
+    }
+
+    // when
+    permits.release();
+
+    // then
+    assertThat(stackDepths).hasSize(1_000);
+    assertThat(stackDepths).containsOnly(stackDepths.get(0));
+  }
+
+  private void submit(String job, long deadline) throws InterruptedException {
+    permits.submit(deadline, () -> started.add(job), () -> expired.add(job));
+  }
+
+  private long deadlineIn(Duration duration) {
+    return clock.get() + duration.toMillis();
+  }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class DurationsTest {
+
+  @Test
+  void shouldParseDurations() {
+    assertThat(Durations.parse("500ms")).isEqualTo(Duration.ofMillis(500));
+    assertThat(Durations.parse(" 5s ")).isEqualTo(Duration.ofSeconds(5));
+    assertThat(Durations.parse("PT1M")).isEqualTo(Duration.ofMinutes(1));
+    assertThat(Durations.parse("250")).isEqualTo(Duration.ofMillis(250));
+  }
+
+  @Test
+  void shouldFailOnInvalidDuration() {
+    assertThatThrownBy(() -> Durations.parse("soon"))
+        .hasMessage("Invalid duration: soon");
+  }
+}
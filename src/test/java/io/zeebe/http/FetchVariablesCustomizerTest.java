@@ -0,0 +1,57 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.camunda.zeebe.spring.client.annotation.value.ZeebeWorkerValue;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class FetchVariablesCustomizerTest {
+
+  private final ZeebeHttpWorkerConfig config = mock(ZeebeHttpWorkerConfig.class);
+
+  @Test
+  void shouldFetchAllVariablesByDefault() {
+    // given
+    when(config.getFetchVariables()).thenReturn(List.of());
+    final ZeebeWorkerValue worker = new ZeebeWorkerValue();
+
+    // when
+    new FetchVariablesCustomizer(config).customize(worker);
+
+    // then
+    assertThat(worker.getFetchVariables()).isNullOrEmpty();
+  }
+
+  @Test
+  void shouldFetchConfiguredVariablesAndParameters() {
+    // given
+    when(config.getFetchVariables()).thenReturn(List.of("orderId", "customer"));
+    final ZeebeWorkerValue worker = new ZeebeWorkerValue();
+
+    // when
+    new FetchVariablesCustomizer(config).customize(worker);
+
+    // then
+    assertThat(worker.getFetchVariables())
+        .contains("orderId", "customer", "url", "body", "contentType", "statusCodeFailure")
+        .hasSize(HttpJobHandler.PARAMETER_NAMES.size() + 2);
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class HttpClientsTest {
+
+  private final HttpClient defaultClient = HttpClient.newHttpClient();
+  private final ZeebeHttpWorkerConfig config = mock(ZeebeHttpWorkerConfig.class);
+
+  private HttpClients clients;
+
+  @BeforeEach
+  void setUp() {
+    when(config.getHttpClientConnectTimeout()).thenReturn(Duration.ofSeconds(60));
+    when(config.newHttpClient(any())).thenAnswer(invocation -> HttpClient.newBuilder()
+        .connectTimeout(invocation.getArgument(0))
+        .build());
+    clients = new HttpClients(defaultClient, config);
+  }
+
+  @Test
+  void shouldUseDefaultClient() {
+    // when/then
+    assertThat(clients.get(null)).isSameAs(defaultClient);
+    assertThat(clients.get(Duration.ofSeconds(60))).isSameAs(defaultClient);
+  }
+
+  @Test
+  void shouldShareClientOfRoundedTimeout() {
+    // when
+    final HttpClient client = clients.get(Duration.ofMillis(4200));
+
+    // then
+    assertThat(client.connectTimeout()).contains(Duration.ofSeconds(5));
+    assertThat(clients.get(Duration.ofMillis(4700))).isSameAs(client);
+    assertThat(clients.get(Duration.ofSeconds(5))).isSameAs(client);
+    assertThat(clients.get(Duration.ofMillis(100)).connectTimeout())
+        .contains(Duration.ofSeconds(1));
+  }
+
+  @Test
+  void shouldLimitNumberOfClients() {
+    // when
+    for (int seconds = 1; seconds <= HttpClients.MAXIMUM_CLIENTS * 2; seconds++) {
+      clients.get(Duration.ofSeconds(seconds));
+    }
+
+    // then
+    clients.getClients().cleanUp();
+    assertThat(clients.getClients().estimatedSize())
+        .isLessThanOrEqualTo(HttpClients.MAXIMUM_CLIENTS);
+  }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.camunda.zeebe.client.api.command.ClientStatusException;
+import io.camunda.zeebe.client.api.response.ActivatedJob;
+import io.grpc.Status;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class JobCommandsTest {
+
+  private JobCommands jobCommands;
+  private ActivatedJob job;
+
+  @BeforeEach
+  void setUp() {
+    final ZeebeHttpWorkerConfig config = mock(ZeebeHttpWorkerConfig.class);
+    when(config.getMaxOutstandingCommands()).thenReturn(1);
+    when(config.getCommandRetries()).thenReturn(2);
+    when(config.getCommandRetryDelay()).thenReturn(Duration.ofMillis(10));
+    jobCommands = new JobCommands(config, new SimpleMeterRegistry());
+
+    job = mock(ActivatedJob.class);
+    when(job.getKey()).thenReturn(1L);
+    when(job.getDeadline()).thenReturn(System.currentTimeMillis() + 60_000);
+  }
+
+  @Test
+  void shouldQueueCommandIfLimitIsReached() {
+    // given
+    final CompletableFuture<String> firstResponse = new CompletableFuture<>();
+    final CompletableFuture<String> first = jobCommands.send(job, () -> firstResponse);
+
+    // when
+    final AtomicInteger secondSent = new AtomicInteger();
+    final CompletableFuture<String> second = jobCommands.send(job, () -> {
+      secondSent.incrementAndGet();
+      return CompletableFuture.completedFuture("second");
+    });
+
+    // then
+    assertThat(secondSent).hasValue(0);
+    assertThat(jobCommands.getOutstandingCommands()).isEqualTo(1);
+    assertThat(jobCommands.getQueuedCommands()).isEqualTo(1);
+
+    firstResponse.complete("first");
+
+    assertThat(first).isCompletedWithValue("first");
+    assertThat(second).isCompletedWithValue("second");
+    assertThat(secondSent).hasValue(1);
+    assertThat(jobCommands.getOutstandingCommands()).isEqualTo(0);
+    assertThat(jobCommands.getQueuedCommands()).isEqualTo(0);
+  }
+
+  @Test
+  void shouldSendQueuedCommandsWithoutRecursion() {
+    // given
+    final CompletableFuture<String> firstResponse = new CompletableFuture<>();
+    jobCommands.send(job, () -> firstResponse);
+
+    final List<Integer> stackDepths = new ArrayList<>();
+    final List<CompletableFuture<String>> commands = new ArrayList<>();
+    for (int i = 0; i < 1_000; i++) {
+      // each command is acknowledged right away and releases its permit
+      commands.add(jobCommands.send(job, () -> {
+        stackDepths.add(Thread.currentThread().getStackTrace().length);
+        return CompletableFuture.completedFuture("next");
+      }));
+    }
+
+    // when
+    firstResponse.complete("first");
+
+    // then
+    assertThat(commands).allSatisfy(command -> assertThat(command).isCompletedWithValue("next"));
+    assertThat(stackDepths).hasSize(1_000);
+    assertThat(stackDepths).containsOnly(stackDepths.get(0));
+    assertThat(jobCommands.getOutstandingCommands()).isEqualTo(0);
+    assertThat(jobCommands.getQueuedCommands()).isEqualTo(0);
+  }
+
+  @Test
+  void shouldRetryCommandOnTransientFailure() {
+    // given
+    final AtomicInteger attempts = new AtomicInteger();
+
+    // when
+    final CompletableFuture<String> result = jobCommands.send(job, () ->
+        attempts.incrementAndGet() == 1
+            ? CompletableFuture.failedFuture(new ClientStatusException(Status.UNAVAILABLE, null))
+            : CompletableFuture.completedFuture("done"));
+
+    // then
+    assertThat(result).succeedsWithin(Duration.ofSeconds(5)).isEqualTo("done");
+    assertThat(attempts).hasValue(2);
+  }
+
+  @Test
+  void shouldNotRetryCommandIfRejected() {
+    // given
+    final AtomicInteger attempts = new AtomicInteger();
+
+    // when
+    final CompletableFuture<String> result = jobCommands.send(job, () -> {
+      attempts.incrementAndGet();
+      return CompletableFuture.failedFuture(new ClientStatusException(Status.NOT_FOUND, null));
+    });
+
+    // then
+    assertThat(result)
+        .failsWithin(Duration.ofSeconds(5))
+        .withThrowableOfType(ExecutionException.class)
+        .withCauseInstanceOf(ClientStatusException.class);
+    assertThat(attempts).hasValue(1);
+  }
+
+  @Test
+  void shouldNotRetryCommandWithUnknownOutcome() {
+    // given
+    final AtomicInteger attempts = new AtomicInteger();
+
+    // when
+    final CompletableFuture<String> result = jobCommands.send(job, () -> {
+      attempts.incrementAndGet();
+      return CompletableFuture.failedFuture(
+          new ClientStatusException(Status.DEADLINE_EXCEEDED, null));
+    });
+
+    // then
+    assertThat(result)
+        .failsWithin(Duration.ofSeconds(5))
+        .withThrowableOfType(ExecutionException.class)
+        .satisfies(e -> assertThat(JobCommands.hasUnknownOutcome(e.getCause())).isTrue());
+    assertThat(attempts).hasValue(1);
+  }
+
+  @Test
+  void shouldGiveUpAfterMaxRetries() {
+    // given
+    final AtomicInteger attempts = new AtomicInteger();
+
+    // when
+    final CompletableFuture<String> result = jobCommands.send(job, () -> {
+      attempts.incrementAndGet();
+      return CompletableFuture.failedFuture(
+          new ClientStatusException(Status.RESOURCE_EXHAUSTED, null));
+    });
+
+    // then
+    assertThat(result).failsWithin(Duration.ofSeconds(5));
+    assertThat(attempts).hasValue(3);
+  }
+}
@@ -0,0 +1,266 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.camunda.zeebe.client.api.response.ActivatedJob;
+import io.camunda.zeebe.client.api.worker.JobClient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.api.OpenTelemetry;
+import io.zeebe.http.tracing.JobTracer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class JobDispatcherTest {
+
+  private final HttpJobHandler jobHandler = mock(HttpJobHandler.class);
+  private final ZeebeHttpWorkerConfig config = mock(ZeebeHttpWorkerConfig.class);
+  private final JobClient jobClient = mock(JobClient.class);
+
+  private final List<CompletableFuture<Void>> jobs = new CopyOnWriteArrayList<>();
+  private final List<Thread> jobThreads = new CopyOnWriteArrayList<>();
+  private final List<ActivatedJob> startedJobs = new CopyOnWriteArrayList<>();
+
+  private JobDispatcher dispatcher;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    when(config.getMaxInFlightRequests()).thenReturn(2);
+    when(config.getMaxWaitingJobs()).thenReturn(3);
+    when(jobHandler.execute(any(), any(), any())).thenAnswer(invocation -> {
+      final CompletableFuture<Void> job = new CompletableFuture<>();
+      jobs.add(job);
+      jobThreads.add(Thread.currentThread());
+      startedJobs.add(invocation.getArgument(1));
+      return job;
+    });
+  }
+
+  @AfterEach
+  void tearDown() {
+    jobs.forEach(job -> job.complete(null));
+    if (dispatcher != null) {
+      dispatcher.close();
+    }
+  }
+
+  @Test
+  void shouldHandleJobsOnWorkerThread() throws Exception {
+    // given
+    dispatcher = createDispatcher(false, Optional::empty);
+
+    // when
+    dispatcher.dispatch(jobClient, newJob());
+
+    // then
+    assertThat(jobThreads).containsExactly(Thread.currentThread());
+    assertThat(dispatcher.getJobsInFlight()).isEqualTo(1);
+
+    jobs.get(0).complete(null);
+    assertThat(dispatcher.getJobsInFlight()).isZero();
+  }
+
+  @Test
+  void shouldHandleJobsOnOwnThreads() throws Exception {
+    // given
+    dispatcher = createDispatcher(true, () -> Optional.of(Executors.newCachedThreadPool()));
+
+    // when
+    dispatcher.dispatch(jobClient, newJob());
+
+    // then
+    await().until(() -> jobThreads.size() == 1);
+    assertThat(jobThreads).doesNotContain(Thread.currentThread());
+    assertThat(dispatcher.getJobsInFlight()).isEqualTo(1);
+
+    jobs.get(0).complete(null);
+    await().until(() -> dispatcher.getJobsInFlight() == 0);
+  }
+
+  @Test
+  void shouldLimitJobsOnOwnThreads() throws Exception {
+    // given
+    final ExecutorService executor = Executors.newCachedThreadPool();
+    dispatcher = createDispatcher(true, () -> Optional.of(executor));
+    dispatcher.dispatch(jobClient, newJob());
+    dispatcher.dispatch(jobClient, newJob());
+
+    // when
+    dispatcher.dispatch(jobClient, newJob());
+
+    // then
+    await().until(() -> jobs.size() == 2);
+    assertThat(dispatcher.getJobsInFlight()).isEqualTo(2);
+
+    jobs.get(0).complete(null);
+    await().until(() -> jobs.size() == 3);
+  }
+
+  @Test
+  void shouldStartJobWithEarliestDeadlineFirst() throws Exception {
+    // given
+    dispatcher = createDispatcher(false, Optional::empty);
+    dispatcher.dispatch(jobClient, newJob());
+    dispatcher.dispatch(jobClient, newJob());
+
+    // when - more jobs than worker threads wait for a permit
+    final ActivatedJob latest = newJob(Duration.ofMinutes(3));
+    final ActivatedJob earliest = newJob(Duration.ofMinutes(1));
+    final ActivatedJob later = newJob(Duration.ofMinutes(2));
+    dispatcher.dispatch(jobClient, latest);
+    dispatcher.dispatch(jobClient, earliest);
+    dispatcher.dispatch(jobClient, later);
+
+    // then
+    assertThat(startedJobs).hasSize(2);
+
+    jobs.get(0).complete(null);
+    jobs.get(1).complete(null);
+    await().until(() -> jobs.size() == 4);
+    jobs.get(2).complete(null);
+    await().until(() -> jobs.size() == 5);
+    assertThat(startedJobs).endsWith(earliest, later, latest);
+  }
+
+  @Test
+  void shouldStartWaitingJobNotOnThreadThatReleasesPermit() throws Exception {
+    // given
+    dispatcher = createDispatcher(false, Optional::empty);
+    dispatcher.dispatch(jobClient, newJob());
+    dispatcher.dispatch(jobClient, newJob());
+    dispatcher.dispatch(jobClient, newJob());
+
+    // when - e.g. the thread of the HTTP client that receives the response
+    final Thread releasingThread = new Thread(() -> jobs.get(0).complete(null));
+    releasingThread.start();
+    releasingThread.join();
+
+    // then
+    await().until(() -> jobThreads.size() == 3);
+    assertThat(jobThreads.get(2))
+        .isNotEqualTo(releasingThread)
+        .isNotEqualTo(Thread.currentThread());
+    assertThat(jobThreads.get(2).getName()).isEqualTo("job-starter");
+  }
+
+  @Test
+  void shouldWaitIfQueueIsFull() throws Exception {
+    // given
+    dispatcher = createDispatcher(false, Optional::empty);
+    for (int i = 0; i < 5; i++) {
+      dispatcher.dispatch(jobClient, newJob());
+    }
+
+    // when
+    final AtomicBoolean dispatched = new AtomicBoolean();
+    final Thread workerThread = new Thread(() -> {
+      try {
+        dispatcher.dispatch(jobClient, newJob());
+        dispatched.set(true);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    workerThread.start();
+
+    // then
+    await().until(() -> workerThread.getState() == Thread.State.TIMED_WAITING);
+    assertThat(dispatched).isFalse();
+    assertThat(dispatcher.getJobsInFlight()).isEqualTo(2);
+
+    jobs.get(0).complete(null);
+    await().untilTrue(dispatched);
+    await().until(() -> jobs.size() == 3);
+  }
+
+  @Test
+  void shouldNotWaitForResponseOnOwnThread() throws Exception {
+    // given
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    dispatcher = createDispatcher(true, () -> Optional.of(executor));
+
+    // when
+    dispatcher.dispatch(jobClient, newJob());
+    dispatcher.dispatch(jobClient, newJob());
+
+    // then
+    await().until(() -> jobs.size() == 2);
+    assertThat(jobs).noneMatch(CompletableFuture::isDone);
+    assertThat(dispatcher.getJobsInFlight()).isEqualTo(2);
+  }
+
+  @Test
+  void shouldSkipJobIfDeadlineHasPassed() throws Exception {
+    // given
+    dispatcher = createDispatcher(false, Optional::empty);
+    final ActivatedJob job = newJob(Duration.ofMinutes(-1));
+
+    // when
+    dispatcher.dispatch(jobClient, job);
+
+    // then
+    assertThat(jobs).isEmpty();
+    verify(jobHandler).skip(eq(job), any());
+  }
+
+  @Test
+  void shouldHandleJobsOnWorkerThreadIfVirtualThreadsAreNotSupported() throws Exception {
+    // given
+    dispatcher = createDispatcher(true, Optional::empty);
+
+    // when
+    dispatcher.dispatch(jobClient, newJob());
+
+    // then
+    assertThat(jobThreads).containsExactly(Thread.currentThread());
+  }
+
+  private JobDispatcher createDispatcher(boolean virtualThreadsEnabled,
+      Supplier<Optional<ExecutorService>> virtualThreadExecutor) {
+    when(config.isVirtualThreadsEnabled()).thenReturn(virtualThreadsEnabled);
+    final JobDispatcher dispatcher = new JobDispatcher(jobHandler, config,
+        new SimpleMeterRegistry(), new JobTracer(OpenTelemetry.noop()), virtualThreadExecutor);
+    dispatcher.init();
+    return dispatcher;
+  }
+
+  private static ActivatedJob newJob() {
+    return newJob(Duration.ofMinutes(1));
+  }
+
+  private static ActivatedJob newJob(Duration remainingTime) {
+    final ActivatedJob job = mock(ActivatedJob.class);
+    when(job.getDeadline()).thenReturn(System.currentTimeMillis() + remainingTime.toMillis());
+    return job;
+  }
+}
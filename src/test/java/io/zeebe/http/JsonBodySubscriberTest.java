@@ -0,0 +1,194 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import org.junit.jupiter.api.Test;
+
+class JsonBodySubscriberTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Test
+  void shouldParseBodyFromChunks() throws Exception {
+    // when
+    final ResponseBody body = receive("{\"name\":\"Zee", "be\",\"values\":[1,", "2,3]}");
+
+    // then
+    assertThat(body.getKind()).isEqualTo(ResponseBody.Kind.JSON);
+    assertThat(body.getValue())
+        .isEqualTo(Map.of("name", "Zeebe", "values", List.of(1, 2, 3)));
+    assertThat(body.getText()).isEqualTo("{\"name\":\"Zeebe\",\"values\":[1,2,3]}");
+  }
+
+  @Test
+  void shouldParseScalarBody() throws Exception {
+    // when
+    final ResponseBody body = receive("4", "2");
+
+    // then
+    assertThat(body.getValue()).isEqualTo(42);
+  }
+
+  @Test
+  void shouldReturnEmptyBody() throws Exception {
+    // when
+    final ResponseBody body = receive();
+
+    // then
+    assertThat(body.isEmpty()).isTrue();
+  }
+
+  @Test
+  void shouldFailOnInvalidJson() {
+    // when/then
+    assertThatThrownBy(() -> receive("{\"name\":", "}"))
+        .hasMessageContaining("Failed to deserialize response body from JSON");
+  }
+
+  @Test
+  void shouldFailOnFieldWithoutValue() {
+    // when/then
+    assertThatThrownBy(() -> receive("[{\"name\":", "}]"))
+        .hasMessageContaining("Failed to deserialize response body from JSON");
+    assertThatThrownBy(() -> receive("{\"a\":{\"b\":", "}}"))
+        .hasMessageContaining("Failed to deserialize response body from JSON");
+  }
+
+  @Test
+  void shouldValidateFieldWithoutValueThatTheNonBlockingParserAccepts() throws Exception {
+    // given - the reason for the validation of the tokens: if the body is split right after the
+    // colon, the non-blocking parser of Jackson (2.13) reports the end of the object as value
+    final JsonParser parser = objectMapper.getFactory().createNonBlockingByteArrayParser();
+    final ByteArrayFeeder feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+
+    // when
+    final List<JsonToken> parsedTokens = new ArrayList<>();
+    for (String chunk : List.of("{\"name\":", "}")) {
+      final byte[] bytes = chunk.getBytes(StandardCharsets.UTF_8);
+      feeder.feedInput(bytes, 0, bytes.length);
+      JsonToken token;
+      while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+        parsedTokens.add(token);
+      }
+    }
+    feeder.endOfInput();
+    parser.nextToken();
+
+    // then
+    assertThat(parsedTokens).containsExactly(
+        JsonToken.START_OBJECT, JsonToken.FIELD_NAME, JsonToken.END_OBJECT);
+    assertThatThrownBy(() -> receive("{\"name\":", "}"))
+        .hasMessageContaining("expected a value of the field");
+  }
+
+  @Test
+  void shouldFailOnIncompleteJson() {
+    // when/then
+    assertThatThrownBy(() -> receive("{\"name\":\"Zeebe\"", ",\"values\":[1"))
+        .hasMessageContaining("Failed to deserialize response body from JSON");
+    assertThatThrownBy(() -> receive(ResponseProjection.of(null,
+            ResponseProjection.parseVariables("{\"id\":\"/id\"}")), "{\"name\":", "\"x\""))
+        .hasMessageContaining("Failed to deserialize response body from JSON");
+  }
+
+  @Test
+  void shouldSelectProjectedValues() throws Exception {
+    // given
+    final ResponseProjection projection = ResponseProjection.of(
+        ResponseProjection.parsePath("/items/1"),
+        ResponseProjection.parseVariables("{\"id\":\"/order/id\", \"customer\":\"order.customer\"}"));
+
+    // when
+    final ResponseBody body = receive(projection,
+        "{\"order\":{\"id\":42,\"cust", "omer\":{\"name\":\"Zeebe\"}},",
+        "\"items\":[\"a\",{\"b\":[1,2]},\"c\"],\"other\":\"x\"}");
+
+    // then
+    assertThat(body.getKind()).isEqualTo(ResponseBody.Kind.PROJECTION);
+    assertThat(body.getVariables())
+        .containsEntry("id", 42)
+        .containsEntry("customer", Map.of("name", "Zeebe"))
+        .containsEntry("body", Map.of("b", List.of(1, 2)))
+        .hasSize(3);
+  }
+
+  @Test
+  void shouldNotSetMissingProjectedValues() throws Exception {
+    // given
+    final ResponseProjection projection =
+        ResponseProjection.of(null, ResponseProjection.parseVariables("{\"id\":\"/id\"}"));
+
+    // when
+    final ResponseBody body = receive(projection, "{\"name\":\"Zeebe\"}");
+
+    // then
+    assertThat(body.getVariables()).isEmpty();
+  }
+
+  @Test
+  void shouldSelectWholeBody() throws Exception {
+    // given
+    final ResponseProjection projection = ResponseProjection.of(
+        ResponseProjection.parsePath(""), Map.of());
+
+    // when
+    final ResponseBody body = receive(projection, "[1,", "2]");
+
+    // then
+    assertThat(body.getVariables()).containsEntry("body", List.of(1, 2));
+  }
+
+  private ResponseBody receive(String... chunks) throws Exception {
+    return receive(ResponseProjection.none(), chunks);
+  }
+
+  private ResponseBody receive(ResponseProjection projection, String... chunks)
+      throws Exception {
+    final JsonBodySubscriber subscriber = new JsonBodySubscriber(objectMapper, projection);
+    subscriber.onSubscribe(new Flow.Subscription() {
+      @Override
+      public void request(long n) {}
+
+      @Override
+      public void cancel() {}
+    });
+
+    for (String chunk : chunks) {
+      subscriber.onNext(List.of(ByteBuffer.wrap(chunk.getBytes(StandardCharsets.UTF_8))));
+    }
+    subscriber.onComplete();
+
+    try {
+      return subscriber.getBody().toCompletableFuture().get();
+    } catch (ExecutionException e) {
+      throw (Exception) e.getCause();
+    }
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.zeebe.http.ResponseSizeLimit.Action;
+import java.net.http.HttpResponse.BodySubscriber;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+import org.junit.jupiter.api.Test;
+
+class MeasuredBodySubscriberTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final List<Long> recordedBytes = new ArrayList<>();
+  private final List<Boolean> recordedOutcomes = new ArrayList<>();
+
+  @Test
+  void shouldMeasureCompletedBody() {
+    // given
+    final BodySubscriber<ResponseBody> subscriber = measure(
+        new JsonBodySubscriber(objectMapper, ResponseProjection.none()));
+
+    // when
+    receive(subscriber, "{\"x\":", "42}");
+
+    // then
+    assertThat(subscriber.getBody().toCompletableFuture()).isCompleted();
+    assertThat(recordedBytes).containsExactly(8L);
+    assertThat(recordedOutcomes).containsExactly(true);
+  }
+
+  @Test
+  void shouldMeasureBodyThatExceedsLimit() {
+    // given
+    final BodySubscriber<ResponseBody> subscriber = measure(limit(Action.FAIL, -1));
+
+    // when
+    receive(subscriber, "{\"x\":", "\"0123456789\"}");
+
+    // then
+    assertThat(subscriber.getBody().toCompletableFuture())
+        .failsWithin(Duration.ofSeconds(1));
+    assertThat(recordedBytes).containsExactly(18L);
+    assertThat(recordedOutcomes).containsExactly(false);
+  }
+
+  @Test
+  void shouldMeasureDroppedBodyWithAnnouncedLength() {
+    // given
+    final BodySubscriber<ResponseBody> subscriber = measure(limit(Action.DROP, 18));
+
+    // when
+    receive(subscriber);
+
+    // then
+    assertThat(subscriber.getBody().toCompletableFuture().join().isEmpty()).isTrue();
+    assertThat(recordedBytes).containsExactly(0L);
+    assertThat(recordedOutcomes).containsExactly(false);
+  }
+
+  private BodySubscriber<ResponseBody> limit(Action action, long contentLength) {
+    return new LimitedBodySubscriber(
+        new JsonBodySubscriber(objectMapper, ResponseProjection.none()),
+        ResponseSizeLimit.of(8, action), contentLength, StandardCharsets.UTF_8, false, () -> {});
+  }
+
+  private BodySubscriber<ResponseBody> measure(BodySubscriber<ResponseBody> delegate) {
+    return new MeasuredBodySubscriber<>(delegate, (bytes, readTime, isCompleted) -> {
+      recordedBytes.add(bytes);
+      recordedOutcomes.add(isCompleted);
+    });
+  }
+
+  private void receive(BodySubscriber<ResponseBody> subscriber, String... chunks) {
+    final boolean[] isCancelled = {false};
+    subscriber.onSubscribe(new Flow.Subscription() {
+      @Override
+      public void request(long n) {}
+
+      @Override
+      public void cancel() {
+        isCancelled[0] = true;
+      }
+    });
+
+    for (String chunk : chunks) {
+      if (isCancelled[0]) {
+        return;
+      }
+      subscriber.onNext(List.of(ByteBuffer.wrap(chunk.getBytes(StandardCharsets.UTF_8))));
+    }
+    if (!isCancelled[0]) {
+      subscriber.onComplete();
+    }
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.github.mustachejava.MustacheException;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class PlaceholderProcessorTest {
+
+  private PlaceholderProcessor placeholderProcessor;
+
+  @BeforeEach
+  void setUp() {
+    placeholderProcessor = new PlaceholderProcessor();
+  }
+
+  @Test
+  void shouldReplacePlaceholders() {
+    // when
+    final String result = placeholderProcessor.process("/api/{{x}}", Map.of("x", 1));
+
+    // then
+    assertThat(result).isEqualTo("/api/1");
+  }
+
+  @Test
+  void shouldReuseCompiledTemplate() {
+    // when
+    final String first = placeholderProcessor.process("/api/{{x}}", Map.of("x", 1));
+    final String second = placeholderProcessor.process("/api/{{x}}", Map.of("x", 2));
+
+    // then
+    assertThat(first).isEqualTo("/api/1");
+    assertThat(second).isEqualTo("/api/2");
+    assertThat(placeholderProcessor.getTemplateCache().stats().missCount()).isEqualTo(1);
+    assertThat(placeholderProcessor.getTemplateCache().stats().hitCount()).isEqualTo(1);
+  }
+
+  @Test
+  void shouldNotCompileInputWithoutPlaceholders() {
+    // when
+    final String result = placeholderProcessor.process("/api", Map.of("x", 1));
+
+    // then
+    assertThat(result).isEqualTo("/api");
+    assertThat(placeholderProcessor.getTemplateCache().estimatedSize()).isZero();
+  }
+
+  @Test
+  void shouldReplaceLegacyPlaceholders() {
+    // when
+    final String result = placeholderProcessor.legacyProcess("/${a}/${b}/${a}",
+        Map.of("a", "x", "b", 2));
+
+    // then
+    assertThat(result).isEqualTo("/x/2/x");
+  }
+
+  @Test
+  void shouldKeepUnknownLegacyPlaceholders() {
+    // when
+    final String result = placeholderProcessor.legacyProcess("/${unknown}/${a${a}",
+        Map.of("a", "x"));
+
+    // then
+    assertThat(result).isEqualTo("/${unknown}/${ax");
+  }
+
+  @Test
+  void shouldNotInterpretLegacyPlaceholderValues() {
+    // when
+    final String result = placeholderProcessor.legacyProcess("price: ${price}",
+        Map.of("price", "$1.00 \\ ${price}"));
+
+    // then
+    assertThat(result).isEqualTo("price: $1.00 \\ ${price}");
+  }
+
+  @Test
+  void shouldFindReferencedNames() {
+    // when
+    final var names = placeholderProcessor
+        .compile("{{BASE_URL}}/order/{{order.id}}?{{#items}}{{name}}{{/items}}&x=${legacy}")
+        .getReferencedNames();
+
+    // then
+    assertThat(names).contains(Set.of("BASE_URL", "order", "items", "name", "legacy"));
+  }
+
+  @Test
+  void shouldNotFindReferencedNamesOfPartials() {
+    // when
+    final var names = placeholderProcessor.compile("{{> partial.mustache}}").getReferencedNames();
+
+    // then
+    assertThat(names).isEmpty();
+  }
+
+  @Test
+  void shouldFailToCompileMissingPartial() {
+    // when/then
+    assertThatThrownBy(() -> placeholderProcessor.compile("{{> missing}}"))
+        .isInstanceOf(MustacheException.class);
+  }
+}
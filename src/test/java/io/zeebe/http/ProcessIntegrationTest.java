@@ -7,6 +7,7 @@ import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
 import static com.github.tomakehurst.wiremock.client.WireMock.equalToJson;
 import static com.github.tomakehurst.wiremock.client.WireMock.get;
 import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.matching;
 import static com.github.tomakehurst.wiremock.client.WireMock.post;
 import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.put;
@@ -20,6 +21,7 @@ import com.github.tomakehurst.wiremock.junit5.WireMockRuntimeInfo;
 import com.github.tomakehurst.wiremock.junit5.WireMockTest;
 import com.github.tomakehurst.wiremock.stubbing.Scenario;
 import io.camunda.zeebe.client.ZeebeClient;
+import io.camunda.zeebe.client.api.response.ActivatedJob;
 import io.camunda.zeebe.client.api.response.ProcessInstanceEvent;
 import io.camunda.zeebe.model.bpmn.Bpmn;
 import io.camunda.zeebe.model.bpmn.builder.ServiceTaskBuilder;
@@ -32,10 +34,17 @@ import io.camunda.zeebe.process.test.filters.StreamFilter;
 import io.camunda.zeebe.protocol.record.intent.JobIntent;
 import io.camunda.zeebe.spring.test.ZeebeSpringTest;
 import io.camunda.zeebe.spring.test.ZeebeTestThreadSupport;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.zeebe.http.tracing.JobTracer;
 import java.time.Duration;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.function.Consumer;
 import org.assertj.core.api.Assertions;
 import org.awaitility.Awaitility;
@@ -44,6 +53,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
 
 @WireMockTest(httpPort = 8089)
 @SpringBootTest(
@@ -53,7 +64,9 @@ import org.springframework.boot.test.context.SpringBootTest;
         "ENV_VARS_M2M_BASE_URL:http://localhost:8089/token",
         "ENV_VARS_M2M_CLIENT_ID:someClientId",
         "ENV_VARS_M2M_CLIENT_SECRET:someSecret",
-        "ENV_VARS_M2M_AUDIENCE:someAudience"
+        "ENV_VARS_M2M_AUDIENCE:someAudience",
+        "WORKER_TRACING_ENABLED=true",
+        "WORKER_TRACING_EXPORT_DELAY=100ms"
     })
 @ZeebeSpringTest
 public class ProcessIntegrationTest {
@@ -64,6 +77,27 @@ public class ProcessIntegrationTest {
   @Autowired
   private ZeebeTestEngine zeebeTestEngine;
 
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Autowired
+  private InMemorySpanExporter spanExporter;
+
+  @Autowired
+  private HttpJobHandler jobHandler;
+
+  @Autowired
+  private JobTracer tracer;
+
+  @TestConfiguration
+  static class TracingTestConfig {
+
+    @Bean
+    public InMemorySpanExporter spanExporter() {
+      return InMemorySpanExporter.create();
+    }
+  }
+
   @BeforeEach
   public void configureApiMock(WireMockRuntimeInfo wmRuntimeInfo) {
     stubFor(
@@ -105,6 +139,71 @@ public class ProcessIntegrationTest {
     verify(getRequestedFor(urlEqualTo("/api")));
   }
 
+  @Test
+  public void testRecordMetricsOfRequest(WireMockRuntimeInfo wmRuntimeInfo) {
+
+    stubFor(
+        get(urlEqualTo("/api"))
+            .willReturn(
+                aResponse().withHeader("Content-Type", "application/json").withBody("{\"x\":1}")));
+
+    final var processInstance =
+        createInstance(
+            serviceTask ->
+                serviceTask
+                    .zeebeTaskHeader("url", wmRuntimeInfo.getHttpBaseUrl() + "/api")
+                    .zeebeTaskHeader("method", "GET"),
+            Collections.emptyMap());
+
+    ZeebeTestThreadSupport.waitForProcessInstanceCompleted(processInstance);
+
+    Assertions.assertThat(meterRegistry.get("zeebe.http.worker.http.requests")
+            .tags("type", "http", "method", "GET", "host", "localhost", "status", "2xx")
+            .timer().count())
+        .isGreaterThanOrEqualTo(1);
+    Assertions.assertThat(meterRegistry.get("zeebe.http.worker.response.size")
+            .tags("type", "http", "method", "GET", "host", "localhost", "status", "2xx")
+            .summaries().stream().mapToDouble(DistributionSummary::totalAmount).sum())
+        .isGreaterThanOrEqualTo(7);
+    Assertions.assertThat(meterRegistry.get("zeebe.http.worker.jobs.handled")
+            .tags("type", "http", "outcome", "completed", "status", "2xx")
+            .counter().count())
+        .isGreaterThanOrEqualTo(1);
+    Assertions.assertThat(meterRegistry.get("zeebe.http.worker.job.command")
+            .tags("type", "http", "command", "complete")
+            .timer().count())
+        .isGreaterThanOrEqualTo(1);
+  }
+
+  @Test
+  public void testTraceRequest(WireMockRuntimeInfo wmRuntimeInfo) {
+
+    stubFor(
+        get(urlEqualTo("/api"))
+            .willReturn(
+                aResponse().withHeader("Content-Type", "application/json").withBody("{}")));
+
+    final var processInstance =
+        createInstance(
+            serviceTask ->
+                serviceTask
+                    .zeebeTaskHeader("url", wmRuntimeInfo.getHttpBaseUrl() + "/api")
+                    .zeebeTaskHeader("method", "GET"),
+            Collections.emptyMap());
+
+    ZeebeTestThreadSupport.waitForProcessInstanceCompleted(processInstance);
+
+    verify(getRequestedFor(urlEqualTo("/api"))
+        .withHeader("traceparent", matching("00-[0-9a-f]{32}-[0-9a-f]{16}-01")));
+
+    Awaitility.await().untilAsserted(() ->
+        Assertions.assertThat(spanExporter.getFinishedSpanItems())
+            .filteredOn(span -> span.getName().equals("job http"))
+            .extracting(span -> span.getAttributes().get(
+                AttributeKey.longKey("job.process_instance_key")))
+            .contains(processInstance.getProcessInstanceKey()));
+  }
+
   @Test
   public void testGetAcceptPlainTextResponse(WireMockRuntimeInfo wmRuntimeInfo) {
 
@@ -275,53 +374,330 @@ public class ProcessIntegrationTest {
     BpmnAssert.assertThat(processInstance).isCompleted().hasVariableWithValue("statusCode", 404);
   }
 
+  @Test
+  public void testResultVariables(WireMockRuntimeInfo wmRuntimeInfo) {
+
+    stubFor(
+        get(urlEqualTo("/api"))
+            .willReturn(
+                aResponse().withHeader("Content-Type", "application/json")
+                    .withBody("{\"order\":{\"id\":42,\"items\":[\"a\",\"b\"]},\"other\":1}")));
+
+    final var processInstance =
+        createInstance(
+            serviceTask ->
+                serviceTask
+                    .zeebeTaskHeader("url", wmRuntimeInfo.getHttpBaseUrl() + "/api")
+                    .zeebeTaskHeader("resultPath", "/order/items")
+                    .zeebeTaskHeader("resultVariables", "{\"orderId\":\"/order/id\"}"),
+            Collections.emptyMap());
+
+    ZeebeTestThreadSupport.waitForProcessInstanceCompleted(processInstance);
+
+    BpmnAssert.assertThat(processInstance)
+        .isCompleted()
+        .hasVariableWithValue("statusCode", 200)
+        .hasVariableWithValue("orderId", 42)
+        .hasVariableWithValue("body", List.of("a", "b"));
+  }
+
+  @Test
+  public void testTruncateResponseExceedingMaxSize(WireMockRuntimeInfo wmRuntimeInfo) {
+
+    stubFor(
+        get(urlEqualTo("/api"))
+            .willReturn(
+                aResponse().withHeader("Content-Type", "application/json")
+                    .withBody("{\"x\":\"0123456789\"}")));
+
+    final var processInstance =
+        createInstance(
+            serviceTask ->
+                serviceTask
+                    .zeebeTaskHeader("url", wmRuntimeInfo.getHttpBaseUrl() + "/api")
+                    .zeebeTaskHeader("maxResponseSize", "8")
+                    .zeebeTaskHeader("responseSizeExceeded", "truncate"),
+            Collections.emptyMap());
+
+    ZeebeTestThreadSupport.waitForProcessInstanceCompleted(processInstance);
+
+    BpmnAssert.assertThat(processInstance)
+        .isCompleted()
+        .hasVariableWithValue("statusCode", 200)
+        .hasVariableWithValue("body", "{\"x\":\"01")
+        .hasVariableWithValue("bodyTruncated", true);
+  }
+
+  @Test
+  public void testDropResponseExceedingMaxSize(WireMockRuntimeInfo wmRuntimeInfo) {
+
+    stubFor(
+        get(urlEqualTo("/api"))
+            .willReturn(
+                aResponse().withHeader("Content-Type", "application/json")
+                    .withBody("{\"x\":\"0123456789\"}")));
+
+    final var processInstance =
+        createInstance(
+            serviceTask ->
+                serviceTask
+                    .zeebeTaskHeader("url", wmRuntimeInfo.getHttpBaseUrl() + "/api")
+                    .zeebeTaskHeader("maxResponseSize", "8")
+                    .zeebeTaskHeader("responseSizeExceeded", "drop"),
+            Collections.emptyMap());
+
+    ZeebeTestThreadSupport.waitForProcessInstanceCompleted(processInstance);
+
+    BpmnAssert.assertThat(processInstance)
+        .isCompleted()
+        .hasVariableWithValue("statusCode", 200);
+    Assertions.assertThat(meterRegistry.get("zeebe.http.worker.response.size")
+            .tags("type", "http", "status", "2xx", "outcome", "aborted")
+            .summaries())
+        .isNotEmpty();
+
+    final var completedJob = StreamFilter.jobRecords(
+            RecordStream.of(zeebeTestEngine.getRecordStreamSource()))
+        .withIntent(JobIntent.COMPLETED)
+        .stream().filter(
+            r -> r.getValue().getProcessInstanceKey() == processInstance.getProcessInstanceKey())
+        .findFirst()
+        .orElseThrow();
+    Assertions.assertThat(completedJob.getValue().getVariables()).doesNotContainKey("body");
+  }
+
   @Test
   public void testGetRequestDelayedResponse(WireMockRuntimeInfo wmRuntimeInfo)
       throws InterruptedException {
-    long originalResponseTimeout = HttpJobHandler.RESPONSE_TIMEOUT_VALUE;
-    try {
-      HttpJobHandler.RESPONSE_TIMEOUT_VALUE = 2; // 2 seconds
-
-      stubFor(
-          get(urlEqualTo("/api"))
-              .inScenario("DelayedResponseLeadToTimeoutScenario")
-              .whenScenarioStateIs(Scenario.STARTED)
-              .willReturn(
-                  aResponse()
-                      .withHeader("Content-Type", "application/json")
-                      .withBody("{\"x\":1}")
-                      .withFixedDelay(3 * 1000))
-              .willSetStateTo("WORKS_NOW"));
-      // second time it works
-      stubFor(
-          get(urlEqualTo("/api"))
-              .inScenario("DelayedResponseLeadToTimeoutScenario")
-              .whenScenarioStateIs("WORKS_NOW")
-              .willReturn(
-                  aResponse()
-                      .withHeader("Content-Type", "application/json")
-                      .withBody("{\"x\":1}")));
-
-      final var processInstance =
-          createInstance(
-              serviceTask ->
-                  serviceTask
-                      .zeebeTaskHeader("url", wmRuntimeInfo.getHttpBaseUrl() + "/api")
-                      .zeebeTaskHeader("method", "GET")
-                      .zeebeJobRetries("3"),
-              Collections.emptyMap());
-
-      // TODO: Think about a better way of doing this :-)
-      Thread.sleep(3 * 1000);
-
-      ZeebeTestThreadSupport.waitForProcessInstanceCompleted(processInstance);
-
-      BpmnAssert.assertThat(processInstance).isCompleted();
-
-      verify(2, getRequestedFor(urlEqualTo("/api")));
-    } finally {
-      HttpJobHandler.RESPONSE_TIMEOUT_VALUE = originalResponseTimeout;
-    }
+    stubFor(
+        get(urlEqualTo("/api"))
+            .inScenario("DelayedResponseLeadToTimeoutScenario")
+            .whenScenarioStateIs(Scenario.STARTED)
+            .willReturn(
+                aResponse()
+                    .withHeader("Content-Type", "application/json")
+                    .withBody("{\"x\":1}")
+                    .withFixedDelay(3 * 1000))
+            .willSetStateTo("WORKS_NOW"));
+    // second time it works
+    stubFor(
+        get(urlEqualTo("/api"))
+            .inScenario("DelayedResponseLeadToTimeoutScenario")
+            .whenScenarioStateIs("WORKS_NOW")
+            .willReturn(
+                aResponse()
+                    .withHeader("Content-Type", "application/json")
+                    .withBody("{\"x\":1}")));
+
+    final var processInstance =
+        createInstance(
+            serviceTask ->
+                serviceTask
+                    .zeebeTaskHeader("url", wmRuntimeInfo.getHttpBaseUrl() + "/api")
+                    .zeebeTaskHeader("method", "GET")
+                    .zeebeTaskHeader("requestTimeout", "2s")
+                    .zeebeJobRetries("3"),
+            Collections.emptyMap());
+
+    // TODO: Think about a better way of doing this :-)
+    Thread.sleep(3 * 1000);
+
+    ZeebeTestThreadSupport.waitForProcessInstanceCompleted(processInstance);
+
+    BpmnAssert.assertThat(processInstance).isCompleted();
+
+    verify(2, getRequestedFor(urlEqualTo("/api")));
+  }
+
+  @Test
+  public void testFailJobOnTotalTimeout(WireMockRuntimeInfo wmRuntimeInfo) {
+    stubFor(
+        get(urlEqualTo("/api"))
+            .willReturn(
+                aResponse()
+                    .withHeader("Content-Type", "application/json")
+                    .withBody("{\"x\":1}")
+                    .withFixedDelay(3 * 1000)));
+
+    final var processInstance =
+        createInstance(
+            serviceTask ->
+                serviceTask
+                    .zeebeTaskHeader("url", wmRuntimeInfo.getHttpBaseUrl() + "/api")
+                    .zeebeTaskHeader("requestTimeout", "1m")
+                    .zeebeTaskHeader("totalTimeout", "500ms")
+                    .zeebeJobRetries("1"),
+            Collections.emptyMap());
+
+    Awaitility.await().ignoreExceptions().untilAsserted(() -> {
+      final var recorderJob =
+          StreamFilter.jobRecords(RecordStream.of(zeebeTestEngine.getRecordStreamSource()))
+              .withIntent(JobIntent.FAILED)
+              .stream().filter(
+                  r -> r.getValue().getProcessInstanceKey() == processInstance.getProcessInstanceKey())
+              .findFirst().orElseThrow();
+
+      Assertions.assertThat(recorderJob.getValue().getErrorMessage())
+          .contains("TimeoutException");
+      Assertions.assertThat(recorderJob.getValue().getRetries()).isZero();
+    });
+  }
+
+  @Test
+  public void testDoNotFailJobIfRequestTimeoutIsCappedByDeadline(
+      WireMockRuntimeInfo wmRuntimeInfo) throws InterruptedException {
+    stubFor(
+        get(urlEqualTo("/api"))
+            .willReturn(
+                aResponse()
+                    .withHeader("Content-Type", "application/json")
+                    .withBody("{\"x\":1}")
+                    .withFixedDelay(3 * 1000)));
+
+    // the job is not activated by the worker, but with a lock that expires before the response
+    final var processInstance =
+        createInstance(
+            serviceTask ->
+                serviceTask
+                    .zeebeJobType("http-deadline")
+                    .zeebeTaskHeader("url", wmRuntimeInfo.getHttpBaseUrl() + "/api")
+                    .zeebeTaskHeader("requestTimeout", "1m")
+                    .zeebeTaskHeader("totalTimeout", "1m"),
+            Collections.emptyMap());
+
+    final ActivatedJob job = Awaitility.await().until(() -> client
+        .newActivateJobsCommand()
+        .jobType("http-deadline")
+        .maxJobsToActivate(1)
+        .timeout(Duration.ofSeconds(1))
+        .send()
+        .join()
+        .getJobs()
+        .stream()
+        .findFirst(), Optional::isPresent).orElseThrow();
+
+    final double expiredJobs = meterRegistry
+        .counter("zeebe.http.worker.jobs.expired", "stage", "in_flight").count();
+
+    // when
+    jobHandler.execute(client, job, tracer.start(job)).join();
+
+    // then
+    Assertions.assertThat(meterRegistry
+            .counter("zeebe.http.worker.jobs.expired", "stage", "in_flight").count())
+        .isEqualTo(expiredJobs + 1);
+
+    Assertions.assertThat(StreamFilter.jobRecords(
+            RecordStream.of(zeebeTestEngine.getRecordStreamSource()))
+        .withIntent(JobIntent.FAILED)
+        .stream()
+        .filter(r -> r.getValue().getProcessInstanceKey()
+            == processInstance.getProcessInstanceKey()))
+        .isEmpty();
+  }
+
+  @Test
+  public void testCoalesceConcurrentRequests(WireMockRuntimeInfo wmRuntimeInfo) {
+    stubFor(
+        get(urlEqualTo("/api"))
+            .willReturn(
+                aResponse()
+                    .withHeader("Content-Type", "application/json")
+                    .withBody("{\"x\":1}")
+                    .withFixedDelay(1000)));
+
+    final var processInstance =
+        createInstance(
+            serviceTask ->
+                serviceTask
+                    .zeebeTaskHeader("url", wmRuntimeInfo.getHttpBaseUrl() + "/api")
+                    .zeebeTaskHeader("coalesceRequests", "true")
+                    .multiInstance(loop -> loop
+                        .parallel()
+                        .zeebeInputCollectionExpression("[1, 2, 3]")
+                        .zeebeInputElement("item")),
+            Collections.emptyMap());
+
+    ZeebeTestThreadSupport.waitForProcessInstanceCompleted(processInstance);
+
+    BpmnAssert.assertThat(processInstance).isCompleted();
+
+    verify(1, getRequestedFor(urlEqualTo("/api")));
+    Assertions.assertThat(
+            meterRegistry.get("zeebe.http.worker.requests.coalesced").counter().count())
+        .isGreaterThanOrEqualTo(2);
+  }
+
+  @Test
+  public void testRetryRequestWithinWorker(WireMockRuntimeInfo wmRuntimeInfo) {
+
+    stubFor(
+        get(urlEqualTo("/api"))
+            .inScenario("RetryWithinWorkerScenario")
+            .whenScenarioStateIs(Scenario.STARTED)
+            .willReturn(aResponse().withStatus(503))
+            .willSetStateTo("WORKS_NOW"));
+    stubFor(
+        get(urlEqualTo("/api"))
+            .inScenario("RetryWithinWorkerScenario")
+            .whenScenarioStateIs("WORKS_NOW")
+            .willReturn(
+                aResponse()
+                    .withHeader("Content-Type", "application/json")
+                    .withBody("{\"x\":1}")));
+
+    final var processInstance =
+        createInstance(
+            serviceTask ->
+                serviceTask
+                    .zeebeTaskHeader("url", wmRuntimeInfo.getHttpBaseUrl() + "/api")
+                    .zeebeTaskHeader("requestRetries", "2")
+                    .zeebeTaskHeader("requestRetryDelay", "10ms")
+                    .zeebeJobRetries("1"),
+            Collections.emptyMap());
+
+    ZeebeTestThreadSupport.waitForProcessInstanceCompleted(processInstance);
+
+    BpmnAssert.assertThat(processInstance)
+        .isCompleted()
+        .hasVariableWithValue("statusCode", 200);
+
+    verify(2, getRequestedFor(urlEqualTo("/api")));
+  }
+
+  @Test
+  public void testDoNotRetryPostRequestOnResponseTimeout(WireMockRuntimeInfo wmRuntimeInfo) {
+
+    stubFor(
+        post(urlEqualTo("/api"))
+            .willReturn(
+                aResponse()
+                    .withHeader("Content-Type", "application/json")
+                    .withBody("{\"x\":1}")
+                    .withFixedDelay(2 * 1000)));
+
+    final var processInstance =
+        createInstance(
+            serviceTask ->
+                serviceTask
+                    .zeebeTaskHeader("url", wmRuntimeInfo.getHttpBaseUrl() + "/api")
+                    .zeebeTaskHeader("method", "POST")
+                    .zeebeTaskHeader("requestTimeout", "500ms")
+                    .zeebeTaskHeader("requestRetries", "2")
+                    .zeebeTaskHeader("requestRetryDelay", "10ms")
+                    .zeebeTaskHeader("requestRetryNonIdempotent", "true")
+                    .zeebeJobRetries("1"),
+            Collections.emptyMap());
+
+    Awaitility.await().ignoreExceptions().untilAsserted(() ->
+        StreamFilter.jobRecords(RecordStream.of(zeebeTestEngine.getRecordStreamSource()))
+            .withIntent(JobIntent.FAILED)
+            .stream().filter(
+                r -> r.getValue().getProcessInstanceKey() == processInstance.getProcessInstanceKey())
+            .findFirst().orElseThrow());
+
+    // the request may be processed already, so it is not sent again
+    verify(1, postRequestedFor(urlEqualTo("/api")));
   }
 
   @Test
@@ -702,6 +1078,36 @@ public class ProcessIntegrationTest {
             .withRequestBody(equalToJson("{\"y\":2}")));
   }
 
+  @Test
+  public void shouldRenderEnvironmentVariableWithVariablesOfJob(
+      WireMockRuntimeInfo wmRuntimeInfo) {
+    stubFor(
+        get(urlEqualTo("/config"))
+            .willReturn(
+                aResponse()
+                    .withHeader("Content-Type", "application/json")
+                    .withBody("[ {\"key\": \"authorization\", \"value\": \"Bearer {{token}}\"},"
+                        + " {\"key\": \"header-X-Tenant\", \"value\": \"{{tenant}}\"} ]")));
+    stubFor(get(urlEqualTo("/api")).willReturn(aResponse()));
+
+    final var processInstance =
+        createInstance(
+            serviceTask ->
+                serviceTask
+                    .zeebeTaskHeader("url", wmRuntimeInfo.getHttpBaseUrl() + "/api")
+                    .zeebeTaskHeader("method", "GET"),
+            Map.of("token", "secret-token", "tenant", "acme"));
+
+    ZeebeTestThreadSupport.waitForProcessInstanceCompleted(processInstance);
+
+    BpmnAssert.assertThat(processInstance).isCompleted().hasVariableWithValue("statusCode", 200);
+
+    verify(
+        getRequestedFor(urlEqualTo("/api"))
+            .withHeader("Authorization", equalTo("Bearer secret-token"))
+            .withHeader("X-Tenant", equalTo("acme")));
+  }
+
   @Test
   public void shouldReplacePlaceholdersWithConfigVariablesWithM2MTokenRefresh(
       WireMockRuntimeInfo wmRuntimeInfo) {
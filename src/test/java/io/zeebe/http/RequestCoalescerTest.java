@@ -0,0 +1,197 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+import org.junit.jupiter.api.Test;
+
+class RequestCoalescerTest {
+
+  private final AtomicInteger joined = new AtomicInteger();
+  private final RequestCoalescer<String> coalescer =
+      new RequestCoalescer<>(UnaryOperator.identity(), joined::incrementAndGet);
+
+  private final List<CompletableFuture<String>> requests = new ArrayList<>();
+  private final List<CompletableFuture<Void>> cancellations = new ArrayList<>();
+
+  @Test
+  void shouldShareRequestInFlight() {
+    // given
+    final CompletableFuture<String> first = execute("key", new CompletableFuture<>());
+    final CompletableFuture<String> second = execute("key", new CompletableFuture<>());
+
+    // when
+    requests.get(0).complete("response");
+
+    // then
+    assertThat(requests).hasSize(1);
+    assertThat(joined).hasValue(1);
+    assertThat(first).succeedsWithin(Duration.ofSeconds(5)).isEqualTo("response");
+    assertThat(second).succeedsWithin(Duration.ofSeconds(5)).isEqualTo("response");
+    assertThat(coalescer.getInFlightRequests()).isZero();
+  }
+
+  @Test
+  void shouldNotShareRequestWithDifferentKey() {
+    // when
+    execute("key-1", new CompletableFuture<>());
+    execute("key-2", new CompletableFuture<>());
+
+    // then
+    assertThat(requests).hasSize(2);
+    assertThat(joined).hasValue(0);
+    assertThat(coalescer.getInFlightRequests()).isEqualTo(2);
+  }
+
+  @Test
+  void shouldSendNewRequestAfterResponse() {
+    // given
+    execute("key", new CompletableFuture<>());
+    requests.get(0).complete("first");
+
+    // when
+    final CompletableFuture<String> later = execute("key", new CompletableFuture<>());
+    requests.get(1).complete("second");
+
+    // then
+    assertThat(requests).hasSize(2);
+    assertThat(later).succeedsWithin(Duration.ofSeconds(5)).isEqualTo("second");
+  }
+
+  @Test
+  void shouldShareFailure() {
+    // given
+    final CompletableFuture<String> first = execute("key", new CompletableFuture<>());
+    final CompletableFuture<String> second = execute("key", new CompletableFuture<>());
+
+    // when
+    requests.get(0).completeExceptionally(new IllegalStateException("connection refused"));
+
+    // then
+    assertThat(first).isCompletedExceptionally();
+    assertThat(second).isCompletedExceptionally();
+  }
+
+  @Test
+  void shouldNotCompleteOtherJobsIfOneTimesOut() {
+    // given
+    final CompletableFuture<String> first = execute("key", new CompletableFuture<>());
+    final CompletableFuture<String> second = execute("key", new CompletableFuture<>());
+
+    // when
+    first.completeExceptionally(new IllegalStateException("timeout"));
+    requests.get(0).complete("response");
+
+    // then
+    assertThat(second).succeedsWithin(Duration.ofSeconds(5)).isEqualTo("response");
+  }
+
+  @Test
+  void shouldCancelRequestWhenAllJobsGaveUp() {
+    // given
+    final CompletableFuture<Void> firstCancellation = new CompletableFuture<>();
+    final CompletableFuture<Void> secondCancellation = new CompletableFuture<>();
+    execute("key", firstCancellation);
+    execute("key", secondCancellation);
+
+    // when
+    firstCancellation.complete(null);
+
+    // then
+    assertThat(cancellations.get(0)).isNotDone();
+
+    // when
+    secondCancellation.complete(null);
+
+    // then
+    assertThat(cancellations.get(0)).isDone();
+  }
+
+  @Test
+  void shouldFailJoinedJobsIfRequestCanNotBeSent() {
+    // given
+    final CompletableFuture<Void> cancellation = new CompletableFuture<>();
+    final AtomicReference<CompletableFuture<String>> second = new AtomicReference<>();
+
+    // when
+    final CompletableFuture<String> first = coalescer.execute("key", cancellation,
+        sharedCancellation -> {
+          second.set(execute("key", new CompletableFuture<>()));
+          throw new IllegalStateException("invalid request");
+        });
+
+    // then
+    assertThat(first).isCompletedExceptionally();
+    assertThat(second.get()).isCompletedExceptionally();
+    assertThat(coalescer.getInFlightRequests()).isZero();
+
+    final CompletableFuture<String> later = execute("key", new CompletableFuture<>());
+    requests.get(0).complete("response");
+    assertThat(later).succeedsWithin(Duration.ofSeconds(5)).isEqualTo("response");
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void shouldGiveJoinedJobsOwnCopyOfResponse() {
+    // given
+    final RequestCoalescer<HttpResponse<ResponseBody>> responseCoalescer =
+        new RequestCoalescer<>(CopiedHttpResponse::of, () -> {});
+    final CompletableFuture<HttpResponse<ResponseBody>> request = new CompletableFuture<>();
+    final CompletableFuture<HttpResponse<ResponseBody>> first = responseCoalescer.execute("key",
+        new CompletableFuture<>(), sharedCancellation -> request);
+    final CompletableFuture<HttpResponse<ResponseBody>> second = responseCoalescer.execute("key",
+        new CompletableFuture<>(), sharedCancellation -> request);
+
+    final HttpResponse<ResponseBody> response = mock(HttpResponse.class);
+    when(response.statusCode()).thenReturn(200);
+    when(response.body()).thenReturn(ResponseBody.ofJson(
+        new HashMap<>(Map.of("items", new ArrayList<>(List.of("a"))))));
+
+    // when
+    request.complete(response);
+
+    // then
+    final Map<String, Object> firstBody = (Map<String, Object>) first.join().body().getValue();
+    final Map<String, Object> secondBody = (Map<String, Object>) second.join().body().getValue();
+    ((List<Object>) firstBody.get("items")).add("b");
+    firstBody.put("other", 1);
+
+    assertThat(second.join().statusCode()).isEqualTo(200);
+    assertThat(secondBody).isEqualTo(Map.of("items", List.of("a")));
+  }
+
+  private CompletableFuture<String> execute(String key, CompletableFuture<Void> cancellation) {
+    return coalescer.execute(key, cancellation, sharedCancellation -> {
+      final CompletableFuture<String> request = new CompletableFuture<>();
+      requests.add(request);
+      cancellations.add(sharedCancellation);
+      return request;
+    });
+  }
+}
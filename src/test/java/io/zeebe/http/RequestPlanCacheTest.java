@@ -0,0 +1,190 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.camunda.zeebe.client.api.response.ActivatedJob;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RequestPlanCacheTest {
+
+  private RequestPlanCache requestPlans;
+
+  @BeforeEach
+  void setUp() {
+    requestPlans = new RequestPlanCache(new PlaceholderProcessor(), 100);
+  }
+
+  @Test
+  void shouldReusePlanOfElement() {
+    // given
+    final RequestPlan plan = requestPlans.get(job("process", 1, "task"));
+
+    // when
+    final RequestPlan otherPlan = requestPlans.get(job("process", 1, "task"));
+
+    // then
+    assertThat(otherPlan).isSameAs(plan);
+  }
+
+  @Test
+  void shouldRemovePlansOfOlderVersions() {
+    // given
+    final RequestPlan plan = requestPlans.get(job("process", 1, "task"));
+    requestPlans.get(job("other-process", 1, "task"));
+
+    // when
+    requestPlans.get(job("process", 2, "task"));
+
+    // then
+    assertThat(requestPlans.getPlans().asMap().keySet())
+        .extracting(RequestPlanCache.PlanKey::version)
+        .containsExactlyInAnyOrder(1, 2);
+    assertThat(requestPlans.get(job("process", 1, "task"))).isNotSameAs(plan);
+  }
+
+  @Test
+  void shouldCreatePlanAgainIfCustomHeadersDiffer() {
+    // given
+    final ActivatedJob job = job("process", 1, "task");
+    when(job.getCustomHeaders()).thenReturn(Map.of("url", "http://localhost/a"));
+    final RequestPlan plan = requestPlans.get(job);
+
+    // when
+    final ActivatedJob otherJob = job("process", 1, "task");
+    when(otherJob.getCustomHeaders()).thenReturn(Map.of("url", "http://localhost/b"));
+    final RequestPlan otherPlan = requestPlans.get(otherJob);
+
+    // then
+    assertThat(otherPlan).isNotSameAs(plan);
+    assertThat(otherPlan.getCustomHeaders().get("url")).isEqualTo("http://localhost/b");
+    assertThat(requestPlans.get(otherJob)).isSameAs(otherPlan);
+  }
+
+  @Test
+  void shouldReuseParsedValueOnlyForSameSource() {
+    // given
+    final RequestPlan plan = requestPlans.get(job("process", 1, "task"));
+    final StatusCodeMatcher matcher = plan.getStatusCodeMatcher("statusCodeFailure", "4xx");
+
+    // when
+    final StatusCodeMatcher sameMatcher = plan.getStatusCodeMatcher("statusCodeFailure", "4xx");
+    final StatusCodeMatcher otherMatcher = plan.getStatusCodeMatcher("statusCodeFailure", "5xx");
+
+    // then
+    assertThat(sameMatcher).isSameAs(matcher);
+    assertThat(otherMatcher.matches(500)).isTrue();
+    assertThat(otherMatcher.matches(404)).isFalse();
+  }
+
+  @Test
+  void shouldReadOnlyReferencedVariables() {
+    // given
+    final ActivatedJob job = job("process", 1, "task");
+    when(job.getCustomHeaders()).thenReturn(Map.of("url", "http://localhost/{{id}}"));
+    when(job.getVariables()).thenReturn(
+        "{\"id\":1,\"large\":{\"x\":[1,2,3]},\"body\":{\"y\":2},\"header-x\":\"z\"}");
+
+    // when
+    final Map<String, Object> variables =
+        requestPlans.get(job).readVariables(job, new ObjectMapper(), Optional.of(Set.of()));
+
+    // then
+    assertThat(variables).containsOnlyKeys("id", "body", "header-x");
+  }
+
+  @Test
+  void shouldReadVariablesReferencedByEnvironmentVariables() {
+    // given
+    final ActivatedJob job = job("process", 1, "task");
+    when(job.getCustomHeaders()).thenReturn(Map.of("url", "http://localhost"));
+    when(job.getVariables()).thenReturn("{\"token\":\"abc\",\"other\":1}");
+
+    final Optional<Set<String>> environmentReferences = RequestPlan.findReferencedVariables(
+        new PlaceholderProcessor(), List.of("Bearer {{token}}"));
+
+    // when
+    final Map<String, Object> variables =
+        requestPlans.get(job).readVariables(job, new ObjectMapper(), environmentReferences);
+
+    // then
+    assertThat(variables).containsOnlyKeys("token");
+  }
+
+  @Test
+  void shouldReadAllVariablesIfEnvironmentReferencesAreUnknown() {
+    // given
+    final ActivatedJob job = job("process", 1, "task");
+    when(job.getCustomHeaders()).thenReturn(Map.of("url", "http://localhost"));
+    when(job.getVariablesAsMap()).thenReturn(Map.of("token", "abc", "other", 1));
+
+    // when
+    final Map<String, Object> variables =
+        requestPlans.get(job).readVariables(job, new ObjectMapper(), Optional.empty());
+
+    // then
+    assertThat(variables).containsOnlyKeys("token", "other");
+  }
+
+  @Test
+  void shouldReadAllVariablesIfParameterIsTemplate() {
+    // given
+    final ActivatedJob job = job("process", 1, "task");
+    when(job.getCustomHeaders()).thenReturn(Map.of("url", "http://localhost"));
+    when(job.getVariables()).thenReturn("{\"body\":\"{{other}}\",\"other\":1}");
+    when(job.getVariablesAsMap()).thenReturn(Map.of("body", "{{other}}", "other", 1));
+
+    // when
+    final Map<String, Object> variables =
+        requestPlans.get(job).readVariables(job, new ObjectMapper(), Optional.of(Set.of()));
+
+    // then
+    assertThat(variables).containsOnlyKeys("body", "other");
+  }
+
+  @Test
+  void shouldReadAllVariablesIfHeaderCanNotBeCompiled() {
+    // given
+    final ActivatedJob job = job("process", 1, "task");
+    when(job.getCustomHeaders()).thenReturn(Map.of("url", "http://localhost/{{> missing}}"));
+    when(job.getVariablesAsMap()).thenReturn(Map.of("id", 1, "other", 2));
+
+    // when
+    final RequestPlan plan = requestPlans.get(job);
+
+    // then
+    assertThat(plan.getReferencedVariables()).isEmpty();
+    assertThat(plan.readVariables(job, new ObjectMapper(), Optional.of(Set.of()))).containsOnlyKeys("id", "other");
+  }
+
+  private ActivatedJob job(String bpmnProcessId, int version, String elementId) {
+    final ActivatedJob job = mock(ActivatedJob.class);
+    when(job.getBpmnProcessId()).thenReturn(bpmnProcessId);
+    when(job.getProcessDefinitionVersion()).thenReturn(version);
+    when(job.getProcessDefinitionKey()).thenReturn((long) (bpmnProcessId.hashCode() + version));
+    when(job.getElementId()).thenReturn(elementId);
+    return job;
+  }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient.Version;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+import javax.net.ssl.SSLSession;
+import org.junit.jupiter.api.Test;
+
+class RetryPolicyTest {
+
+  private final RetryPolicy retryPolicy = new RetryPolicy(2, Duration.ofMillis(100),
+      Duration.ofSeconds(1), StatusCodeMatcher.parse("429, 503"), Duration.ofSeconds(10),
+      RetryPolicy.Failures.TRANSIENT);
+
+  @Test
+  void shouldRetryTransientFailures() {
+    assertThat(retryPolicy.shouldRetry(0, null,
+        new CompletionException(new IOException("connection refused")))).isTrue();
+    assertThat(retryPolicy.shouldRetry(0, null, new RuntimeException("invalid body")))
+        .isFalse();
+  }
+
+  @Test
+  void shouldRetryConfiguredStatusCodes() {
+    assertThat(retryPolicy.shouldRetry(0, response(503, Map.of()), null)).isTrue();
+    assertThat(retryPolicy.shouldRetry(0, response(500, Map.of()), null)).isFalse();
+  }
+
+  @Test
+  void shouldNotRetryMoreThanConfigured() {
+    assertThat(retryPolicy.shouldRetry(1, response(503, Map.of()), null)).isTrue();
+    assertThat(retryPolicy.shouldRetry(2, response(503, Map.of()), null)).isFalse();
+  }
+
+  @Test
+  void shouldIncreaseDelayExponentially() {
+    for (int i = 0; i < 10; i++) {
+      assertThat(retryPolicy.getDelay(0, null)).isBetween(Duration.ofMillis(50),
+          Duration.ofMillis(100));
+      assertThat(retryPolicy.getDelay(1, null)).isBetween(Duration.ofMillis(100),
+          Duration.ofMillis(200));
+      assertThat(retryPolicy.getDelay(5, null)).isBetween(Duration.ofMillis(500),
+          Duration.ofSeconds(1));
+    }
+  }
+
+  @Test
+  void shouldHonorRetryAfter() {
+    // given
+    final HttpResponse<Object> response = response(429, Map.of("Retry-After", "1"));
+
+    // then
+    assertThat(retryPolicy.shouldRetry(0, response, null)).isTrue();
+    assertThat(retryPolicy.getDelay(0, response)).isEqualTo(Duration.ofSeconds(1));
+    assertThat(retryPolicy.getJobRetryBackoff(response)).contains(Duration.ofSeconds(1));
+  }
+
+  @Test
+  void shouldNotWaitLongerThanMaxDelay() {
+    // given
+    final HttpResponse<Object> response = response(429, Map.of("Retry-After", "60"));
+
+    // then
+    assertThat(retryPolicy.shouldRetry(0, response, null)).isFalse();
+    assertThat(retryPolicy.getJobRetryBackoff(response)).contains(Duration.ofSeconds(60));
+  }
+
+  @Test
+  void shouldUseConfiguredJobRetryBackoff() {
+    assertThat(retryPolicy.getJobRetryBackoff(response(500, Map.of())))
+        .contains(Duration.ofSeconds(10));
+    assertThat(retryPolicy.getJobRetryBackoff(null)).contains(Duration.ofSeconds(10));
+  }
+
+  @Test
+  void shouldRetryOnlyConnectFailures() {
+    // given
+    final RetryPolicy connectRetryPolicy = new RetryPolicy(2, Duration.ofMillis(100),
+        Duration.ofSeconds(1), StatusCodeMatcher.parse("429, 503"), null,
+        RetryPolicy.Failures.CONNECT);
+
+    // then
+    assertThat(connectRetryPolicy.shouldRetry(0, null,
+        new CompletionException(new ConnectException("connection refused")))).isTrue();
+    assertThat(connectRetryPolicy.shouldRetry(0, null,
+        new HttpConnectTimeoutException("connect timed out"))).isTrue();
+    assertThat(connectRetryPolicy.shouldRetry(0, null,
+        new CompletionException(new HttpTimeoutException("request timed out")))).isFalse();
+    assertThat(connectRetryPolicy.shouldRetry(0, null, new TimeoutException())).isFalse();
+    assertThat(connectRetryPolicy.shouldRetry(0, response(503, Map.of()), null)).isTrue();
+  }
+
+  @Test
+  void shouldNotRetryFailures() {
+    // given
+    final RetryPolicy statusCodeRetryPolicy = new RetryPolicy(2, Duration.ofMillis(100),
+        Duration.ofSeconds(1), StatusCodeMatcher.parse("429, 503"), null,
+        RetryPolicy.Failures.NONE);
+
+    // then
+    assertThat(statusCodeRetryPolicy.shouldRetry(0, null,
+        new CompletionException(new ConnectException("connection refused")))).isFalse();
+    assertThat(statusCodeRetryPolicy.shouldRetry(0, response(503, Map.of()), null)).isTrue();
+  }
+
+  private static HttpResponse<Object> response(int statusCode, Map<String, String> headers) {
+    return new HttpResponse<>() {
+      @Override
+      public int statusCode() {
+        return statusCode;
+      }
+
+      @Override
+      public HttpRequest request() {
+        return null;
+      }
+
+      @Override
+      public Optional<HttpResponse<Object>> previousResponse() {
+        return Optional.empty();
+      }
+
+      @Override
+      public HttpHeaders headers() {
+        final Map<String, List<String>> values = new HashMap<>();
+        headers.forEach((key, value) -> values.put(key, List.of(value)));
+        return HttpHeaders.of(values, (key, value) -> true);
+      }
+
+      @Override
+      public Object body() {
+        return null;
+      }
+
+      @Override
+      public Optional<SSLSession> sslSession() {
+        return Optional.empty();
+      }
+
+      @Override
+      public URI uri() {
+        return null;
+      }
+
+      @Override
+      public Version version() {
+        return Version.HTTP_1_1;
+      }
+    };
+  }
+}
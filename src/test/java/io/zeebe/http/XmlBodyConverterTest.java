@@ -0,0 +1,140 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class XmlBodyConverterTest {
+
+  private final XmlBodyConverter converter = new XmlBodyConverter(new ObjectMapper());
+
+  @Test
+  void shouldConvertElementsAndAttributes() throws Exception {
+    // when
+    final Map<String, Object> result = converter.convert(
+        "<?xml version=\"1.0\"?><order id=\"42\"><item>a</item><item>b</item><note/></order>");
+
+    // then
+    assertThat(result).isEqualTo(Map.of("order",
+        Map.of("id", 42, "item", List.of("a", "b"), "note", "")));
+  }
+
+  @Test
+  void shouldConvertValues() throws Exception {
+    // when
+    final Map<String, Object> result = converter.convert("<v>"
+        + "<int>42</int><long>12345678901</long><big>123456789012345678901234</big>"
+        + "<decimal>2.50</decimal><whole>2.0</whole><exp>1e3</exp>"
+        + "<bool>TRUE</bool><null>null</null><octal>0123</octal><text> a b </text>"
+        + "</v>");
+
+    // then
+    final Map<String, Object> expected = new HashMap<>();
+    expected.put("int", 42);
+    expected.put("long", 12345678901L);
+    expected.put("big", new BigInteger("123456789012345678901234"));
+    expected.put("decimal", 2.5);
+    expected.put("whole", 2);
+    expected.put("exp", 1000.0);
+    expected.put("bool", true);
+    expected.put("null", null);
+    expected.put("octal", "0123");
+    expected.put("text", "a b");
+    assertThat(result).isEqualTo(Map.of("v", expected));
+  }
+
+  @Test
+  void shouldKeepTextOfCdata() throws Exception {
+    // when
+    final Map<String, Object> result = converter.convert("<v><![CDATA[ 42 ]]></v>");
+
+    // then
+    assertThat(result).isEqualTo(Map.of("v", " 42 "));
+  }
+
+  @Test
+  void shouldKeepNamespacePrefixes() throws Exception {
+    // when
+    final Map<String, Object> result = converter.convert(
+        "<soap:Envelope xmlns:soap=\"urn:soap\"><soap:Body>ok</soap:Body></soap:Envelope>");
+
+    // then
+    assertThat(result).isEqualTo(Map.of("soap:Envelope",
+        Map.of("xmlns:soap", "urn:soap", "soap:Body", "ok")));
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {
+      "<a>text</a>",
+      "<a x=\"1\" y=\"true\">text</a>",
+      "<a>one<b/>two</a>",
+      "<a>one<!-- comment -->two</a>",
+      "<a>x &amp; y &lt; z</a>",
+      "<a><content>1</content></a>",
+      "<a><b>-0</b><b>-1.5e-3</b><b>1.</b><b>0x1.8p1</b></a>",
+      "<a><b x=\"null\"/><b>null</b><b> </b></a>",
+      "<a><![CDATA[<b>]]>text</a>",
+      "<a>x&nbsp;y</a>",
+      "<a b>unquoted</a>"
+  })
+  void shouldConvertLikeOrgJson(String xml) throws Exception {
+    // when
+    final Map<String, Object> result = converter.convert(xml);
+
+    // then
+    assertThat(result).isEqualTo(converter.convertWithOrgJson(xml));
+  }
+
+  @Test
+  void shouldConvertLargeBodyLikeOrgJson() throws Exception {
+    // given
+    final StringBuilder xml = new StringBuilder("<items>");
+    for (int i = 0; i < 1000; i++) {
+      xml.append("<item id=\"").append(i).append("\"><name>item-").append(i)
+          .append("</name><price>").append(i * 0.25).append("</price></item>");
+    }
+    xml.append("</items>");
+
+    // when
+    final Map<String, Object> result = converter.convert(xml.toString());
+
+    // then
+    assertThat(result).isEqualTo(converter.convertWithOrgJson(xml.toString()));
+  }
+
+  @Test
+  void shouldFailIfNestedTooDeeply() {
+    // given
+    final String xml = String.join("", Collections.nCopies(600, "<a>"))
+        + String.join("", Collections.nCopies(600, "</a>"));
+
+    // when / then
+    assertThatThrownBy(() -> converter.convert(xml))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("nesting depth");
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+class ZeebeHttpWorkerConfigTest {
+
+  private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+      .withUserConfiguration(ZeebeHttpWorkerConfig.class);
+
+  @Test
+  void shouldBuildClientWithDefaultSettings() {
+    contextRunner.run(context -> {
+      // when
+      final HttpClient client = context.getBean(HttpClient.class);
+
+      // then
+      assertThat(client.version()).isEqualTo(HttpClient.Version.HTTP_2);
+      assertThat(client.followRedirects()).isEqualTo(HttpClient.Redirect.NEVER);
+      assertThat(client.connectTimeout()).contains(Duration.ofSeconds(60));
+      assertThat(client.executor()).containsSame(context.getBean(ExecutorService.class));
+    });
+  }
+
+  @Test
+  void shouldBuildClientWithConfiguredSettings() {
+    contextRunner
+        .withPropertyValues(
+            "HTTP_CLIENT_VERSION=HTTP_1_1",
+            "HTTP_CLIENT_FOLLOW_REDIRECTS=NORMAL",
+            "HTTP_CLIENT_CONNECT_TIMEOUT=5000")
+        .run(context -> {
+          // when
+          final HttpClient client = context.getBean(HttpClient.class);
+
+          // then
+          assertThat(client.version()).isEqualTo(HttpClient.Version.HTTP_1_1);
+          assertThat(client.followRedirects()).isEqualTo(HttpClient.Redirect.NORMAL);
+          assertThat(client.connectTimeout()).contains(Duration.ofSeconds(5));
+        });
+  }
+
+  @Test
+  void shouldShareExecutorWithClientOfOtherConnectTimeout() {
+    contextRunner
+        .withPropertyValues("HTTP_CLIENT_VERSION=HTTP_1_1")
+        .run(context -> {
+          // when
+          final HttpClient client = context.getBean(ZeebeHttpWorkerConfig.class)
+              .newHttpClient(Duration.ofSeconds(3));
+
+          // then
+          assertThat(client.version()).isEqualTo(HttpClient.Version.HTTP_1_1);
+          assertThat(client.connectTimeout()).contains(Duration.ofSeconds(3));
+          assertThat(client.executor()).containsSame(context.getBean(ExecutorService.class));
+        });
+  }
+
+  @Test
+  void shouldRunClientOnConfiguredThreads() {
+    contextRunner
+        .withPropertyValues("HTTP_CLIENT_THREADS=2")
+        .run(context -> {
+          // when
+          final ExecutorService executor = context.getBean(ExecutorService.class);
+
+          // then
+          assertThat(executor).isInstanceOf(ThreadPoolExecutor.class);
+          assertThat(((ThreadPoolExecutor) executor).getMaximumPoolSize()).isEqualTo(2);
+
+          final Thread thread =
+              CompletableFuture.supplyAsync(Thread::currentThread, executor).join();
+          assertThat(thread.getName()).startsWith("http-client-");
+          assertThat(thread.isDaemon()).isTrue();
+        });
+  }
+
+  @Test
+  void shouldLimitResponseSizeByDefault() {
+    contextRunner.run(context -> {
+      // when
+      final String maxResponseSize =
+          context.getBean(ZeebeHttpWorkerConfig.class).getMaxResponseSize();
+
+      // then
+      assertThat(ResponseSizeLimit.parseSize(maxResponseSize)).isEqualTo(10 * 1024 * 1024);
+    });
+  }
+
+  @Test
+  void shouldShutDownExecutorWithContext() {
+    // given
+    final AtomicReference<ExecutorService> executor = new AtomicReference<>();
+
+    // when
+    contextRunner.run(context -> executor.set(context.getBean(ExecutorService.class)));
+
+    // then
+    assertThat(executor.get().isShutdown()).isTrue();
+  }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http.bulkhead;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.zeebe.http.bulkhead.BulkheadProperties.Host;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class BulkheadPropertiesTest {
+
+  @Test
+  void shouldParseHosts() {
+    // when
+    final List<Host> hosts = BulkheadProperties.parseHosts(
+        "[{\"prefix\": \"https://slow.example.com\", \"maxConcurrentRequests\": 4, "
+            + "\"maxWait\": \"500ms\"}, {\"prefix\": \"other.example.com\", \"maxQueueDepth\": 8}]");
+
+    // then
+    assertThat(hosts).hasSize(2);
+    assertThat(hosts.get(0).getPrefix()).isEqualTo("https://slow.example.com");
+    assertThat(hosts.get(0).getMaxConcurrentRequests()).isEqualTo(4);
+    assertThat(hosts.get(0).getMaxQueueDepth()).isNull();
+    assertThat(hosts.get(0).getMaxWait()).isEqualTo(Duration.ofMillis(500));
+    assertThat(hosts.get(1).getPrefix()).isEqualTo("other.example.com");
+    assertThat(hosts.get(1).getMaxQueueDepth()).isEqualTo(8);
+    assertThat(hosts.get(1).getMaxWait()).isNull();
+  }
+
+  @Test
+  void shouldParseNoHosts() {
+    // when/then
+    assertThat(BulkheadProperties.parseHosts("[]")).isEmpty();
+    assertThat(BulkheadProperties.parseHosts("")).isEmpty();
+  }
+
+  @Test
+  void shouldFailOnInvalidHosts() {
+    // when/then
+    assertThatThrownBy(() -> BulkheadProperties.parseHosts("{\"prefix\": \"x\"}"))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("expected a JSON array");
+  }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http.bulkhead;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.zeebe.http.RejectedRequestException;
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+
+class BulkheadTest {
+
+  private final Bulkhead bulkhead = new Bulkhead("test", 1, 1, Duration.ofSeconds(10),
+      () -> new RejectedRequestException("rejected", Duration.ofSeconds(1), false));
+
+  @Test
+  void shouldQueueRequestIfLimitIsReached() {
+    // given
+    final CompletableFuture<String> firstResponse = new CompletableFuture<>();
+    final CompletableFuture<String> first =
+        bulkhead.execute(new CompletableFuture<>(), () -> firstResponse);
+
+    // when
+    final CompletableFuture<String> second = bulkhead.execute(new CompletableFuture<>(),
+        () -> CompletableFuture.completedFuture("second"));
+
+    // then
+    assertThat(second).isNotDone();
+    assertThat(bulkhead.getActiveRequests()).isEqualTo(1);
+    assertThat(bulkhead.getQueuedRequests()).isEqualTo(1);
+
+    firstResponse.complete("first");
+
+    assertThat(first).isCompletedWithValue("first");
+    assertThat(second).isCompletedWithValue("second");
+    assertThat(bulkhead.getActiveRequests()).isEqualTo(0);
+    assertThat(bulkhead.getQueuedRequests()).isEqualTo(0);
+  }
+
+  @Test
+  void shouldRejectRequestIfQueueIsFull() {
+    // given
+    bulkhead.execute(new CompletableFuture<>(), CompletableFuture::new);
+    bulkhead.execute(new CompletableFuture<>(), CompletableFuture::new);
+
+    // when
+    final CompletableFuture<Object> rejected =
+        bulkhead.execute(new CompletableFuture<>(), CompletableFuture::new);
+
+    // then
+    assertThat(rejected)
+        .failsWithin(Duration.ofSeconds(1))
+        .withThrowableOfType(ExecutionException.class)
+        .withCauseInstanceOf(RejectedRequestException.class);
+  }
+
+  @Test
+  void shouldRejectRequestIfWaitedTooLong() {
+    // given
+    final Bulkhead bulkhead = new Bulkhead("test", 1, 1, Duration.ofMillis(10),
+        () -> new RejectedRequestException("rejected", Duration.ofSeconds(1), false));
+    bulkhead.execute(new CompletableFuture<>(), CompletableFuture::new);
+
+    // when
+    final CompletableFuture<Object> rejected =
+        bulkhead.execute(new CompletableFuture<>(), CompletableFuture::new);
+
+    // then
+    assertThat(rejected)
+        .failsWithin(Duration.ofSeconds(1))
+        .withThrowableOfType(ExecutionException.class)
+        .withCauseInstanceOf(RejectedRequestException.class);
+    assertThat(bulkhead.getQueuedRequests()).isEqualTo(0);
+  }
+
+  @Test
+  void shouldRemoveCancelledRequestFromQueue() {
+    // given
+    final CompletableFuture<String> firstResponse = new CompletableFuture<>();
+    bulkhead.execute(new CompletableFuture<>(), () -> firstResponse);
+
+    final CompletableFuture<Void> cancellation = new CompletableFuture<>();
+    final AtomicBoolean sent = new AtomicBoolean();
+    final CompletableFuture<String> cancelled = bulkhead.execute(cancellation, () -> {
+      sent.set(true);
+      return CompletableFuture.completedFuture("cancelled");
+    });
+
+    // when
+    cancellation.complete(null);
+
+    // then
+    assertThat(cancelled)
+        .failsWithin(Duration.ofSeconds(1))
+        .withThrowableOfType(ExecutionException.class)
+        .withCauseInstanceOf(CancellationException.class);
+    assertThat(bulkhead.getQueuedRequests()).isEqualTo(0);
+
+    firstResponse.complete("first");
+    assertThat(sent).isFalse();
+    assertThat(bulkhead.getActiveRequests()).isEqualTo(0);
+  }
+}
@@ -0,0 +1,307 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.net.URI;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandler;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+class ResponseCacheTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final AtomicLong clock = new AtomicLong(1_000_000);
+
+  private final List<HttpRequest> sentRequests = new ArrayList<>();
+  private CachedResponse serverResponse;
+
+  private ResponseCache cache;
+
+  @Test
+  void shouldTakeFreshResponseFromCache() {
+    // given
+    createCache();
+    respond(200, "cached", "Cache-Control", "max-age=60");
+    get("/api");
+
+    // when
+    respond(200, "new");
+    final HttpResponse<String> response = get("/api");
+
+    // then
+    assertThat(response.statusCode()).isEqualTo(200);
+    assertThat(response.body()).isEqualTo("cached");
+    assertThat(sentRequests).hasSize(1);
+    assertThat(meterRegistry.get("zeebe.http.worker.response.cache.hit.ratio").gauge().value())
+        .isEqualTo(0.5);
+  }
+
+  @Test
+  void shouldSendRequestIfResponseExpired() {
+    // given
+    createCache();
+    respond(200, "cached", "Cache-Control", "max-age=60");
+    get("/api");
+
+    // when
+    clock.addAndGet(Duration.ofSeconds(61).toMillis());
+    respond(200, "new");
+    final HttpResponse<String> response = get("/api");
+
+    // then
+    assertThat(response.body()).isEqualTo("new");
+    assertThat(sentRequests).hasSize(2);
+  }
+
+  @Test
+  void shouldRevalidateResponseWithETag() {
+    // given
+    createCache();
+    respond(200, "cached", "ETag", "\"v1\"", "Cache-Control", "no-cache");
+    get("/api");
+
+    // when
+    respond(304, "");
+    final HttpResponse<String> response = get("/api");
+
+    // then
+    assertThat(response.statusCode()).isEqualTo(200);
+    assertThat(response.body()).isEqualTo("cached");
+    assertThat(sentRequests).hasSize(2);
+    assertThat(sentRequests.get(1).headers().firstValue("If-None-Match")).hasValue("\"v1\"");
+    assertThat(meterRegistry.get("zeebe.http.worker.response.cache.requests")
+        .tag("result", "revalidated").counter().count()).isEqualTo(1);
+  }
+
+  @Test
+  void shouldReplaceResponseIfModified() {
+    // given
+    createCache();
+    respond(200, "cached", "Last-Modified", "Wed, 21 Oct 2015 07:28:00 GMT");
+    get("/api");
+
+    // when
+    respond(200, "modified", "Last-Modified", "Thu, 22 Oct 2015 07:28:00 GMT");
+    final HttpResponse<String> response = get("/api");
+
+    // then
+    assertThat(response.body()).isEqualTo("modified");
+    assertThat(sentRequests.get(1).headers().firstValue("If-Modified-Since"))
+        .hasValue("Wed, 21 Oct 2015 07:28:00 GMT");
+  }
+
+  @Test
+  void shouldNotCacheResponseWithNoStore() {
+    // given
+    createCache();
+    respond(200, "first", "Cache-Control", "no-store, max-age=60");
+    get("/api");
+
+    // when
+    respond(200, "second");
+    final HttpResponse<String> response = get("/api");
+
+    // then
+    assertThat(response.body()).isEqualTo("second");
+    assertThat(sentRequests).hasSize(2);
+  }
+
+  @Test
+  void shouldNotCachePrivateResponse() {
+    // given
+    createCache();
+    respond(200, "first", "Cache-Control", "private, max-age=60");
+    get("/api");
+
+    // when
+    respond(200, "second");
+    final HttpResponse<String> response = get("/api");
+
+    // then
+    assertThat(response.body()).isEqualTo("second");
+    assertThat(sentRequests).hasSize(2);
+  }
+
+  @Test
+  void shouldDeleteFilesOfPreviousRunOnStart(@TempDir Path directory) throws Exception {
+    // given
+    final Path response = Files.createFile(directory.resolve("previous.response"));
+    final Path tempFile = Files.createFile(directory.resolve("orphaned.tmp"));
+    final Path otherFile = Files.createFile(directory.resolve("other.txt"));
+
+    // when
+    new DiskCache(directory, 1000);
+
+    // then
+    assertThat(response).doesNotExist();
+    assertThat(tempFile).doesNotExist();
+    assertThat(otherFile).exists();
+  }
+
+  @Test
+  void shouldKeepFilesInSyncWithIndex(@TempDir Path directory) throws Exception {
+    // given
+    final DiskCache diskCache = new DiskCache(directory, 10_000);
+    final CachedResponse response = new CachedResponse(200,
+        HttpHeaders.of(Map.of(), (name, value) -> true), new byte[100], 0);
+
+    // when
+    final List<CompletableFuture<Void>> threads = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      threads.add(CompletableFuture.runAsync(() -> {
+        for (int j = 0; j < 200; j++) {
+          diskCache.put("key-" + (j % 3), response);
+          diskCache.remove("key-" + (j % 2));
+        }
+      }));
+    }
+    CompletableFuture.allOf(threads.toArray(CompletableFuture[]::new)).join();
+
+    // then
+    try (Stream<Path> files = Files.list(directory)) {
+      assertThat(files.map(file -> file.getFileName().toString()))
+          .allMatch(name -> name.endsWith(".response"))
+          .hasSize(diskCache.getEntries());
+    }
+  }
+
+  @Test
+  void shouldCacheResponseForTtlOfTask() {
+    // given
+    createCache();
+    respond(200, "cached");
+    get("/api", Duration.ofMinutes(1));
+
+    // when
+    respond(200, "new");
+    final HttpResponse<String> response = get("/api", Duration.ofMinutes(1));
+
+    // then
+    assertThat(response.body()).isEqualTo("cached");
+    assertThat(sentRequests).hasSize(1);
+  }
+
+  @Test
+  void shouldNotCacheResponseExceedingMaxEntrySize() {
+    // given
+    createCache(DataSize.ofMegabytes(64), DataSize.ofBytes(4), null);
+    respond(200, "too large", "Cache-Control", "max-age=60");
+    get("/api");
+
+    // when
+    get("/api");
+
+    // then
+    assertThat(sentRequests).hasSize(2);
+  }
+
+  @Test
+  void shouldNotCacheIfDisabled() {
+    // given
+    final ResponseCacheProperties properties = new ResponseCacheProperties(false,
+        DataSize.ofMegabytes(64), DataSize.ofMegabytes(1), null, DataSize.ofGigabytes(1));
+    cache = new ResponseCache(properties, meterRegistry, clock::get, Runnable::run);
+
+    // when
+    final HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost/api"))
+        .build();
+
+    // then
+    assertThat(cache.getPolicy(request, null)).isEmpty();
+  }
+
+  @Test
+  void shouldMoveEvictedResponseToDisk(@TempDir Path directory) {
+    // given
+    createCache(DataSize.ofBytes(1000), DataSize.ofMegabytes(1), directory.toString());
+
+    respond(200, "a".repeat(600), "Cache-Control", "max-age=60");
+    get("/first");
+    respond(200, "b".repeat(600), "Cache-Control", "max-age=60");
+    get("/second");
+
+    await().untilAsserted(() -> assertThat(
+        meterRegistry.get("zeebe.http.worker.response.cache.size").tag("tier", "disk").gauge()
+            .value()).isEqualTo(1));
+
+    // when
+    respond(200, "new");
+    final HttpResponse<String> first = get("/first");
+    final HttpResponse<String> second = get("/second");
+
+    // then
+    assertThat(first.body()).isEqualTo("a".repeat(600));
+    assertThat(second.body()).isEqualTo("b".repeat(600));
+    assertThat(sentRequests).hasSize(2);
+  }
+
+  private void createCache() {
+    createCache(DataSize.ofMegabytes(64), DataSize.ofMegabytes(1), null);
+  }
+
+  private void createCache(DataSize maxMemorySize, DataSize maxEntrySize, String diskDirectory) {
+    final ResponseCacheProperties properties = new ResponseCacheProperties(true, maxMemorySize,
+        maxEntrySize, diskDirectory, DataSize.ofGigabytes(1));
+    cache = new ResponseCache(properties, meterRegistry, clock::get, Runnable::run);
+  }
+
+  private void respond(int statusCode, String body, String... headers) {
+    final Map<String, List<String>> headerMap = new HashMap<>();
+    for (int i = 0; i < headers.length; i += 2) {
+      headerMap.put(headers[i], List.of(headers[i + 1]));
+    }
+    serverResponse = new CachedResponse(statusCode,
+        HttpHeaders.of(headerMap, (name, value) -> true),
+        body.getBytes(StandardCharsets.UTF_8), 0);
+  }
+
+  private HttpResponse<String> get(String path) {
+    return get(path, null);
+  }
+
+  private HttpResponse<String> get(String path, Duration ttl) {
+    final HttpRequest request =
+        HttpRequest.newBuilder(URI.create("http://localhost" + path)).GET().build();
+    final ResponseCache.Policy policy = cache.getPolicy(request, ttl).orElseThrow();
+    return cache.execute(policy, request, BodyHandlers.ofString(), this::send).join();
+  }
+
+  private CompletableFuture<HttpResponse<String>> send(HttpRequest request,
+      BodyHandler<String> bodyHandler) {
+    sentRequests.add(request);
+    return ResponseCache.replay(request, serverResponse, bodyHandler);
+  }
+}
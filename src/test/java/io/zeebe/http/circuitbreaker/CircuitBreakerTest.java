@@ -0,0 +1,136 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http.circuitbreaker;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.zeebe.http.circuitbreaker.CircuitBreaker.Outcome;
+import io.zeebe.http.circuitbreaker.CircuitBreaker.State;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class CircuitBreakerTest {
+
+  private final AtomicLong clock = new AtomicLong();
+  private final List<State> stateChanges = new ArrayList<>();
+
+  private final CircuitBreaker circuitBreaker = new CircuitBreaker(50, 4, 4,
+      Duration.ofSeconds(10), 2, clock::get, (from, to) -> stateChanges.add(to));
+
+  @Test
+  void shouldOpenIfFailureRateIsExceeded() {
+    // when
+    send(Outcome.SUCCESS);
+    send(Outcome.FAILURE);
+    send(Outcome.SUCCESS);
+    send(Outcome.FAILURE);
+
+    // then
+    assertThat(circuitBreaker.getState()).isEqualTo(State.OPEN);
+    assertThat(circuitBreaker.tryAcquire()).isFalse();
+    assertThat(stateChanges).containsExactly(State.OPEN);
+  }
+
+  @Test
+  void shouldNotifyListenerWithoutLock() {
+    // given
+    final List<Boolean> locked = new ArrayList<>();
+    final CircuitBreaker[] breaker = new CircuitBreaker[1];
+    breaker[0] = new CircuitBreaker(50, 1, 1, Duration.ofSeconds(10), 1, clock::get,
+        (from, to) -> locked.add(Thread.holdsLock(breaker[0])));
+
+    // when
+    breaker[0].tryAcquire();
+    breaker[0].onResult(Outcome.FAILURE);
+    clock.addAndGet(Duration.ofSeconds(10).toNanos());
+    breaker[0].tryAcquire();
+
+    // then
+    assertThat(locked).containsExactly(false, false);
+  }
+
+  @Test
+  void shouldNotOpenBeforeMinimumRequests() {
+    // when
+    send(Outcome.FAILURE);
+    send(Outcome.FAILURE);
+    send(Outcome.FAILURE);
+
+    // then
+    assertThat(circuitBreaker.getState()).isEqualTo(State.CLOSED);
+  }
+
+  @Test
+  void shouldNotRecordIgnoredOutcomes() {
+    // when
+    send(Outcome.SUCCESS);
+    send(Outcome.SUCCESS);
+    send(Outcome.SUCCESS);
+    send(Outcome.IGNORED);
+    send(Outcome.FAILURE);
+    send(Outcome.FAILURE);
+
+    // then
+    assertThat(circuitBreaker.getState()).isEqualTo(State.OPEN);
+  }
+
+  @Test
+  void shouldCloseIfProbesSucceed() {
+    // given
+    open();
+    clock.addAndGet(Duration.ofSeconds(10).toNanos());
+
+    // when
+    assertThat(circuitBreaker.tryAcquire()).isTrue();
+    assertThat(circuitBreaker.tryAcquire()).isTrue();
+    assertThat(circuitBreaker.tryAcquire()).isFalse();
+    circuitBreaker.onResult(Outcome.SUCCESS);
+    circuitBreaker.onResult(Outcome.SUCCESS);
+
+    // then
+    assertThat(circuitBreaker.getState()).isEqualTo(State.CLOSED);
+    assertThat(stateChanges).containsExactly(State.OPEN, State.HALF_OPEN, State.CLOSED);
+  }
+
+  @Test
+  void shouldOpenAgainIfProbeFails() {
+    // given
+    open();
+    clock.addAndGet(Duration.ofSeconds(10).toNanos());
+
+    // when
+    send(Outcome.FAILURE);
+
+    // then
+    assertThat(circuitBreaker.getState()).isEqualTo(State.OPEN);
+    assertThat(circuitBreaker.tryAcquire()).isFalse();
+    assertThat(stateChanges).containsExactly(State.OPEN, State.HALF_OPEN, State.OPEN);
+  }
+
+  private void open() {
+    for (int i = 0; i < 4; i++) {
+      send(Outcome.FAILURE);
+    }
+  }
+
+  private void send(Outcome outcome) {
+    assertThat(circuitBreaker.tryAcquire()).isTrue();
+    circuitBreaker.onResult(outcome);
+  }
+}
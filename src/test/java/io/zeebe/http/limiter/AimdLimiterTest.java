@@ -0,0 +1,147 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http.limiter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class AimdLimiterTest {
+
+  private static final long FAST = Duration.ofMillis(10).toNanos();
+  private static final long SLOW = Duration.ofSeconds(10).toNanos();
+
+  private final AimdLimiter limiter = new AimdLimiter(4, 1, 10, 0.5, 2.0);
+
+  @Test
+  void shouldRejectIfLimitIsReached() {
+    // given
+    for (int i = 0; i < 4; i++) {
+      assertThat(limiter.tryAcquire()).isTrue();
+    }
+
+    // when/then
+    assertThat(limiter.tryAcquire()).isFalse();
+    assertThat(limiter.getInFlight()).isEqualTo(4);
+  }
+
+  @Test
+  void shouldIncreaseLimitIfUsedAndFast() {
+    // given
+    limiter.tryAcquire();
+    limiter.tryAcquire();
+
+    // when
+    limiter.onSample(FAST, false);
+
+    // then
+    assertThat(limiter.getLimit()).isEqualTo(5);
+  }
+
+  @Test
+  void shouldNotIncreaseLimitIfNotUsed() {
+    // given
+    limiter.tryAcquire();
+
+    // when
+    limiter.onSample(FAST, false);
+
+    // then
+    assertThat(limiter.getLimit()).isEqualTo(4);
+  }
+
+  @Test
+  void shouldDecreaseLimitIfLatencyRisesAboveBaseline() {
+    // given
+    limiter.tryAcquire();
+    limiter.onSample(FAST, false);
+
+    // when
+    limiter.tryAcquire();
+    limiter.onSample(SLOW, false);
+
+    // then
+    assertThat(limiter.getLimit()).isEqualTo(2);
+  }
+
+  @Test
+  void shouldNotDecreaseLimitIfLatencyIsHighButFlat() {
+    // given
+    limiter.tryAcquire();
+    limiter.tryAcquire();
+    limiter.tryAcquire();
+    limiter.onSample(SLOW, false);
+
+    // when
+    limiter.onSample(SLOW + Duration.ofSeconds(1).toNanos(), false);
+
+    // then
+    assertThat(limiter.getLimit()).isEqualTo(5);
+  }
+
+  @Test
+  void shouldAdaptBaselineToHigherLatency() {
+    // given
+    limiter.tryAcquire();
+    limiter.onSample(FAST, false);
+
+    // when
+    for (int i = 0; i < 500; i++) {
+      limiter.tryAcquire();
+      limiter.onSample(SLOW, false);
+    }
+
+    // then
+    assertThat(limiter.getBaselineNanos()).isGreaterThan(SLOW / 2);
+
+    final int limit = limiter.getLimit();
+    limiter.tryAcquire();
+    limiter.onSample(SLOW, false);
+    assertThat(limiter.getLimit()).isGreaterThanOrEqualTo(limit);
+  }
+
+  @Test
+  void shouldNotTakeBaselineFromDroppedRequests() {
+    // given
+    limiter.tryAcquire();
+    limiter.onSample(SLOW, false);
+
+    // when
+    limiter.tryAcquire();
+    limiter.onSample(FAST, true);
+
+    // then
+    assertThat(limiter.getBaselineNanos()).isEqualTo(SLOW);
+  }
+
+  @Test
+  void shouldDecreaseLimitIfDropped() {
+    // given
+    limiter.tryAcquire();
+
+    // when
+    limiter.onSample(FAST, true);
+    limiter.tryAcquire();
+    limiter.onSample(FAST, true);
+    limiter.tryAcquire();
+    limiter.onSample(FAST, true);
+
+    // then
+    assertThat(limiter.getLimit()).isEqualTo(1);
+    assertThat(limiter.getInFlight()).isEqualTo(0);
+  }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.http.tracing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.camunda.zeebe.client.api.response.ActivatedJob;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import io.zeebe.http.tracing.JobTracer.JobTrace;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class JobTracerTest {
+
+  private final InMemorySpanExporter spanExporter = InMemorySpanExporter.create();
+
+  private JobTracer tracer;
+  private ActivatedJob job;
+
+  @BeforeEach
+  void setUp() {
+    final OpenTelemetry openTelemetry = OpenTelemetrySdk.builder()
+        .setTracerProvider(SdkTracerProvider.builder()
+            .addSpanProcessor(SimpleSpanProcessor.create(spanExporter))
+            .build())
+        .setPropagators(ContextPropagators.create(W3CTraceContextPropagator.getInstance()))
+        .build();
+    tracer = new JobTracer(openTelemetry);
+
+    job = mock(ActivatedJob.class);
+    when(job.getKey()).thenReturn(1L);
+    when(job.getProcessInstanceKey()).thenReturn(2L);
+    when(job.getType()).thenReturn("http");
+    when(job.getCustomHeaders()).thenReturn(Map.of());
+  }
+
+  @Test
+  void shouldTracePhasesAsChildrenOfJob() {
+    // given
+    final JobTrace trace = tracer.start(job);
+
+    // when
+    trace.startPhase("build request").end();
+    trace.phase("process response", () -> "result");
+    trace.phaseAsync("complete job", () -> CompletableFuture.completedFuture(null));
+    trace.end(null);
+
+    // then
+    final List<SpanData> spans = spanExporter.getFinishedSpanItems();
+    assertThat(spans).extracting(SpanData::getName)
+        .containsExactly("build request", "process response", "complete job", "job http");
+
+    final SpanData jobSpan = spans.get(3);
+    assertThat(jobSpan.getAttributes().get(AttributeKey.longKey("job.key"))).isEqualTo(1L);
+    assertThat(jobSpan.getAttributes().get(AttributeKey.longKey("job.process_instance_key")))
+        .isEqualTo(2L);
+    assertThat(spans.subList(0, 3)).allSatisfy(span -> {
+      assertThat(span.getTraceId()).isEqualTo(jobSpan.getTraceId());
+      assertThat(span.getParentSpanId()).isEqualTo(jobSpan.getSpanId());
+    });
+  }
+
+  @Test
+  void shouldPropagateContextOfRequest() {
+    // given
+    final JobTrace trace = tracer.start(job);
+    final HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost/api"))
+        .GET()
+        .build();
+
+    // when
+    final HttpRequest tracedRequest = trace.startRequest(request);
+    trace.endRequest(null, new RuntimeException("connection refused"));
+    trace.end(null);
+
+    // then
+    final SpanData requestSpan = spanExporter.getFinishedSpanItems().get(0);
+    assertThat(requestSpan.getKind()).isEqualTo(SpanKind.CLIENT);
+    assertThat(requestSpan.getStatus().getStatusCode()).isEqualTo(StatusCode.ERROR);
+
+    assertThat(tracedRequest.headers().firstValue("traceparent"))
+        .hasValue("00-" + requestSpan.getTraceId() + "-" + requestSpan.getSpanId() + "-01");
+    assertThat(tracedRequest.uri()).isEqualTo(request.uri());
+    assertThat(tracedRequest.method()).isEqualTo("GET");
+  }
+
+  @Test
+  void shouldNotChangeRequestIfTracingIsDisabled() {
+    // given
+    final JobTrace trace = new JobTracer(OpenTelemetry.noop()).start(job);
+    final HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost/api"))
+        .build();
+
+    // when
+    final HttpRequest tracedRequest = trace.startRequest(request);
+
+    // then
+    assertThat(tracedRequest).isSameAs(request);
+  }
+}